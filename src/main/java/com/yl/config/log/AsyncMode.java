@@ -0,0 +1,22 @@
+package com.yl.config.log;
+
+/**
+ * 动态logger写文件的异步方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 10:40
+ */
+public enum AsyncMode {
+    /**
+     * 每个logger一个logback AsyncAppender，各自有队列和工作线程
+     */
+    ASYNC_APPENDER,
+    /**
+     * 所有logger共享{@link com.yl.config.log.async.LogDispatcher}的固定写线程
+     */
+    DISPATCHER,
+    /**
+     * 每个logger一个{@link com.yl.config.log.async.RingBufferAppender}，无锁环形缓冲区
+     */
+    RING_BUFFER,
+}
@@ -0,0 +1,22 @@
+package com.yl.config.log;
+
+/**
+ * 动态logger的控制台输出方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 19:20
+ */
+public enum ConsoleMode {
+    /**
+     * 不输出到控制台
+     */
+    OFF,
+    /**
+     * 在调用线程上同步写System.out，logback原有行为
+     */
+    SYNC,
+    /**
+     * 所有logger共享一个控制台写线程，队列满时丢弃并计数，不阻塞调用线程
+     */
+    ASYNC,
+}
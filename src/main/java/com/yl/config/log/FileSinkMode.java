@@ -0,0 +1,18 @@
+package com.yl.config.log;
+
+/**
+ * 动态logger的文件输出方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 15:50
+ */
+public enum FileSinkMode {
+    /**
+     * logback RollingFileAppender，逐条编码写入
+     */
+    ROLLING_FILE,
+    /**
+     * {@link com.yl.config.log.sink.BatchedFileAppender}，堆外缓冲区批量写入
+     */
+    BATCHED_CHANNEL,
+}
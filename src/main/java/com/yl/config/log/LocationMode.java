@@ -0,0 +1,22 @@
+package com.yl.config.log;
+
+/**
+ * 动态logger获取调用位置(%class.%method() %line)的方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 17:30
+ */
+public enum LocationMode {
+    /**
+     * 不获取调用位置，不输出位置信息
+     */
+    OFF,
+    /**
+     * logback默认方式，构造完整异常堆栈后提取
+     */
+    FULL,
+    /**
+     * 只读取到调用方为止的栈帧，JDK9+使用StackWalker，JDK8退化为完整堆栈
+     */
+    CHEAP,
+}
@@ -4,17 +4,76 @@ import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.filter.ThresholdFilter;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.filter.Filter;
 import ch.qos.logback.core.rolling.RollingFileAppender;
 import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.status.ErrorStatus;
+import ch.qos.logback.core.status.InfoStatus;
+import ch.qos.logback.core.status.WarnStatus;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.OptionHelper;
+import com.yl.config.log.archive.LogArchiver;
+import com.yl.config.log.async.BackpressureAppender;
+import com.yl.config.log.async.BoundedQueue;
+import com.yl.config.log.async.DispatchAppender;
+import com.yl.config.log.async.LogDispatcher;
+import com.yl.config.log.async.RingBufferAppender;
+import com.yl.config.log.async.ShardedAppender;
+import com.yl.config.log.caller.CallerDataAppender;
+import com.yl.config.log.caller.LocationAwareEncoder;
+import com.yl.config.log.console.ConsoleLimitFilter;
+import com.yl.config.log.encoder.BinaryLogEncoder;
+import com.yl.config.log.encoder.FastPatternEncoder;
+import com.yl.config.log.flight.FlightRecorderAppender;
+import com.yl.config.log.flight.FlightRecorderPool;
+import com.yl.config.log.index.TimeIndexWriter;
+import com.yl.config.log.metrics.LoggerMetrics;
+import com.yl.config.log.metrics.LoggerMetricsMXBean;
+import com.yl.config.log.metrics.MetricsSnapshot;
+import com.yl.config.log.reload.PropertiesProfileLoader;
+import com.yl.config.log.reload.SwitchableAppender;
+import com.yl.config.log.sink.BatchedFileAppender;
+import com.yl.config.log.sink.MeteredRollingFileAppender;
+import com.yl.config.log.sink.MultiplexAppender;
+import com.yl.config.log.sink.RolloverPolicy;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 
 /**
@@ -22,7 +81,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * @Date: 2020/4/30  14:22
  * @Descriptions:动态生成logback.xml配置文件的appender
  */
-public class LogAppenderConfig {
+public class LogAppenderConfig implements AutoCloseable {
+    /**
+     * close()排空所有logger的默认期限
+     */
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    /**
+     * 淘汰一个logger时最多将多少个有过活动的队首移到队尾
+     */
+    private static final int MAX_REQUEUE = 16;
 
 
     public LogAppenderConfig(String logBasePath) {
@@ -48,7 +115,93 @@ public class LogAppenderConfig {
     /**
      * 本地静态ConcurrentHashMap存储已有的日志文件名，线程安全
      */
-    private final Map<String, Logger> logFileNameMap = new ConcurrentHashMap<>();
+    private final Map<String, LoggerHolder> logFileNameMap = new ConcurrentHashMap<>();
+
+    /**
+     * 已创建完成的logger按排队先后排列(访问顺序)，队首最久未活动，超出数量时从队首淘汰，以自身为锁。
+     * 事件路径只写lastActiveTime，不调整顺序，淘汰时队首排队后有过活动的移到队尾
+     */
+    private final LinkedHashMap<String, LoggerHolder> activeOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 缓存logger的最大数量，超出后淘汰最久未活动的logger
+     */
+    private volatile int maxLoggerSize = Integer.MAX_VALUE;
+    /**
+     * logger空闲超时时间(毫秒)，<=0 表示不按空闲淘汰
+     */
+    private volatile long idleTimeoutMillis = 0;
+    /**
+     * 空闲淘汰的后台扫描线程，设置空闲超时时才创建
+     */
+    private ScheduledExecutorService idleEvictor;
+
+    /**
+     * 写文件的异步方式
+     */
+    private volatile AsyncMode asyncMode = AsyncMode.ASYNC_APPENDER;
+    /**
+     * 是否在第一个事件到达时才创建appender，打开文件
+     */
+    private volatile boolean lazyStart;
+    /**
+     * 共享分发器的写线程数
+     */
+    private int dispatcherThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    /**
+     * 共享分发器，DISPATCHER模式下首次创建logger时初始化
+     */
+    private LogDispatcher dispatcher;
+    /**
+     * 控制台异步输出的写线程，ConsoleMode.ASYNC的logger首次创建时初始化
+     */
+    private LogDispatcher consoleDispatcher;
+
+    /**
+     * 共用日志文件名到其管道，首个使用该文件的logger创建时初始化，关闭时停止
+     */
+    private final Map<String, BackpressureAppender> multiplexFiles = new ConcurrentHashMap<>();
+
+    /**
+     * 日志文件名到配置的匹配规则，整体替换
+     */
+    private volatile LogProfiles profiles = LogProfiles.DEFAULT;
+    /**
+     * 配置文件及其加载器，调用setProfileFile后启用
+     */
+    private File profileFile;
+    private PropertiesProfileLoader profileLoader;
+    private long profileFileModified;
+    private ScheduledExecutorService profileWatcher;
+
+    /**
+     * 归档压缩及全局保留，调用setArchiver后启用
+     */
+    private volatile LogArchiver archiver;
+
+    /**
+     * 所有logger飞行记录环共用的内存上限
+     */
+    private volatile FlightRecorderPool flightRecorderPool = new FlightRecorderPool(FlightRecorderPool.DEFAULT_MAX_BYTES);
+
+    /**
+     * 是否将各logger的指标注册为JMX MBean
+     */
+    private volatile boolean jmxEnabled;
+    /**
+     * 定时采样各logger的队列深度及每秒事件数，首次创建logger时启动
+     */
+    private ScheduledExecutorService metricsSampler;
+
+    /**
+     * 关闭后getLogger不再创建动态logger
+     */
+    private volatile boolean closed;
+    private Thread shutdownHook;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
 
     /**
@@ -58,15 +211,790 @@ public class LogAppenderConfig {
      * @return
      */
     public Logger getLogger(String logFileName) {
-        Logger logger = logFileNameMap.get(logFileName);
-        if (logger != null) {
-            return logger;
+        if (closed) {
+            // 关闭过程中及之后的日志交给上级logger，不再创建文件
+            return ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(logFileName);
+        }
+        LoggerHolder holder = logFileNameMap.get(logFileName);
+        if (holder != null) {
+            hitCount.increment();
+            holder.lastActiveTime = System.currentTimeMillis();
+            return holder.awaitLogger();
+        }
+        // 先占位再创建，同名并发请求只有占位成功的线程创建，其余线程等待创建结果
+        LoggerHolder created = new LoggerHolder(logFileName);
+        holder = logFileNameMap.putIfAbsent(logFileName, created);
+        if (holder != null) {
+            hitCount.increment();
+            return holder.awaitLogger();
         }
+        missCount.increment();
         LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        try {
+            LogProfile profile = getProfile(logFileName);
+            Supplier<List<Appender<ILoggingEvent>>> factory = () -> createDefaultAppenderList(logFileName, profile, created.metrics, loggerContext);
+            SwitchableAppender appender = lazyStart ? SwitchableAppender.lazy(factory) : new SwitchableAppender(factory.get());
+            appender.setContext(loggerContext);
+            appender.setName(logFileName);
+            // 任意事件经过时刷新活跃时间，空闲淘汰以最后一次打印日志为准，而不是最后一次getLogger
+            appender.addFilter(new ActiveTimeFilter(created));
+            appender.start();
+            created.appender = appender;
+            created.profile = profile;
+            created.complete(createLogger(logFileName, loggerContext, appender));
+            synchronized (activeOrder) {
+                // 已被并发淘汰时不再加入
+                if (logFileNameMap.get(logFileName) == created) {
+                    created.orderedActiveTime = created.lastActiveTime;
+                    activeOrder.put(logFileName, created);
+                }
+            }
+            startMetricsSampler();
+            if (jmxEnabled) {
+                registerMBean(created);
+            }
+        } catch (RuntimeException | Error e) {
+            // 创建失败时移除占位，之后的请求重新创建
+            logFileNameMap.remove(logFileName, created);
+            created.fail(e);
+            throw e;
+        }
+        evictIfOversize();
+        return created.logger;
+    }
 
-        logger = createLogger(logFileName, loggerContext, createDefaultAppenderList(logFileName, loggerContext));
-        logFileNameMap.put(logFileName, logger);
-        return logger;
+    /**
+     * 启动时并行创建并启动一批logger，避免各logger的首次请求承担打开文件和启动appender的开销；
+     * {@link #setLazyStart(boolean)}开启时只注册logger
+     *
+     * @param logFileNames 日志文件名
+     */
+    public void prewarm(Collection<String> logFileNames) {
+        prewarm(logFileNames, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 启动时并行创建并启动一批logger，全部完成后返回
+     *
+     * @param logFileNames 日志文件名
+     * @param parallelism  并行创建的线程数
+     * @throws IllegalStateException 有logger创建失败时，失败原因见suppressed
+     */
+    public void prewarm(Collection<String> logFileNames, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        AtomicInteger threadSeq = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, logFileNames.size())), r -> {
+            Thread thread = new Thread(r, "log-prewarm-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Logger>> futures = new ArrayList<>(logFileNames.size());
+            for (String logFileName : logFileNames) {
+                futures.add(executor.submit(() -> getLogger(logFileName)));
+            }
+            IllegalStateException failure = null;
+            for (Future<Logger> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new IllegalStateException("failed to prewarm loggers");
+                    }
+                    failure.addSuppressed(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while prewarming loggers", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 设置缓存logger的最大数量，超出时按最久未活动淘汰
+     *
+     * @param maxLoggerSize 最大数量，必须大于0
+     */
+    public void setMaxLoggerSize(int maxLoggerSize) {
+        if (maxLoggerSize <= 0) {
+            throw new IllegalArgumentException("maxLoggerSize must be positive: " + maxLoggerSize);
+        }
+        this.maxLoggerSize = maxLoggerSize;
+        evictIfOversize();
+    }
+
+    /**
+     * 设置logger空闲超时时间，超过该时间没有任何日志输出的logger会被淘汰
+     *
+     * @param timeout 超时时间，<=0 表示关闭空闲淘汰
+     * @param unit    时间单位
+     */
+    public synchronized void setIdleTimeout(long timeout, TimeUnit unit) {
+        this.idleTimeoutMillis = unit.toMillis(timeout);
+        if (idleEvictor != null) {
+            idleEvictor.shutdownNow();
+            idleEvictor = null;
+        }
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        idleEvictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-idle-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 扫描间隔取超时时间的一半，最小1秒
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        idleEvictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 淘汰指定logger：排空其异步队列，停止appender并从LoggerContext上摘除。
+     * 之后再次getLogger同名logger会重新创建
+     *
+     * @param logFileName 日志文件名
+     * @return 是否淘汰成功
+     */
+    public boolean evict(String logFileName) {
+        LoggerHolder holder = logFileNameMap.get(logFileName);
+        return holder != null && evict(holder);
+    }
+
+    /**
+     * 按默认期限关闭，见{@link #shutdown(long, TimeUnit)}
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭所有动态logger：并行排空各logger的异步队列并落盘，总耗时不超过timeout，
+     * 期限到达时剩余的事件放弃。溢写到磁盘的事件不回放，留给下次启动。
+     * 关闭后getLogger返回不带文件输出的logger，重复调用直接返回
+     *
+     * @param timeout 总期限
+     * @param unit    时间单位
+     * @return 写出及放弃的事件数
+     */
+    public ShutdownReport shutdown(long timeout, TimeUnit unit) {
+        long start = System.currentTimeMillis();
+        long deadline = start + unit.toMillis(timeout);
+        LogDispatcher sharedDispatcher;
+        LogDispatcher sharedConsoleDispatcher;
+        List<BackpressureAppender> sharedFiles;
+        synchronized (this) {
+            if (closed) {
+                return new ShutdownReport(0, 0, 0, 0);
+            }
+            closed = true;
+            if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // 进程已在退出中
+                }
+            }
+            for (ScheduledExecutorService executor : new ScheduledExecutorService[]{idleEvictor, profileWatcher, metricsSampler}) {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+            sharedDispatcher = dispatcher;
+            sharedConsoleDispatcher = consoleDispatcher;
+            sharedFiles = new ArrayList<>(multiplexFiles.values());
+        }
+
+        List<LoggerHolder> holders = new ArrayList<>();
+        for (LoggerHolder holder : logFileNameMap.values()) {
+            if (detach(holder)) {
+                holders.add(holder);
+            }
+        }
+        // 停止后pipeline不可见，先取出各logger独占的异步appender用于统计
+        List<Appender<ILoggingEvent>> asyncAppenders = new ArrayList<>();
+        for (LoggerHolder holder : holders) {
+            for (Appender<ILoggingEvent> appender : holder.appender.getAppenders()) {
+                for (BackpressureAppender backpressureAppender : backpressuresOf(appender)) {
+                    asyncAppenders.add(backpressureAppender.getDelegate());
+                }
+            }
+        }
+        for (BackpressureAppender sharedFile : sharedFiles) {
+            asyncAppenders.add(sharedFile.getDelegate());
+        }
+        long queued = 0;
+        for (Appender<ILoggingEvent> async : asyncAppenders) {
+            queued += queuedEvents(async);
+        }
+        if (sharedDispatcher != null) {
+            queued += sharedDispatcher.getQueuedCount();
+        }
+
+        if (!holders.isEmpty() || !sharedFiles.isEmpty()) {
+            AtomicInteger threadSeq = new AtomicInteger();
+            int tasks = holders.size() + sharedFiles.size();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks, Runtime.getRuntime().availableProcessors() * 2), r -> {
+                Thread thread = new Thread(r, "log-shutdown-" + threadSeq.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (LoggerHolder holder : holders) {
+                executor.execute(() -> {
+                    // 排队等到的线程只用剩余时间
+                    prepareStop(holder, remaining(deadline));
+                    synchronized (holder) {
+                        holder.appender.stop();
+                    }
+                    unregisterMBean(holder);
+                });
+            }
+            for (BackpressureAppender sharedFile : sharedFiles) {
+                // 各logger已摘除，不再有新事件进入共用文件
+                executor.execute(() -> {
+                    prepareStop(sharedFile, remaining(deadline));
+                    sharedFile.stop();
+                });
+            }
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(remaining(deadline), TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (sharedDispatcher != null) {
+            // 各logger停止后不再有新事件进入共享队列，排空后退出写线程
+            sharedDispatcher.shutdown(remaining(deadline));
+        }
+        long abandoned = 0;
+        for (Appender<ILoggingEvent> async : asyncAppenders) {
+            abandoned += queuedEvents(async);
+        }
+        if (sharedDispatcher != null) {
+            abandoned += sharedDispatcher.getQueuedCount();
+        }
+        if (sharedConsoleDispatcher != null) {
+            sharedConsoleDispatcher.shutdown(remaining(deadline));
+        }
+        LogArchiver currentArchiver = archiver;
+        if (currentArchiver != null) {
+            currentArchiver.stop();
+        }
+        return new ShutdownReport(holders.size(), Math.max(0, queued - abandoned), abandoned, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 注册JVM关闭钩子，进程退出时按期限关闭所有动态logger，结果写入logback状态
+     *
+     * @param timeout 总期限
+     * @param unit    时间单位
+     */
+    public synchronized void registerShutdownHook(long timeout, TimeUnit unit) {
+        if (shutdownHook != null || closed) {
+            return;
+        }
+        shutdownHook = new Thread(() -> {
+            ShutdownReport report = shutdown(timeout, unit);
+            LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+            String msg = "Dynamic loggers shut down: " + report;
+            loggerContext.getStatusManager().add(report.getAbandonedEvents() > 0
+                    ? new WarnStatus(msg, this) : new InfoStatus(msg, this));
+        }, "log-shutdown-hook");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(1L, deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * 按剩余时间设置异步appender的排空等待时间，不回放溢写
+     */
+    private static void prepareStop(LoggerHolder holder, long remainingMillis) {
+        for (Appender<ILoggingEvent> appender : holder.appender.getAppenders()) {
+            for (BackpressureAppender backpressureAppender : backpressuresOf(appender)) {
+                prepareStop(backpressureAppender, remainingMillis);
+            }
+        }
+    }
+
+    private static void prepareStop(BackpressureAppender backpressureAppender, long remainingMillis) {
+        int flushTime = (int) Math.min(Integer.MAX_VALUE, remainingMillis);
+        backpressureAppender.setReplayOnStop(false);
+        Appender<ILoggingEvent> async = backpressureAppender.getDelegate();
+        if (async instanceof AsyncAppender) {
+            ((AsyncAppender) async).setMaxFlushTime(flushTime);
+        } else if (async instanceof RingBufferAppender) {
+            ((RingBufferAppender) async).setMaxFlushTime(flushTime);
+        }
+    }
+
+    /**
+     * 异步appender独占队列中的事件数，共享分发器的队列单独统计
+     */
+    private static int queuedEvents(Appender<ILoggingEvent> async) {
+        if (async instanceof AsyncAppender) {
+            return ((AsyncAppender) async).getNumberOfElementsInQueue();
+        }
+        if (async instanceof RingBufferAppender) {
+            return ((RingBufferAppender) async).getNumberOfElementsInQueue();
+        }
+        return 0;
+    }
+
+    /**
+     * 文件输出的背压appender，分片时每个分片一个
+     */
+    private static List<BackpressureAppender> backpressuresOf(Appender<ILoggingEvent> appender) {
+        if (appender instanceof FlightRecorderAppender) {
+            appender = ((FlightRecorderAppender) appender).getDelegate();
+        }
+        if (appender instanceof ShardedAppender) {
+            return ((ShardedAppender) appender).getShards();
+        }
+        return appender instanceof BackpressureAppender
+                ? Collections.singletonList((BackpressureAppender) appender) : Collections.<BackpressureAppender>emptyList();
+    }
+
+    /**
+     * 延迟创建：getLogger只注册logger，异步线程、文件及滚动策略在第一个通过级别判断的事件到达时才创建，
+     * 创建在该事件的线程上进行。适合启动时注册大量可能不输出日志的logger，只对之后创建的logger生效
+     *
+     * @param lazyStart 是否延迟创建
+     */
+    public void setLazyStart(boolean lazyStart) {
+        this.lazyStart = lazyStart;
+    }
+
+    public boolean isLazyStart() {
+        return lazyStart;
+    }
+
+    /**
+     * 设置写文件的异步方式，只对之后创建的logger生效
+     *
+     * @param asyncMode 异步方式
+     */
+    public void setAsyncMode(AsyncMode asyncMode) {
+        this.asyncMode = asyncMode;
+    }
+
+    /**
+     * 设置共享分发器的写线程数，需在分发器创建前设置
+     *
+     * @param dispatcherThreads 写线程数
+     */
+    public synchronized void setDispatcherThreads(int dispatcherThreads) {
+        if (dispatcherThreads <= 0) {
+            throw new IllegalArgumentException("dispatcherThreads must be positive: " + dispatcherThreads);
+        }
+        if (dispatcher != null) {
+            throw new IllegalStateException("dispatcher already started");
+        }
+        this.dispatcherThreads = dispatcherThreads;
+    }
+
+    /**
+     * 启用归档文件后台压缩及全局保留，logBasePath下所有logger的归档合计不超过totalSizeCap。
+     * 滚动后立即提交压缩，另每分钟扫描一次兜底RollingFileAppender滚动出的文件
+     *
+     * @param parallelism  压缩线程数
+     * @param totalSizeCap 所有logger归档的总大小上限，如"20GB"
+     * @param maxHistory   归档保留天数
+     */
+    public synchronized void setArchiver(int parallelism, String totalSizeCap, int maxHistory) {
+        if (archiver != null) {
+            archiver.stop();
+        }
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        File logBaseDir = new File(OptionHelper.substVars(logBasePath, loggerContext));
+        LogArchiver newArchiver = new LogArchiver(logBaseDir, parallelism, FileSize.valueOf(totalSizeCap).getSize(), maxHistory);
+        newArchiver.start(1, TimeUnit.MINUTES);
+        this.archiver = newArchiver;
+    }
+
+    public LogArchiver getArchiver() {
+        return archiver;
+    }
+
+    /**
+     * 设置所有logger飞行记录环合计的内存上限，默认64MB，只对之后创建或重载的logger生效
+     *
+     * @param maxSize 如"128MB"
+     */
+    public void setFlightRecorderMemory(String maxSize) {
+        this.flightRecorderPool = new FlightRecorderPool(FileSize.valueOf(maxSize).getSize());
+    }
+
+    public FlightRecorderPool getFlightRecorderPool() {
+        return flightRecorderPool;
+    }
+
+    /**
+     * 将指定logger飞行记录环中的事件立即写入文件
+     *
+     * @param logFileName 日志文件名
+     * @return 写入的事件数，logger不存在或未开启飞行记录时返回0
+     */
+    public int dumpFlightRecorder(String logFileName) {
+        LoggerHolder holder = logFileNameMap.get(logFileName);
+        if (holder == null || holder.logger == null) {
+            return 0;
+        }
+        int dumped = 0;
+        for (Appender<ILoggingEvent> appender : holder.appender.getAppenders()) {
+            if (appender instanceof FlightRecorderAppender) {
+                dumped += ((FlightRecorderAppender) appender).dump(null);
+            }
+        }
+        return dumped;
+    }
+
+    /**
+     * 设置默认配置，只对之后创建的logger生效
+     *
+     * @param defaultProfile 默认配置
+     */
+    public synchronized void setDefaultProfile(LogProfile defaultProfile) {
+        this.profiles = profiles.toBuilder().defaultProfile(defaultProfile).build();
+    }
+
+    /**
+     * 为指定日志文件名单独设置配置，只对之后创建的logger生效
+     *
+     * @param logFileName 日志文件名
+     * @param profile     配置
+     */
+    public synchronized void setProfile(String logFileName, LogProfile profile) {
+        this.profiles = profiles.toBuilder().exact(logFileName, profile).build();
+    }
+
+    /**
+     * 为指定前缀的日志文件名设置配置，只对之后创建的logger生效
+     *
+     * @param prefix  日志文件名前缀
+     * @param profile 配置
+     */
+    public synchronized void setPrefixProfile(String prefix, LogProfile profile) {
+        this.profiles = profiles.toBuilder().prefix(prefix, profile).build();
+    }
+
+    /**
+     * 获取日志文件名对应的配置：精确名称 -> 最长前缀 -> 默认配置
+     *
+     * @param logFileName 日志文件名
+     * @return 配置
+     */
+    public LogProfile getProfile(String logFileName) {
+        return profiles.resolve(logFileName);
+    }
+
+    public LogProfiles getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * 替换全部配置规则，已创建的logger配置有变化时切换到按新配置创建的appender，
+     * 切换期间该logger的事件短暂等待，不丢失也不重复
+     *
+     * @param profiles 新的配置规则
+     * @return 切换了appender的logger数量
+     */
+    public int reloadProfiles(LogProfiles profiles) {
+        synchronized (this) {
+            this.profiles = profiles;
+        }
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        int reloaded = 0;
+        for (LoggerHolder holder : logFileNameMap.values()) {
+            if (reload(holder, loggerContext)) {
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * 从properties文件加载配置规则并立即生效，之后按间隔检查文件修改时间，修改后自动重载。
+     * 文件格式见{@link PropertiesProfileLoader}
+     *
+     * @param file     配置文件
+     * @param interval 检查间隔，<=0 表示不自动重载
+     * @param unit     时间单位
+     */
+    public synchronized void setProfileFile(File file, long interval, TimeUnit unit) throws IOException {
+        if (profileWatcher != null) {
+            profileWatcher.shutdownNow();
+            profileWatcher = null;
+        }
+        this.profileFile = file;
+        this.profileLoader = new PropertiesProfileLoader();
+        reloadProfileFile();
+        if (interval <= 0) {
+            return;
+        }
+        profileWatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-profile-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        profileWatcher.scheduleWithFixedDelay(() -> {
+            try {
+                if (profileFile.lastModified() != profileFileModified) {
+                    reloadProfileFile();
+                }
+            } catch (IOException | RuntimeException e) {
+                // 配置有误时保留当前配置，下次文件修改后再试
+                ((LoggerContext) LoggerFactory.getILoggerFactory()).getStatusManager()
+                        .add(new ErrorStatus("Failed to reload log profiles from " + profileFile, this, e));
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * 重新加载setProfileFile设置的配置文件
+     *
+     * @return 切换了appender的logger数量
+     */
+    public synchronized int reloadProfileFile() throws IOException {
+        if (profileFile == null) {
+            throw new IllegalStateException("profile file not set");
+        }
+        long modified = profileFile.lastModified();
+        LogProfiles loaded = profileLoader.load(profileFile);
+        profileFileModified = modified;
+        return reloadProfiles(loaded);
+    }
+
+    /**
+     * 获取指定logger的运行指标
+     *
+     * @param logFileName 日志文件名
+     * @return 指标，logger不存在或创建中时返回null
+     */
+    public LoggerMetrics getMetrics(String logFileName) {
+        LoggerHolder holder = logFileNameMap.get(logFileName);
+        return holder == null || holder.logger == null ? null : holder.metrics;
+    }
+
+    /**
+     * 所有已创建logger的指标快照
+     *
+     * @return 日志文件名 -> 快照
+     */
+    public Map<String, MetricsSnapshot> snapshotMetrics() {
+        Map<String, MetricsSnapshot> snapshots = new TreeMap<>();
+        for (LoggerHolder holder : logFileNameMap.values()) {
+            if (holder.logger != null) {
+                snapshots.put(holder.logFileName, holder.metrics.snapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * 是否将各logger的指标注册为JMX MBean，ObjectName见{@link LoggerMetricsMXBean}，
+     * 开启时为已创建的logger补注册，关闭时全部注销
+     *
+     * @param jmxEnabled 是否注册
+     */
+    public synchronized void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+        for (LoggerHolder holder : logFileNameMap.values()) {
+            if (holder.logger == null) {
+                continue;
+            }
+            if (jmxEnabled) {
+                registerMBean(holder);
+            } else {
+                unregisterMBean(holder);
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int getLoggerSize() {
+        return logFileNameMap.size();
+    }
+
+    private synchronized void startMetricsSampler() {
+        if (metricsSampler != null) {
+            return;
+        }
+        metricsSampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsSampler.scheduleWithFixedDelay(() -> {
+            for (LoggerHolder holder : logFileNameMap.values()) {
+                try {
+                    holder.metrics.sample();
+                } catch (RuntimeException e) {
+                    // 采样异常不能让采样线程退出
+                }
+            }
+        }, 100, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private void registerMBean(LoggerHolder holder) {
+        try {
+            ObjectName objectName = mBeanName(holder.logFileName);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(holder.metrics, objectName);
+            }
+        } catch (JMException e) {
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).getStatusManager()
+                    .add(new ErrorStatus("Failed to register metrics MBean for " + holder.logFileName, this, e));
+        }
+    }
+
+    private void unregisterMBean(LoggerHolder holder) {
+        try {
+            ObjectName objectName = mBeanName(holder.logFileName);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // 同名logger已重新创建并注册时不注销
+            if (server.isRegistered(objectName) && !logFileNameMap.containsKey(holder.logFileName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            // 已被注销
+        }
+    }
+
+    private static ObjectName mBeanName(String logFileName) throws MalformedObjectNameException {
+        return new ObjectName("com.yl.config.log:type=DynamicLogger,name=" + ObjectName.quote(logFileName));
+    }
+
+    private void evictIfOversize() {
+        while (logFileNameMap.size() > maxLoggerSize) {
+            // 创建中的logger不在activeOrder中，不参与淘汰
+            LoggerHolder eldest = pollEldest();
+            if (eldest == null) {
+                return;
+            }
+            evict(eldest);
+        }
+    }
+
+    /**
+     * 从activeOrder队首取出最久未活动的logger。队首在排队后有过活动时记下活动时间移到队尾，
+     * 每次最多移动{@link #MAX_REQUEUE}个，锁内的耗时与logger数无关；都有活动时取当前队首，近似LRU
+     */
+    private LoggerHolder pollEldest() {
+        synchronized (activeOrder) {
+            for (int chances = MAX_REQUEUE; ; chances--) {
+                Iterator<LoggerHolder> it = activeOrder.values().iterator();
+                if (!it.hasNext()) {
+                    return null;
+                }
+                LoggerHolder holder = it.next();
+                long active = holder.lastActiveTime;
+                if (chances <= 0 || active == holder.orderedActiveTime) {
+                    it.remove();
+                    return holder;
+                }
+                holder.orderedActiveTime = active;
+                // 访问顺序的map，get移到队尾
+                activeOrder.get(holder.logFileName);
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long deadline = System.currentTimeMillis() - idleTimeoutMillis;
+        for (LoggerHolder holder : logFileNameMap.values()) {
+            if (holder.lastActiveTime < deadline) {
+                evict(holder);
+            }
+        }
+    }
+
+    private boolean evict(LoggerHolder holder) {
+        if (!detach(holder)) {
+            return false;
+        }
+        // AsyncAppender停止时会排空队列并停止其下的文件appender，释放线程和文件句柄
+        synchronized (holder) {
+            holder.appender.stop();
+        }
+        unregisterMBean(holder);
+        evictionCount.increment();
+        return true;
+    }
+
+    /**
+     * 从map及logger上摘除，之后的事件不再进入该logger的appender
+     */
+    private boolean detach(LoggerHolder holder) {
+        // 创建中的logger不淘汰
+        if (holder.logger == null || !logFileNameMap.remove(holder.logFileName, holder)) {
+            return false;
+        }
+        synchronized (activeOrder) {
+            activeOrder.remove(holder.logFileName, holder);
+        }
+        holder.logger.detachAppender(holder.appender);
+        // 同名logger已被重新创建时不再改动。新holder先放入map再设置additive，这里看不到新holder时其设置一定在后面
+        if (!logFileNameMap.containsKey(holder.logFileName)) {
+            // logback无法从LoggerContext中删除logger，恢复为向上级传递，残留引用打印的日志不会被静默丢弃
+            holder.logger.setAdditive(true);
+        }
+        return true;
+    }
+
+    /**
+     * 配置有变化时按新配置重建该logger的appender
+     */
+    private boolean reload(LoggerHolder holder, LoggerContext loggerContext) {
+        if (holder.logger == null) {
+            return false;
+        }
+        // 与淘汰互斥，已淘汰的logger不再重建
+        synchronized (holder) {
+            LogProfile profile = getProfile(holder.logFileName);
+            if (profile == holder.profile || !holder.appender.isStarted()) {
+                return false;
+            }
+            try {
+                holder.appender.switchTo(() -> createDefaultAppenderList(holder.logFileName, profile, holder.metrics, loggerContext));
+                holder.profile = profile;
+            } catch (RuntimeException e) {
+                // 新配置创建失败时按原配置重建，不让logger停止输出
+                LogProfile previous = holder.profile;
+                holder.appender.switchTo(() -> createDefaultAppenderList(holder.logFileName, previous, holder.metrics, loggerContext));
+                throw e;
+            }
+            return true;
+        }
     }
 
 
@@ -76,7 +1004,7 @@ public class LogAppenderConfig {
      * @param logFileName 要创建的日志文件名称
      * @return
      */
-    private synchronized Logger createLogger(String logFileName,
+    private Logger createLogger(String logFileName,
                                              LoggerContext loggerContext,
                                              Appender... appenderList) {
 
@@ -92,40 +1020,272 @@ public class LogAppenderConfig {
 
     }
 
-    private Appender<ILoggingEvent>[] createDefaultAppenderList(String logFileName,
-                                                                LoggerContext loggerContext) {
-        String logPattern = "%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%X{tid}] [%t] %c [%class.%method\\(\\) %line{}L]%n-> %m%n";
-        AsyncAppender asyncAppender = createDefaultAsyncAppender(logFileName, logPattern, loggerContext);
+    private List<Appender<ILoggingEvent>> createDefaultAppenderList(String logFileName,
+                                                                    LogProfile profile,
+                                                                    LoggerMetrics metrics,
+                                                                    LoggerContext loggerContext) {
+        String logPattern = profile.getPattern();
+        Appender<ILoggingEvent> fileAppender;
+        if (profile.isMultiplexed()) {
+            BackpressureAppender sharedFile = getMultiplexFile(profile, loggerContext);
+            MultiplexAppender multiplexAppender = new MultiplexAppender(sharedFile);
+            multiplexAppender.setContext(loggerContext);
+            multiplexAppender.setName(logFileName);
+            multiplexAppender.start();
+            fileAppender = multiplexAppender;
+            metrics.setQueue(sharedFile.getQueue());
+        } else if (profile.getShards() > 1) {
+            checkDedicatedFile(logFileName);
+            BackpressureAppender[] shards = new BackpressureAppender[profile.getShards()];
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = createFilePipeline(logFileName, i, profile, metrics, loggerContext);
+            }
+            ShardedAppender shardedAppender = new ShardedAppender(shards);
+            shardedAppender.setContext(loggerContext);
+            shardedAppender.setName(logFileName);
+            shardedAppender.start();
+            fileAppender = shardedAppender;
+            metrics.setQueue(shardedAppender);
+        } else {
+            checkDedicatedFile(logFileName);
+            BackpressureAppender backpressureAppender = createFilePipeline(logFileName, -1, profile, metrics, loggerContext);
+            fileAppender = backpressureAppender;
+            metrics.setQueue(backpressureAppender.getQueue());
+        }
+        if (profile.isFlightRecorder()) {
+            fileAppender = createFlightRecorderAppender(logFileName, profile, fileAppender, loggerContext);
+        }
 
         /*设置动态日志控制台输出*/
-        ConsoleAppender consoleAppender = createDefaultConsoleAppender(logPattern, loggerContext);
+        Appender<ILoggingEvent> consoleAppender = createConsoleAppender(logFileName, logPattern, profile, metrics, loggerContext);
+        if (consoleAppender != null && profile.isFlightRecorder()) {
+            // 只进飞行记录的事件也不输出到控制台
+            ThresholdFilter filter = new ThresholdFilter();
+            filter.setLevel(profile.getFlightRecorderLevel().levelStr);
+            filter.start();
+            consoleAppender.addFilter(filter);
+        }
 
-        return new Appender[]{consoleAppender, asyncAppender};
+        List<Appender<ILoggingEvent>> appenderList = new ArrayList<>(3);
+        // 同步控制台在调用线程上格式化时会顺带采集完整调用位置，其余情况需显式采集；
+        // 飞行记录的事件不经过控制台，也需显式采集
+        if (!profile.isFullLocation() || profile.getConsole() != ConsoleMode.SYNC || profile.isFlightRecorder()) {
+            // 调用位置需在调用线程上、其他appender之前采集
+            CallerDataAppender callerDataAppender = new CallerDataAppender(profile.getLocation(), profile.getLocationLevel());
+            callerDataAppender.setContext(loggerContext);
+            callerDataAppender.start();
+            appenderList.add(callerDataAppender);
+        }
+        if (consoleAppender != null) {
+            appenderList.add(consoleAppender);
+        }
+        appenderList.add(fileAppender);
+        return appenderList;
+    }
+
+    /**
+     * 独占文件与共用文件同名时写入同一个collection.log，互相破坏名称索引。
+     * 与{@link #getMultiplexFile}在同一把锁下检查：logger先占位再创建，共用文件创建时能看到创建中的同名logger
+     */
+    private synchronized void checkDedicatedFile(String logFileName) {
+        if (multiplexFiles.containsKey(logFileName)) {
+            throw new IllegalArgumentException("logger " + logFileName + " collides with multiplex file " + logFileName);
+        }
+    }
+
+    /**
+     * 共用日志文件的管道，不存在时按该logger的配置创建；已存在时忽略该logger配置中文件相关的部分，
+     * 重载配置也不重建共用文件
+     */
+    private synchronized BackpressureAppender getMultiplexFile(LogProfile profile, LoggerContext loggerContext) {
+        String fileName = profile.getMultiplex();
+        BackpressureAppender sharedFile = multiplexFiles.get(fileName);
+        if (sharedFile == null) {
+            LoggerHolder holder = logFileNameMap.get(fileName);
+            // 创建中的logger尚未设置profile
+            LogProfile holderProfile = holder == null ? null : holder.profile != null ? holder.profile : getProfile(fileName);
+            if (holderProfile != null && !holderProfile.isMultiplexed()) {
+                throw new IllegalArgumentException("multiplex file " + fileName + " collides with logger " + fileName);
+            }
+            // 名称索引依赖批量写入时的文件偏移
+            LogProfile fileProfile = profile.toBuilder().fileSink(FileSinkMode.BATCHED_CHANNEL).shards(1).build();
+            sharedFile = createFilePipeline(fileName, -1, fileProfile, new LoggerMetrics(fileName), loggerContext);
+            multiplexFiles.put(fileName, sharedFile);
+        }
+        return sharedFile;
+    }
+
+    /**
+     * 创建 背压 -> 异步队列 -> 文件 管道
+     *
+     * @param shard 分片下标，分片时文件及溢写目录位于logger目录下的shard-i，-1表示不分片
+     */
+    private BackpressureAppender createFilePipeline(String logFileName,
+                                                    int shard,
+                                                    LogProfile profile,
+                                                    LoggerMetrics metrics,
+                                                    LoggerContext loggerContext) {
+        String logPattern = profile.getPattern();
+        String pipelineName = shard < 0 ? logFileName : logFileName + "/shard-" + shard;
+        Appender<ILoggingEvent> asyncAppender;
+        BoundedQueue queue;
+        if (asyncMode == AsyncMode.DISPATCHER) {
+            DispatchAppender dispatchAppender = createDispatchAppender(pipelineName, getDispatcher().workerIndex(logFileName, Math.max(shard, 0)),
+                    logPattern, profile, metrics, loggerContext);
+            asyncAppender = dispatchAppender;
+            queue = dispatchAppender;
+        } else if (asyncMode == AsyncMode.RING_BUFFER) {
+            RingBufferAppender ringBufferAppender = createRingBufferAppender(pipelineName, logPattern, profile, metrics, loggerContext);
+            asyncAppender = ringBufferAppender;
+            queue = ringBufferAppender;
+        } else {
+            AsyncAppender defaultAsyncAppender = createDefaultAsyncAppender(pipelineName, logPattern, profile, metrics, loggerContext);
+            asyncAppender = defaultAsyncAppender;
+            queue = BoundedQueue.of(defaultAsyncAppender);
+        }
+        return createBackpressureAppender(pipelineName, profile, metrics, asyncAppender, queue, loggerContext);
+    }
+
+    private BackpressureAppender createBackpressureAppender(String logFileName,
+                                                            LogProfile profile,
+                                                            LoggerMetrics metrics,
+                                                            Appender<ILoggingEvent> asyncAppender,
+                                                            BoundedQueue queue,
+                                                            LoggerContext loggerContext) {
+        BackpressureAppender backpressureAppender = new BackpressureAppender(asyncAppender, queue, profile.getBackpressure());
+        backpressureAppender.setContext(loggerContext);
+        backpressureAppender.setMetrics(metrics);
+        backpressureAppender.setName(logFileName);
+        // 溢写目录，队列排空后回放
+        backpressureAppender.setSpillDir(new File(OptionHelper.substVars(logBasePath + logFileName + "/spill", loggerContext)));
+        backpressureAppender.start();
+        return backpressureAppender;
+    }
+
+    private FlightRecorderAppender createFlightRecorderAppender(String logFileName,
+                                                                LogProfile profile,
+                                                                Appender<ILoggingEvent> fileAppender,
+                                                                LoggerContext loggerContext) {
+        FlightRecorderAppender flightRecorderAppender = new FlightRecorderAppender(fileAppender,
+                profile.getFlightRecorderLevel(), (int) profile.getFlightRecorderSize(), flightRecorderPool);
+        flightRecorderAppender.setContext(loggerContext);
+        flightRecorderAppender.setName(logFileName + "-flight");
+        flightRecorderAppender.setTidScoped(profile.isFlightRecorderTidScoped());
+        flightRecorderAppender.start();
+        return flightRecorderAppender;
+    }
+
+    private RingBufferAppender createRingBufferAppender(String logFileName,
+                                                        String logPattern,
+                                                        LogProfile profile,
+                                                        LoggerMetrics metrics,
+                                                        LoggerContext loggerContext) {
+        RingBufferAppender ringBufferAppender = new RingBufferAppender();
+        ringBufferAppender.setContext(loggerContext);
+        ringBufferAppender.setName(logFileName);
+        ringBufferAppender.setBufferSize(profile.getQueueSize() > 0 ? profile.getQueueSize() : RingBufferAppender.DEFAULT_BUFFER_SIZE);
+
+        Appender<ILoggingEvent> appender = createFileAppender(logFileName, logPattern, profile, metrics, loggerContext);
+        ringBufferAppender.addAppender(appender);
+
+        ringBufferAppender.start();
+        return ringBufferAppender;
+    }
+
+    private DispatchAppender createDispatchAppender(String logFileName,
+                                                    int workerIndex,
+                                                    String logPattern,
+                                                    LogProfile profile,
+                                                    LoggerMetrics metrics,
+                                                    LoggerContext loggerContext) {
+        Appender<ILoggingEvent> appender = createFileAppender(logFileName, logPattern, profile, metrics, loggerContext);
+        DispatchAppender dispatchAppender = new DispatchAppender(getDispatcher(), appender, workerIndex);
+        dispatchAppender.setContext(loggerContext);
+        dispatchAppender.setName(logFileName);
+        dispatchAppender.start();
+        return dispatchAppender;
+    }
+
+    private synchronized LogDispatcher getDispatcher() {
+        if (dispatcher == null) {
+            dispatcher = new LogDispatcher(dispatcherThreads, 1024);
+        }
+        return dispatcher;
     }
 
     private AsyncAppender createDefaultAsyncAppender(String logFileName,
                                                      String logPattern,
+                                                     LogProfile profile,
+                                                     LoggerMetrics metrics,
                                                      LoggerContext loggerContext) {
         AsyncAppender asyncAppender = new AsyncAppender();
         asyncAppender.setContext(loggerContext);
 
         //创建appender，滚动记录文件，先将日志记录到指定文件，当符合某个条件时，将日志记录到其他文件
         asyncAppender.setDiscardingThreshold(0);
-        asyncAppender.setQueueSize(512);
+        asyncAppender.setQueueSize(profile.getQueueSize() > 0 ? profile.getQueueSize() : 512);
 
-        RollingFileAppender appender = createRollingFileAppender(logFileName, logPattern, loggerContext);
+        Appender<ILoggingEvent> appender = createFileAppender(logFileName, logPattern, profile, metrics, loggerContext);
         asyncAppender.addAppender(appender);
 
         asyncAppender.start();
         return asyncAppender;
     }
 
-    private RollingFileAppender createRollingFileAppender(String logFileName,
+    private Appender<ILoggingEvent> createFileAppender(String logFileName,
+                                                       String logPattern,
+                                                       LogProfile profile,
+                                                       LoggerMetrics metrics,
+                                                       LoggerContext loggerContext) {
+        if (profile.getFileSink() == FileSinkMode.BATCHED_CHANNEL) {
+            return createBatchedFileAppender(logFileName, logPattern, profile, metrics, loggerContext);
+        }
+        return createRollingFileAppender(logFileName, logPattern, profile, metrics, loggerContext);
+    }
+
+    private BatchedFileAppender createBatchedFileAppender(String logFileName,
                                                           String logPattern,
+                                                          LogProfile profile,
+                                                          LoggerMetrics metrics,
                                                           LoggerContext loggerContext) {
-        RollingFileAppender appender = new RollingFileAppender();
+        BatchedFileAppender appender = new BatchedFileAppender();
+        appender.setContext(loggerContext);
+        appender.setName(logFileName);
+        File file = new File(OptionHelper.substVars(logBasePath + logFileName + "/collection.log", loggerContext));
+        appender.setFile(file);
+        // 与RollingFileAppender相同的滚动规则：按单文件大小及按天归档，超过保留天数或总大小时删除最旧的归档
+        File archiveDir = new File(OptionHelper.substVars(logBasePath + logFileName + "/collection", loggerContext));
+        appender.setRolloverPolicy(new RolloverPolicy(file, archiveDir,
+                profile.getMaxFileSize(), profile.getMaxHistory(), profile.getTotalSizeCap()));
+        appender.setLingerMillis(profile.getLingerMillis());
+        appender.setBufferSize(profile.getBufferSize());
+        // 二进制文件无法从中间开始解码，不写索引
+        appender.setIndexInterval(profile.isTimeIndex() && profile.getEncoding() != LogEncoding.BINARY
+                ? TimeIndexWriter.DEFAULT_INTERVAL : 0);
+        // 共用文件记录每条事件所属的logger，二进制格式同样无法单独取出一条记录
+        appender.setNameIndex(profile.isMultiplexed() && profile.getEncoding() != LogEncoding.BINARY);
+        appender.setMetrics(metrics);
+        // 每次取当前的archiver，setArchiver在logger创建之后调用也能生效
+        appender.setArchiveListener(archived -> {
+            LogArchiver current = archiver;
+            if (current != null) {
+                current.submit(archived);
+            }
+        });
+        appender.setEncoder(createFileEncoder(logPattern, profile, loggerContext));
+        appender.start();
+        return appender;
+    }
+
+    private MeteredRollingFileAppender createRollingFileAppender(String logFileName,
+                                                          String logPattern,
+                                                          LogProfile profile,
+                                                          LoggerMetrics metrics,
+                                                          LoggerContext loggerContext) {
+        MeteredRollingFileAppender appender = new MeteredRollingFileAppender();
 
         appender.setContext(loggerContext);
+        appender.setMetrics(metrics);
         // 设置appender的名称
         appender.setName(logFileName);
         // 创建活动日志（当天日志）打印文件
@@ -144,25 +1304,22 @@ public class LogAppenderConfig {
         rollingPolicy.setParent(appender);
         rollingPolicy.setContext(loggerContext);
         // 设置单个文件大小
-        rollingPolicy.setMaxFileSize(FileSize.valueOf("50MB"));
+        rollingPolicy.setMaxFileSize(new FileSize(profile.getMaxFileSize()));
         // 设置归档文件名
         rollingPolicy.setFileNamePattern(filePath);
-        // 设置归档文件保留的最大数量，这里设置30天
-        rollingPolicy.setMaxHistory(30);
+        // 设置归档文件保留的最大天数
+        rollingPolicy.setMaxHistory(profile.getMaxHistory());
         // 设置全部日志文件最大体积
-        rollingPolicy.setTotalSizeCap(FileSize.valueOf("2GB"));
+        rollingPolicy.setTotalSizeCap(new FileSize(profile.getTotalSizeCap()));
         rollingPolicy.start();
 
         // 设置appender记录日志的滚动策略
 //        appender.setRollingPolicy(rollingPolicy);
         appender.setTriggeringPolicy(rollingPolicy);
         //设置输出到日志文件的格式
-        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
-        encoder.setContext(loggerContext);
+        Encoder<ILoggingEvent> encoder = createFileEncoder(logPattern, profile, loggerContext);
         // 日志格式
 //        encoder.setPattern("%d#|###|#%m%n");
-        encoder.setPattern(logPattern);
-        encoder.start();
 //         %clr(%d{yyyy-MM-dd HH:mm:ss.SSS}){faint} %clr([%p]){faint} %clr(${PID}){magenta}%clr{faint} %clr([%t]){faint} %green([%c]) %cyan([%M]) [%L] -> %n\t%m%n
         //<pattern>%black(控制台-) %red(%d{yyyy-MM-dd HH:mm:ss}) %green([%thread]) %highlight(%-5level) %boldMagenta(%logger) - %cyan(%msg%n)</pattern>
         appender.setEncoder(encoder);
@@ -170,23 +1327,129 @@ public class LogAppenderConfig {
         return appender;
     }
 
-    private ConsoleAppender createDefaultConsoleAppender(String logPattern,
-                                                         LoggerContext loggerContext) {
-        ConsoleAppender consoleAppender = new ConsoleAppender();
+    /**
+     * 按配置创建控制台输出，OFF时返回null
+     */
+    private Appender<ILoggingEvent> createConsoleAppender(String logFileName,
+                                                          String logPattern,
+                                                          LogProfile profile,
+                                                          LoggerMetrics metrics,
+                                                          LoggerContext loggerContext) {
+        if (profile.getConsole() == ConsoleMode.OFF) {
+            return null;
+        }
+        ConsoleAppender<ILoggingEvent> consoleAppender = createDefaultConsoleAppender(logPattern, profile, loggerContext);
+        consoleAppender.setName(logFileName + "-console");
+        Appender<ILoggingEvent> appender = consoleAppender;
+        if (profile.getConsole() == ConsoleMode.ASYNC) {
+            DispatchAppender dispatchAppender = new DispatchAppender(getConsoleDispatcher(), consoleAppender);
+            dispatchAppender.setContext(loggerContext);
+            dispatchAppender.setName(logFileName + "-console");
+            dispatchAppender.setNeverBlock(true);
+            dispatchAppender.setMetrics(metrics);
+            dispatchAppender.start();
+            appender = dispatchAppender;
+        }
+        if (profile.isConsoleLimited()) {
+            ConsoleLimitFilter filter = new ConsoleLimitFilter(profile.getConsolePermitsPerSecond(),
+                    profile.getConsoleKeepRatio(), profile.getConsoleExemptLevel());
+            filter.setMetrics(metrics);
+            filter.start();
+            appender.addFilter(filter);
+        }
+        return appender;
+    }
+
+    /**
+     * 所有logger共享的控制台写线程，System.out本身是串行的，一个线程足够
+     */
+    private synchronized LogDispatcher getConsoleDispatcher() {
+        if (consoleDispatcher == null) {
+            consoleDispatcher = new LogDispatcher("log-console", 1, 8192);
+        }
+        return consoleDispatcher;
+    }
+
+    private ConsoleAppender<ILoggingEvent> createDefaultConsoleAppender(String logPattern,
+                                                                        LogProfile profile,
+                                                                        LoggerContext loggerContext) {
+        ConsoleAppender<ILoggingEvent> consoleAppender = new ConsoleAppender<>();
         consoleAppender.setContext(loggerContext);
 
         //设置输出到控制台的日志文件格式
-        PatternLayoutEncoder encoder1 = new PatternLayoutEncoder();
-        encoder1.setContext(loggerContext);
 //        encoder1.setPattern("%d %p (%file:%line\\)- %m%n");
-        encoder1.setPattern(logPattern);
-        encoder1.start();
+        Encoder<ILoggingEvent> encoder1 = createEncoder(logPattern, profile, loggerContext);
 
         consoleAppender.setEncoder(encoder1);
         consoleAppender.start();
         return consoleAppender;
     }
 
+    /**
+     * 文件的编码器，{@link LogEncoding#BINARY}时写二进制，其余与控制台相同
+     */
+    private Encoder<ILoggingEvent> createFileEncoder(String logPattern,
+                                                     LogProfile profile,
+                                                     LoggerContext loggerContext) {
+        if (profile.getEncoding() == LogEncoding.BINARY) {
+            BinaryLogEncoder encoder = new BinaryLogEncoder();
+            encoder.setContext(loggerContext);
+            encoder.setLocationAware(!profile.isFullLocation());
+            encoder.start();
+            return encoder;
+        }
+        return createEncoder(logPattern, profile, loggerContext);
+    }
+
+    private Encoder<ILoggingEvent> createEncoder(String logPattern,
+                                                 LogProfile profile,
+                                                 LoggerContext loggerContext) {
+        if (profile.getEncoding() == LogEncoding.GARBAGE_FREE && LogProfile.DEFAULT_PATTERN.equals(logPattern)) {
+            // 固定输出默认格式，自定义格式退回PatternLayout
+            FastPatternEncoder encoder = new FastPatternEncoder();
+            encoder.setContext(loggerContext);
+            encoder.setLocationAware(!profile.isFullLocation());
+            encoder.start();
+            return encoder;
+        }
+        // GARBAGE_FREE固定UTF-8，自定义格式退回PatternLayout时保持一致；PATTERN_LAYOUT仍使用平台默认编码
+        Charset charset = profile.getEncoding() == LogEncoding.GARBAGE_FREE ? StandardCharsets.UTF_8 : null;
+        if (profile.isFullLocation()) {
+            return createPatternLayoutEncoder(logPattern, charset, loggerContext);
+        }
+        // 未采集调用位置的事件使用去掉位置信息的格式
+        String withoutLocation = LocationAwareEncoder.stripLocation(logPattern);
+        if (withoutLocation == null) {
+            loggerContext.getStatusManager().add(new WarnStatus("Location converters in pattern [" + logPattern
+                    + "] can not be stripped, events without caller data are encoded with the full pattern.", this));
+            return createPatternLayoutEncoder(logPattern, charset, loggerContext);
+        }
+        if (withoutLocation.equals(logPattern)) {
+            return createPatternLayoutEncoder(logPattern, charset, loggerContext);
+        }
+        LocationAwareEncoder encoder = new LocationAwareEncoder(createPatternLayoutEncoder(logPattern, charset, loggerContext),
+                createPatternLayoutEncoder(withoutLocation, charset, loggerContext));
+        encoder.setContext(loggerContext);
+        encoder.start();
+        return encoder;
+    }
+
+    /**
+     * @param charset 输出编码，null表示平台默认编码
+     */
+    private PatternLayoutEncoder createPatternLayoutEncoder(String logPattern,
+                                                            Charset charset,
+                                                            LoggerContext loggerContext) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(logPattern);
+        if (charset != null) {
+            encoder.setCharset(charset);
+        }
+        encoder.start();
+        return encoder;
+    }
+
     private Appender<ILoggingEvent> createDefaultAppenderBak(String logFileName,
                                                              LoggerContext loggerContext) {
 
@@ -247,6 +1510,93 @@ public class LogAppenderConfig {
     }
 
 
+    /**
+     * 已创建logger及其appender
+     */
+    private static class LoggerHolder {
+        private final String logFileName;
+        /**
+         * 创建完成前为null
+         */
+        private volatile Logger logger;
+        /**
+         * logger上唯一挂载的appender，重载配置时在其内部切换
+         */
+        private SwitchableAppender appender;
+        /**
+         * 当前appender对应的配置
+         */
+        private LogProfile profile;
+        /**
+         * 运行指标，配置重载后继续累计
+         */
+        private final LoggerMetrics metrics;
+        /**
+         * 创建过程中其他线程在此等待
+         */
+        private final CompletableFuture<Logger> created = new CompletableFuture<>();
+        /**
+         * 最后活跃时间，允许并发下的脏写
+         */
+        private volatile long lastActiveTime = System.currentTimeMillis();
+        /**
+         * 在activeOrder中排到队尾时的lastActiveTime，由activeOrder的锁保护
+         */
+        private long orderedActiveTime;
+
+        private LoggerHolder(String logFileName) {
+            this.logFileName = logFileName;
+            this.metrics = new LoggerMetrics(logFileName);
+        }
+
+        private void complete(Logger logger) {
+            this.logger = logger;
+            created.complete(logger);
+        }
+
+        private void fail(Throwable e) {
+            created.completeExceptionally(e);
+        }
+
+        private Logger awaitLogger() {
+            Logger current = logger;
+            if (current != null) {
+                return current;
+            }
+            try {
+                return created.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 记录logger最后一次输出日志的时间及各级别事件数，不做过滤
+     */
+    private static class ActiveTimeFilter extends Filter<ILoggingEvent> {
+        private final LoggerHolder holder;
+
+        private ActiveTimeFilter(LoggerHolder holder) {
+            this.holder = holder;
+            start();
+        }
+
+        @Override
+        public FilterReply decide(ILoggingEvent event) {
+            holder.lastActiveTime = event.getTimeStamp();
+            holder.metrics.recordEvent(event.getLevel());
+            return FilterReply.NEUTRAL;
+        }
+    }
+
     private static String appendIfMissing(String str, String suffix) {
         if (str == null) {
             return null;
@@ -0,0 +1,26 @@
+package com.yl.config.log;
+
+/**
+ * 动态logger的日志编码方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 16:50
+ */
+public enum LogEncoding {
+    /**
+     * logback PatternLayoutEncoder，使用平台默认编码。
+     * {@link com.yl.config.log.index.LogRangeReader}等读取工具按UTF-8解码，平台默认编码不是UTF-8时以-Dfile.encoding=UTF-8启动
+     */
+    PATTERN_LAYOUT,
+    /**
+     * {@link com.yl.config.log.encoder.FastPatternEncoder}，输出相同格式，不为每个事件分配String和byte[]。
+     * 固定UTF-8，非默认格式退回PatternLayout时也使用UTF-8
+     */
+    GARBAGE_FREE,
+    /**
+     * 文件按{@link com.yl.config.log.encoder.BinaryLogFormat}写二进制，给机器消费的logger使用，
+     * 用{@link com.yl.config.log.encoder.BinaryLogConverter}转换回默认格式，控制台仍输出文本。
+     * 文件不写时间索引
+     */
+    BINARY,
+}
@@ -0,0 +1,527 @@
+package com.yl.config.log;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.util.FileSize;
+import com.yl.config.log.async.BackpressurePolicy;
+import com.yl.config.log.sink.BatchedFileAppender;
+
+/**
+ * 单个动态logger的配置，不可变，通过{@link Builder}创建
+ * <pre>{@code
+ * LogProfile profile = LogProfile.builder()
+ *         .backpressure(BackpressurePolicy.dropBelow(Level.WARN))
+ *         .build();
+ * logAppenderConfig.setProfile("tenant_a", profile);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/17 14:30
+ */
+public class LogProfile {
+    /**
+     * 默认输出格式，{@link LogEncoding#GARBAGE_FREE}只支持该格式
+     */
+    public static final String DEFAULT_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%X{tid}] [%t] %c [%class.%method\\(\\) %line{}L]%n-> %m%n";
+    public static final LogProfile DEFAULT = builder().build();
+    public static final int MAX_SHARDS = 64;
+    /**
+     * 分片时格式需以该时间开头，读取时按记录开头的时间合并各分片
+     */
+    private static final String[] SHARD_TIMESTAMP_PREFIXES = {"%d{yyyy-MM-dd HH:mm:ss.SSS}", "%date{yyyy-MM-dd HH:mm:ss.SSS}"};
+
+    /**
+     * 异步队列满时的背压策略
+     */
+    private final BackpressurePolicy backpressure;
+    /**
+     * 文件输出方式
+     */
+    private final FileSinkMode fileSink;
+    /**
+     * 批量写入时事件在缓冲区中的最长停留时间(毫秒)
+     */
+    private final long lingerMillis;
+    /**
+     * 批量写入的缓冲区上限(字节)，缓冲区从较小的容量开始，写入量大时才扩大到该值
+     */
+    private final int bufferSize;
+    /**
+     * 文件及控制台的编码方式
+     */
+    private final LogEncoding encoding;
+    /**
+     * 调用位置的获取方式，及需要获取调用位置的最低级别
+     */
+    private final LocationMode location;
+    private final Level locationLevel;
+    /**
+     * 控制台输出方式
+     */
+    private final ConsoleMode console;
+    /**
+     * 控制台限流：每秒最多输出条数(<=0不限流)、采样保留比例、不受限的最低级别
+     */
+    private final int consolePermitsPerSecond;
+    private final double consoleKeepRatio;
+    private final Level consoleExemptLevel;
+    /**
+     * 异步队列长度，0表示使用异步方式各自的默认值
+     */
+    private final int queueSize;
+    /**
+     * 单文件大小、归档保留天数、该logger全部归档的大小上限
+     */
+    private final long maxFileSize;
+    private final int maxHistory;
+    private final long totalSizeCap;
+    /**
+     * 文件及控制台的输出格式
+     */
+    private final String pattern;
+    /**
+     * 是否在日志文件旁写时间索引，仅{@link FileSinkMode#BATCHED_CHANNEL}生效
+     */
+    private final boolean timeIndex;
+    /**
+     * 飞行记录：低于该级别的事件只进内存环，null表示不开启；每个logger的环大小；是否只导出同一tid的记录
+     */
+    private final Level flightRecorderLevel;
+    private final long flightRecorderSize;
+    private final boolean flightRecorderTidScoped;
+    /**
+     * 文件输出的分片数，1表示不分片
+     */
+    private final int shards;
+    /**
+     * 共用日志文件的名称，null表示独占文件
+     */
+    private final String multiplex;
+
+    private LogProfile(Builder builder) {
+        this.backpressure = builder.backpressure;
+        this.fileSink = builder.fileSink;
+        this.lingerMillis = builder.lingerMillis;
+        this.bufferSize = builder.bufferSize;
+        this.encoding = builder.encoding;
+        this.location = builder.location;
+        this.locationLevel = builder.locationLevel;
+        this.console = builder.console;
+        this.consolePermitsPerSecond = builder.consolePermitsPerSecond;
+        this.consoleKeepRatio = builder.consoleKeepRatio;
+        this.consoleExemptLevel = builder.consoleExemptLevel;
+        this.queueSize = builder.queueSize;
+        this.maxFileSize = builder.maxFileSize;
+        this.maxHistory = builder.maxHistory;
+        this.totalSizeCap = builder.totalSizeCap;
+        this.pattern = builder.pattern;
+        this.timeIndex = builder.timeIndex;
+        this.flightRecorderLevel = builder.flightRecorderLevel;
+        this.flightRecorderSize = builder.flightRecorderSize;
+        this.flightRecorderTidScoped = builder.flightRecorderTidScoped;
+        this.shards = builder.shards;
+        this.multiplex = builder.multiplex;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.backpressure = backpressure;
+        builder.fileSink = fileSink;
+        builder.lingerMillis = lingerMillis;
+        builder.bufferSize = bufferSize;
+        builder.encoding = encoding;
+        builder.location = location;
+        builder.locationLevel = locationLevel;
+        builder.console = console;
+        builder.consolePermitsPerSecond = consolePermitsPerSecond;
+        builder.consoleKeepRatio = consoleKeepRatio;
+        builder.consoleExemptLevel = consoleExemptLevel;
+        builder.queueSize = queueSize;
+        builder.maxFileSize = maxFileSize;
+        builder.maxHistory = maxHistory;
+        builder.totalSizeCap = totalSizeCap;
+        builder.pattern = pattern;
+        builder.timeIndex = timeIndex;
+        builder.flightRecorderLevel = flightRecorderLevel;
+        builder.flightRecorderSize = flightRecorderSize;
+        builder.flightRecorderTidScoped = flightRecorderTidScoped;
+        builder.shards = shards;
+        builder.multiplex = multiplex;
+        return builder;
+    }
+
+    public BackpressurePolicy getBackpressure() {
+        return backpressure;
+    }
+
+    public FileSinkMode getFileSink() {
+        return fileSink;
+    }
+
+    public long getLingerMillis() {
+        return lingerMillis;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public LogEncoding getEncoding() {
+        return encoding;
+    }
+
+    public LocationMode getLocation() {
+        return location;
+    }
+
+    public Level getLocationLevel() {
+        return locationLevel;
+    }
+
+    public ConsoleMode getConsole() {
+        return console;
+    }
+
+    public int getConsolePermitsPerSecond() {
+        return consolePermitsPerSecond;
+    }
+
+    public double getConsoleKeepRatio() {
+        return consoleKeepRatio;
+    }
+
+    public Level getConsoleExemptLevel() {
+        return consoleExemptLevel;
+    }
+
+    /**
+     * 异步队列长度，0表示使用异步方式各自的默认值：AsyncAppender为512，RingBufferAppender为4096，
+     * 共享分发器的队列由所有logger共用，不受该配置影响
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public int getMaxHistory() {
+        return maxHistory;
+    }
+
+    public long getTotalSizeCap() {
+        return totalSizeCap;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean isTimeIndex() {
+        return timeIndex;
+    }
+
+    public Level getFlightRecorderLevel() {
+        return flightRecorderLevel;
+    }
+
+    public long getFlightRecorderSize() {
+        return flightRecorderSize;
+    }
+
+    public boolean isFlightRecorderTidScoped() {
+        return flightRecorderTidScoped;
+    }
+
+    public boolean isFlightRecorder() {
+        return flightRecorderLevel != null;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public String getMultiplex() {
+        return multiplex;
+    }
+
+    public boolean isMultiplexed() {
+        return multiplex != null;
+    }
+
+    /**
+     * 控制台是否需要限流或采样
+     */
+    public boolean isConsoleLimited() {
+        return consolePermitsPerSecond > 0 || consoleKeepRatio < 1;
+    }
+
+    /**
+     * 是否为logback原有行为：所有事件都构造完整堆栈获取调用位置
+     */
+    public boolean isFullLocation() {
+        return location == LocationMode.FULL && locationLevel == Level.ALL;
+    }
+
+    public static class Builder {
+        private BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+        private FileSinkMode fileSink = FileSinkMode.ROLLING_FILE;
+        private long lingerMillis = BatchedFileAppender.DEFAULT_LINGER_MILLIS;
+        private int bufferSize = BatchedFileAppender.DEFAULT_BUFFER_SIZE;
+        private LogEncoding encoding = LogEncoding.PATTERN_LAYOUT;
+        private LocationMode location = LocationMode.FULL;
+        private Level locationLevel = Level.ALL;
+        private ConsoleMode console = ConsoleMode.SYNC;
+        private int consolePermitsPerSecond = 0;
+        private double consoleKeepRatio = 1;
+        private Level consoleExemptLevel = Level.WARN;
+        private int queueSize = 0;
+        private long maxFileSize = FileSize.valueOf("50MB").getSize();
+        private int maxHistory = 30;
+        private long totalSizeCap = FileSize.valueOf("2GB").getSize();
+        private String pattern = DEFAULT_PATTERN;
+        private boolean timeIndex = true;
+        private Level flightRecorderLevel;
+        private long flightRecorderSize;
+        private boolean flightRecorderTidScoped;
+        private int shards = 1;
+        private String multiplex;
+
+        private Builder() {
+        }
+
+        public Builder backpressure(BackpressurePolicy backpressure) {
+            if (backpressure == null) {
+                throw new IllegalArgumentException("backpressure is null");
+            }
+            this.backpressure = backpressure;
+            return this;
+        }
+
+        public Builder fileSink(FileSinkMode fileSink) {
+            if (fileSink == null) {
+                throw new IllegalArgumentException("fileSink is null");
+            }
+            this.fileSink = fileSink;
+            return this;
+        }
+
+        /**
+         * 批量写入时事件在缓冲区中的最长停留时间，仅{@link FileSinkMode#BATCHED_CHANNEL}生效
+         */
+        public Builder lingerMillis(long lingerMillis) {
+            if (lingerMillis <= 0) {
+                throw new IllegalArgumentException("lingerMillis must be positive: " + lingerMillis);
+            }
+            this.lingerMillis = lingerMillis;
+            return this;
+        }
+
+        /**
+         * 批量写入的缓冲区上限，如"64KB"，仅{@link FileSinkMode#BATCHED_CHANNEL}生效
+         */
+        public Builder bufferSize(String bufferSize) {
+            long size = FileSize.valueOf(bufferSize).getSize();
+            if (size < BatchedFileAppender.MIN_BUFFER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("bufferSize must be between " + BatchedFileAppender.MIN_BUFFER_SIZE
+                        + " and " + Integer.MAX_VALUE + ": " + bufferSize);
+            }
+            this.bufferSize = (int) size;
+            return this;
+        }
+
+        public Builder encoding(LogEncoding encoding) {
+            if (encoding == null) {
+                throw new IllegalArgumentException("encoding is null");
+            }
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * 所有级别都按mode获取调用位置
+         */
+        public Builder location(LocationMode location) {
+            return location(location, Level.ALL);
+        }
+
+        /**
+         * 不低于minLevel的事件按mode获取调用位置，其余事件不获取也不输出位置信息，
+         * 如 location(LocationMode.CHEAP, Level.WARN)
+         */
+        public Builder location(LocationMode location, Level minLevel) {
+            if (location == null || minLevel == null) {
+                throw new IllegalArgumentException("location or minLevel is null");
+            }
+            this.location = location;
+            this.locationLevel = minLevel;
+            return this;
+        }
+
+        public Builder console(ConsoleMode console) {
+            if (console == null) {
+                throw new IllegalArgumentException("console is null");
+            }
+            this.console = console;
+            return this;
+        }
+
+        /**
+         * 控制台限流及采样，低于exemptLevel的事件先按keepRatio采样，再按每秒permitsPerSecond条限流，
+         * 如 consoleLimit(100, 0.1, Level.WARN)
+         *
+         * @param permitsPerSecond 每秒最多输出条数，<=0 表示不限流
+         * @param keepRatio        采样保留比例，(0, 1]
+         * @param exemptLevel      不低于该级别的事件不受限
+         */
+        public Builder consoleLimit(int permitsPerSecond, double keepRatio, Level exemptLevel) {
+            if (keepRatio <= 0 || keepRatio > 1) {
+                throw new IllegalArgumentException("keepRatio must be in (0, 1]: " + keepRatio);
+            }
+            if (exemptLevel == null) {
+                throw new IllegalArgumentException("exemptLevel is null");
+            }
+            this.consolePermitsPerSecond = permitsPerSecond;
+            this.consoleKeepRatio = keepRatio;
+            this.consoleExemptLevel = exemptLevel;
+            return this;
+        }
+
+        /**
+         * 异步队列长度，0表示使用异步方式各自的默认值
+         */
+        public Builder queueSize(int queueSize) {
+            if (queueSize < 0) {
+                throw new IllegalArgumentException("queueSize must not be negative: " + queueSize);
+            }
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * 单文件大小，如"50MB"
+         */
+        public Builder maxFileSize(String maxFileSize) {
+            this.maxFileSize = FileSize.valueOf(maxFileSize).getSize();
+            return this;
+        }
+
+        public Builder maxHistory(int maxHistory) {
+            if (maxHistory <= 0) {
+                throw new IllegalArgumentException("maxHistory must be positive: " + maxHistory);
+            }
+            this.maxHistory = maxHistory;
+            return this;
+        }
+
+        /**
+         * 该logger全部归档的大小上限，如"2GB"
+         */
+        public Builder totalSizeCap(String totalSizeCap) {
+            this.totalSizeCap = FileSize.valueOf(totalSizeCap).getSize();
+            return this;
+        }
+
+        /**
+         * logback格式，非默认格式时{@link LogEncoding#GARBAGE_FREE}退回PatternLayout
+         */
+        public Builder pattern(String pattern) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("pattern is empty");
+            }
+            this.pattern = pattern;
+            return this;
+        }
+
+        /**
+         * 是否写时间索引，供{@link com.yl.config.log.index.LogRangeReader}按时间范围读取
+         */
+        public Builder timeIndex(boolean timeIndex) {
+            this.timeIndex = timeIndex;
+            return this;
+        }
+
+        /**
+         * 飞行记录，低于fileLevel的事件不写文件也不输出到控制台，只保存在内存环中，
+         * 出现ERROR时先写入这些记录再写ERROR，如 flightRecorder(Level.INFO, "256KB", true)
+         *
+         * @param fileLevel 写文件的最低级别
+         * @param size      每个logger的环大小，所有logger共用{@link com.yl.config.log.LogAppenderConfig#setFlightRecorderMemory}的上限
+         * @param tidScoped 为true时只导出与ERROR事件同一tid的记录
+         */
+        public Builder flightRecorder(Level fileLevel, String size, boolean tidScoped) {
+            if (fileLevel == null) {
+                throw new IllegalArgumentException("fileLevel is null");
+            }
+            long bytes = FileSize.valueOf(size).getSize();
+            if (bytes <= 0 || bytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("invalid flight recorder size: " + size);
+            }
+            this.flightRecorderLevel = fileLevel;
+            this.flightRecorderSize = bytes;
+            this.flightRecorderTidScoped = tidScoped;
+            return this;
+        }
+
+        /**
+         * 文件输出分片：每个分片有独立的异步队列、写线程及文件(logger目录/shard-i/collection.log)，
+         * 同一线程的事件固定写入同一分片，分片间的顺序由{@link com.yl.config.log.index.LogRangeReader}读取时按时间合并。
+         * 用于单个logger的写入量超过一个写线程的处理能力时。
+         * 分片时格式需以%d{yyyy-MM-dd HH:mm:ss.SSS}开头且不能使用{@link LogEncoding#BINARY}，否则{@link #build()}抛出异常
+         *
+         * @param shards 分片数，1表示不分片
+         */
+        public Builder shards(int shards) {
+            if (shards <= 0 || shards > MAX_SHARDS) {
+                throw new IllegalArgumentException("shards must be in [1, " + MAX_SHARDS + "]: " + shards);
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * 与使用同一名称的logger共用一个日志文件 logBasePath/file/collection.log，用于大量写入量很小的logger，
+         * 文件句柄数及滚动开销与logger数无关。每条记录的所属logger写入名称索引，
+         * 由{@link com.yl.config.log.index.MultiplexLogReader}按logger名读取。
+         * <p>
+         * 共用文件的异步队列、滚动、格式等按第一个使用它的logger的配置创建，固定使用{@link FileSinkMode#BATCHED_CHANNEL}，
+         * 不分片；之后其他logger的配置及重载配置只影响各logger自己的过滤、控制台等，不改变已创建的共用文件，直到关闭。
+         * file不能与独占文件的logger同名，同名时后创建的一方抛出{@link IllegalArgumentException}
+         *
+         * @param file 共用文件名，null表示独占文件
+         */
+        public Builder multiplex(String file) {
+            if (file != null && file.isEmpty()) {
+                throw new IllegalArgumentException("multiplex file is empty");
+            }
+            this.multiplex = file;
+            return this;
+        }
+
+        public LogProfile build() {
+            if (shards > 1) {
+                if (encoding == LogEncoding.BINARY) {
+                    throw new IllegalArgumentException("shards can not be used with BINARY encoding");
+                }
+                if (!startsWithTimestamp(pattern)) {
+                    throw new IllegalArgumentException("shards require a pattern starting with "
+                            + SHARD_TIMESTAMP_PREFIXES[0] + ": " + pattern);
+                }
+            }
+            return new LogProfile(this);
+        }
+
+        private static boolean startsWithTimestamp(String pattern) {
+            for (String prefix : SHARD_TIMESTAMP_PREFIXES) {
+                if (pattern.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
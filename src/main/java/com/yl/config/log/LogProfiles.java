@@ -0,0 +1,130 @@
+package com.yl.config.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志文件名到{@link LogProfile}的匹配规则，不可变，整体替换实现重载。
+ * 匹配顺序：精确名称 -> 最长前缀 -> 默认配置
+ * <pre>{@code
+ * LogProfiles profiles = LogProfiles.builder()
+ *         .defaultProfile(LogProfile.DEFAULT)
+ *         .prefix("audit_", LogProfile.builder().queueSize(8192).maxFileSize("200MB").build())
+ *         .exact("tenant_a", LogProfile.builder().console(ConsoleMode.OFF).build())
+ *         .build();
+ * logAppenderConfig.reloadProfiles(profiles);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/17 19:50
+ */
+public class LogProfiles {
+    public static final LogProfiles DEFAULT = builder().build();
+
+    private final LogProfile defaultProfile;
+    private final Map<String, LogProfile> exactMap;
+    private final Map<String, LogProfile> prefixMap;
+    /**
+     * 按长度降序排列的前缀，最长前缀优先
+     */
+    private final List<String> prefixes;
+
+    private LogProfiles(Builder builder) {
+        this.defaultProfile = builder.defaultProfile;
+        this.exactMap = Collections.unmodifiableMap(new HashMap<>(builder.exactMap));
+        this.prefixMap = Collections.unmodifiableMap(new LinkedHashMap<>(builder.prefixMap));
+        List<String> sorted = new ArrayList<>(builder.prefixMap.keySet());
+        sorted.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        this.prefixes = sorted;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.defaultProfile = defaultProfile;
+        builder.exactMap.putAll(exactMap);
+        builder.prefixMap.putAll(prefixMap);
+        return builder;
+    }
+
+    /**
+     * 获取日志文件名对应的配置
+     *
+     * @param logFileName 日志文件名
+     * @return 配置，不会为null
+     */
+    public LogProfile resolve(String logFileName) {
+        LogProfile profile = exactMap.get(logFileName);
+        if (profile != null) {
+            return profile;
+        }
+        for (String prefix : prefixes) {
+            if (logFileName.startsWith(prefix)) {
+                return prefixMap.get(prefix);
+            }
+        }
+        return defaultProfile;
+    }
+
+    public LogProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public Map<String, LogProfile> getExactMap() {
+        return exactMap;
+    }
+
+    public Map<String, LogProfile> getPrefixMap() {
+        return prefixMap;
+    }
+
+    public static class Builder {
+        private LogProfile defaultProfile = LogProfile.DEFAULT;
+        private final Map<String, LogProfile> exactMap = new HashMap<>();
+        private final Map<String, LogProfile> prefixMap = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder defaultProfile(LogProfile profile) {
+            if (profile == null) {
+                throw new IllegalArgumentException("profile is null");
+            }
+            this.defaultProfile = profile;
+            return this;
+        }
+
+        /**
+         * 按日志文件名精确匹配
+         */
+        public Builder exact(String logFileName, LogProfile profile) {
+            if (logFileName == null || profile == null) {
+                throw new IllegalArgumentException("logFileName or profile is null");
+            }
+            exactMap.put(logFileName, profile);
+            return this;
+        }
+
+        /**
+         * 按日志文件名前缀匹配，多个前缀都匹配时取最长的
+         */
+        public Builder prefix(String prefix, LogProfile profile) {
+            if (prefix == null || profile == null) {
+                throw new IllegalArgumentException("prefix or profile is null");
+            }
+            prefixMap.put(prefix, profile);
+            return this;
+        }
+
+        public LogProfiles build() {
+            return new LogProfiles(this);
+        }
+    }
+}
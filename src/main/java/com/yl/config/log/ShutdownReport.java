@@ -0,0 +1,54 @@
+package com.yl.config.log;
+
+/**
+ * {@link LogAppenderConfig#shutdown}的结果
+ *
+ * @author suiwp
+ * @date 2026/10/18 00:10
+ */
+public class ShutdownReport {
+    private final int loggers;
+    private final long flushedEvents;
+    private final long abandonedEvents;
+    private final long elapsedMillis;
+
+    ShutdownReport(int loggers, long flushedEvents, long abandonedEvents, long elapsedMillis) {
+        this.loggers = loggers;
+        this.flushedEvents = flushedEvents;
+        this.abandonedEvents = abandonedEvents;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * 关闭的logger数
+     */
+    public int getLoggers() {
+        return loggers;
+    }
+
+    /**
+     * 关闭时仍在异步队列中、在期限内写出的事件数
+     */
+    public long getFlushedEvents() {
+        return flushedEvents;
+    }
+
+    /**
+     * 期限到达时仍未写出的事件数，写线程为守护线程，进程退出前可能还会写出一部分
+     */
+    public long getAbandonedEvents() {
+        return abandonedEvents;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ShutdownReport{loggers=" + loggers
+                + ", flushed=" + flushedEvents
+                + ", abandoned=" + abandonedEvents
+                + ", elapsed=" + elapsedMillis + "ms}";
+    }
+}
@@ -0,0 +1,361 @@
+package com.yl.config.log.archive;
+
+import com.yl.config.log.index.IndexFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 动态logger归档文件的后台压缩及全局保留。
+ * <pre>
+ *     压缩：logBasePath/name/collection/.yyyy-MM-dd.i.log -> .yyyy-MM-dd.i.log.gz，在有界线程池上执行，不占用写日志线程
+ *     保留：logBasePath下所有logger的归档合计不超过totalSizeCap，超过maxHistory天的删除，从最旧的开始删
+ * </pre>
+ * 滚动时可直接提交刚归档的文件，另有定时扫描兜底logback RollingFileAppender滚动出的文件。
+ * 索引文件见{@link IndexFiles}，不压缩，大小计入所属归档，随归档一起删除
+ *
+ * @author suiwp
+ * @date 2026/10/17 18:40
+ */
+public class LogArchiver {
+    private static final Pattern ARCHIVE_PATTERN = Pattern.compile("^\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log.*$");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String GZ_SUFFIX = ".gz";
+    private static final String ARCHIVE_DIR = "collection";
+    private static final String SHARD_DIR_PREFIX = "shard-";
+
+    private final File logBaseDir;
+    private final long totalSizeCap;
+    private final int maxHistory;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private final ThreadPoolExecutor compressExecutor;
+    private final ScheduledExecutorService scanExecutor;
+    /**
+     * 正在压缩或排队中的文件，避免扫描重复提交
+     */
+    private final Set<File> pending = ConcurrentHashMap.newKeySet();
+    /**
+     * 压缩中的目标文件名，选定新序号时一并避开
+     */
+    private final Set<String> reservedTargets = new HashSet<>();
+
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+    private final LongAdder deletedCount = new LongAdder();
+
+    /**
+     * @param logBaseDir   日志根目录
+     * @param parallelism  压缩线程数
+     * @param totalSizeCap 所有logger归档的总大小上限
+     * @param maxHistory   归档保留天数
+     */
+    public LogArchiver(File logBaseDir, int parallelism, long totalSizeCap, int maxHistory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.logBaseDir = logBaseDir;
+        this.totalSizeCap = totalSizeCap;
+        this.maxHistory = maxHistory;
+        AtomicInteger threadSeq = new AtomicInteger();
+        // 队列有界，满了直接放弃，下次扫描会重新提交
+        this.compressExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(4096), r -> {
+            Thread thread = new Thread(r, "log-archiver-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.compressExecutor.allowCoreThreadTimeOut(true);
+        this.scanExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-archiver-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 开始定时扫描
+     *
+     * @param interval 扫描间隔
+     * @param unit     时间单位
+     */
+    public void start(long interval, TimeUnit unit) {
+        scanExecutor.scheduleWithFixedDelay(this::scan, 0, interval, unit);
+    }
+
+    public void stop() {
+        scanExecutor.shutdownNow();
+        compressExecutor.shutdown();
+    }
+
+    /**
+     * 提交一个已滚动的归档文件压缩
+     *
+     * @param archived 归档文件
+     */
+    public void submit(File archived) {
+        if (archived == null || archived.getName().endsWith(GZ_SUFFIX) || IndexFiles.isSidecar(archived.getName())
+                || !pending.add(archived)) {
+            return;
+        }
+        try {
+            compressExecutor.execute(() -> {
+                try {
+                    compress(archived);
+                } finally {
+                    pending.remove(archived);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(archived);
+        }
+    }
+
+    /**
+     * 扫描所有logger的归档目录，提交未压缩的文件，并执行全局保留
+     */
+    public void scan() {
+        LocalDate oldest = LocalDate.now().minusDays(maxHistory);
+        List<Archive> kept = new ArrayList<>();
+        for (Archive archive : listArchives()) {
+            if (archive.date.isBefore(oldest)) {
+                delete(archive);
+                continue;
+            }
+            if (!archive.file.getName().endsWith(GZ_SUFFIX)) {
+                submit(archive.file);
+            }
+            kept.add(archive);
+        }
+        applySizeCap(kept);
+    }
+
+    private void compress(File source) {
+        if (!source.exists()) {
+            return;
+        }
+        File target = reserveTarget(source);
+        if (target == null) {
+            return;
+        }
+        try {
+            compress(source, target);
+        } finally {
+            releaseTarget(target);
+        }
+    }
+
+    private void compress(File source, File target) {
+        File tmp = new File(target.getPath() + ".tmp");
+        long sourceSize = source.length();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source), 64 * 1024);
+             OutputStream out = new LevelGzipOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024), compressionLevel)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        try {
+            tmp.setLastModified(source.lastModified());
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (source.delete()) {
+            compressedCount.increment();
+            savedBytes.add(sourceSize - target.length());
+        }
+    }
+
+    /**
+     * 选定压缩目标：通常为"源文件名.gz"；logback只识别.log结尾的归档，可能复用已压缩过的序号，
+     * 此时改用同一日期下未使用的最大序号+1，保证归档名始终为.yyyy-MM-dd.i.log.gz，读取方按该格式识别。
+     * 该序号下已有的索引属于先前压缩的归档(logback不写索引)，保留不动，新归档无索引，读取时整体扫描。
+     * 选定的目标在压缩完成前保留，多个压缩线程不会选到同一个
+     *
+     * @return 压缩目标，源文件名不是归档格式时返回null
+     */
+    private File reserveTarget(File source) {
+        Matcher sourceMatcher = ARCHIVE_PATTERN.matcher(source.getName());
+        if (!sourceMatcher.matches()) {
+            return null;
+        }
+        File dir = source.getParentFile();
+        File target = new File(dir, source.getName() + GZ_SUFFIX);
+        synchronized (reservedTargets) {
+            if (!target.exists() && !reservedTargets.contains(target.getName())) {
+                reservedTargets.add(target.getName());
+                return target;
+            }
+            String date = sourceMatcher.group(1);
+            int max = -1;
+            String[] names = dir.list();
+            List<String> used = new ArrayList<>(reservedTargets);
+            if (names != null) {
+                used.addAll(Arrays.asList(names));
+            }
+            for (String name : used) {
+                Matcher matcher = ARCHIVE_PATTERN.matcher(name);
+                if (matcher.matches() && date.equals(matcher.group(1))) {
+                    max = Math.max(max, Integer.parseInt(matcher.group(2)));
+                }
+            }
+            target = new File(dir, "." + date + "." + (max + 1) + ".log" + GZ_SUFFIX);
+            reservedTargets.add(target.getName());
+            return target;
+        }
+    }
+
+    private void releaseTarget(File target) {
+        synchronized (reservedTargets) {
+            reservedTargets.remove(target.getName());
+        }
+    }
+
+    /**
+     * 跨logger从最旧的归档开始删除，直到总大小不超过totalSizeCap。
+     * 压缩中的文件大小还未确定，不参与本轮计算
+     */
+    private void applySizeCap(List<Archive> archives) {
+        long total = 0;
+        List<Archive> candidates = new ArrayList<>(archives.size());
+        for (Archive archive : archives) {
+            if (!pending.contains(archive.file)) {
+                candidates.add(archive);
+                total += archive.size;
+            }
+        }
+        candidates.sort(Comparator.comparing((Archive a) -> a.date).thenComparingLong(a -> a.lastModified));
+        for (Archive archive : candidates) {
+            if (total <= totalSizeCap) {
+                break;
+            }
+            total -= archive.size;
+            delete(archive);
+        }
+    }
+
+    private void delete(Archive archive) {
+        if (archive.file.delete()) {
+            deletedCount.increment();
+            for (File sidecar : IndexFiles.sidecarsOf(archive.file)) {
+                sidecar.delete();
+            }
+        }
+    }
+
+    private List<Archive> listArchives() {
+        List<Archive> archives = new ArrayList<>();
+        File[] loggerDirs = logBaseDir.listFiles(File::isDirectory);
+        if (loggerDirs == null) {
+            return archives;
+        }
+        for (File loggerDir : loggerDirs) {
+            addArchives(loggerDir, archives);
+            // 分片logger的归档在各分片目录下
+            File[] shardDirs = loggerDir.listFiles(file -> file.isDirectory() && file.getName().startsWith(SHARD_DIR_PREFIX));
+            if (shardDirs != null) {
+                for (File shardDir : shardDirs) {
+                    addArchives(shardDir, archives);
+                }
+            }
+        }
+        return archives;
+    }
+
+    private static void addArchives(File loggerDir, List<Archive> archives) {
+        File[] files = new File(loggerDir, ARCHIVE_DIR).listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = ARCHIVE_PATTERN.matcher(file.getName());
+            if (file.isFile() && matcher.matches() && !file.getName().endsWith(".tmp") && !IndexFiles.isSidecar(file.getName())) {
+                archives.add(new Archive(file, LocalDate.parse(matcher.group(1), DATE_FORMATTER)));
+            }
+        }
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * 压缩级别，0~9，默认{@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    public long getDeletedCount() {
+        return deletedCount.sum();
+    }
+
+    private static class Archive {
+        private final File file;
+        private final LocalDate date;
+        private final long size;
+        private final long lastModified;
+
+        private Archive(File file, LocalDate date) {
+            this.file = file;
+            this.date = date;
+            long total = file.length();
+            for (File sidecar : IndexFiles.sidecarsOf(file)) {
+                total += sidecar.length();
+            }
+            this.size = total;
+            this.lastModified = file.lastModified();
+        }
+    }
+
+    private static class LevelGzipOutputStream extends GZIPOutputStream {
+        private LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import com.yl.config.log.metrics.LoggerMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 异步appender前的背压闸门，按{@link BackpressurePolicy}决定事件入队、丢弃或溢写，
+ * 并按logger记录丢弃、溢写和回放的数量
+ *
+ * @author suiwp
+ * @date 2026/10/17 14:05
+ */
+public class BackpressureAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements Drainable {
+    /**
+     * 溢写后检查回放的间隔，队列剩余容量达到一半时才回放；队列再次写满时停止，不阻塞共享的回放线程
+     */
+    private static final long REPLAY_DELAY_MILLIS = 100;
+    /**
+     * 入队耗时超过该值时计为调用线程被阻塞
+     */
+    private static final long BLOCKED_THRESHOLD_NANOS = 50_000L;
+
+    private final Appender<ILoggingEvent> delegate;
+    private final BoundedQueue queue;
+    private final BackpressurePolicy policy;
+    private File spillDir;
+    private SpillStore spillStore;
+    /**
+     * 停止时是否先回放溢写的事件，限时关闭时不回放，留给下次启动
+     */
+    private boolean replayOnStop = true;
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+    private final Object replayLock = new Object();
+
+    /**
+     * delegate不是{@link Drainable}时(如logback的AsyncAppender)，启动时挂载的下游appender，
+     * 其工作线程写完后停止这些appender
+     */
+    private final List<Appender<ILoggingEvent>> attached = new ArrayList<>();
+
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder replayedCount = new LongAdder();
+    private LoggerMetrics metrics;
+
+    /**
+     * @param delegate 异步appender
+     * @param queue    异步appender的队列容量视图
+     * @param policy   背压策略
+     */
+    public BackpressureAppender(Appender<ILoggingEvent> delegate, BoundedQueue queue, BackpressurePolicy policy) {
+        this.delegate = delegate;
+        this.queue = queue;
+        this.policy = policy;
+    }
+
+    /**
+     * 溢写目录，不设置时SPILL按DROP处理
+     */
+    public void setSpillDir(File spillDir) {
+        this.spillDir = spillDir;
+    }
+
+    public void setReplayOnStop(boolean replayOnStop) {
+        this.replayOnStop = replayOnStop;
+    }
+
+    public void setMetrics(LoggerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void start() {
+        if (spillDir != null) {
+            spillStore = new SpillStore(spillDir);
+        }
+        attached.clear();
+        if (!(delegate instanceof Drainable) && delegate instanceof AppenderAttachable) {
+            @SuppressWarnings("unchecked")
+            Iterator<Appender<ILoggingEvent>> it = ((AppenderAttachable<ILoggingEvent>) delegate).iteratorForAppenders();
+            it.forEachRemaining(attached::add);
+        }
+        super.start();
+        if (spillStore != null && spillStore.hasBacklog()) {
+            // 回放上次进程遗留的溢写
+            scheduleReplay();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        BackpressurePolicy.Decision decision = spillStore != null && spillStore.hasBacklog()
+                // 有积压时后续事件也溢写，保证回放顺序
+                ? BackpressurePolicy.Decision.SPILL
+                : policy.decide(event, queue);
+        switch (decision) {
+            case ENQUEUE:
+                delegate.doAppend(event);
+                // 包含策略中限时等待的时间
+                recordBlocked(start);
+                break;
+            case SPILL:
+                if (spillStore != null && spill(event)) {
+                    break;
+                }
+                drop();
+                break;
+            default:
+                // 限时等待超时后丢弃，调用线程同样被阻塞
+                recordBlocked(start);
+                drop();
+        }
+    }
+
+    private void recordBlocked(long start) {
+        if (metrics != null) {
+            long took = System.nanoTime() - start;
+            if (took >= BLOCKED_THRESHOLD_NANOS) {
+                metrics.recordBlocked(took);
+            }
+        }
+    }
+
+    private void drop() {
+        droppedCount.increment();
+        if (metrics != null) {
+            metrics.recordDropped();
+        }
+    }
+
+    private boolean spill(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        try {
+            spillStore.write(event);
+        } catch (IOException e) {
+            addError("Failed to spill event to " + spillDir, e);
+            return false;
+        }
+        spilledCount.increment();
+        if (metrics != null) {
+            metrics.recordSpilled();
+        }
+        scheduleReplay();
+        return true;
+    }
+
+    private void scheduleReplay() {
+        if (replayScheduled.compareAndSet(false, true)) {
+            Replayer.EXECUTOR.schedule(this::replay, REPLAY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void replay() {
+        try {
+            if (isStarted() && queue.getRemainingCapacity() >= queue.getQueueSize() / 2) {
+                // 有积压时调用线程只溢写，队列只由回放写入，剩余容量大于0时入队不会阻塞
+                replayNow(() -> queue.getRemainingCapacity() > 0);
+            }
+        } finally {
+            replayScheduled.set(false);
+            if (isStarted() && spillStore.hasBacklog()) {
+                scheduleReplay();
+            }
+        }
+    }
+
+    private void replayNow(BooleanSupplier ready) {
+        synchronized (replayLock) {
+            try {
+                replayedCount.add(spillStore.replay(delegate::doAppend, ready));
+            } catch (IOException e) {
+                addError("Failed to replay spilled events from " + spillDir, e);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        if (spillStore != null) {
+            synchronized (replayLock) {
+                if (replayOnStop && spillStore.hasBacklog()) {
+                    // 停止时在调用线程上回放，可等待队列
+                    replayNow(() -> true);
+                }
+                try {
+                    spillStore.close();
+                } catch (IOException e) {
+                    addError("Failed to close spill store " + spillDir, e);
+                }
+            }
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        if (delegate instanceof Drainable) {
+            return ((Drainable) delegate).awaitDrained(timeoutMillis);
+        }
+        return Drainable.awaitStopped(attached, timeoutMillis);
+    }
+
+    public Appender<ILoggingEvent> getDelegate() {
+        return delegate;
+    }
+
+    public BoundedQueue getQueue() {
+        return queue;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.sum();
+    }
+
+    /**
+     * 所有logger共享的回放线程，首次溢写时才创建
+     */
+    private static class Replayer {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-spill-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步队列满时的背压策略，策略本身无状态，可在多个logger间共享，
+ * 丢弃和溢写的计数由{@link BackpressureAppender}按logger记录
+ *
+ * @author suiwp
+ * @date 2026/10/17 13:15
+ */
+public interface BackpressurePolicy {
+
+    /**
+     * 队列满时阻塞调用方，即原有行为
+     */
+    BackpressurePolicy BLOCK = (event, queue) -> Decision.ENQUEUE;
+
+    enum Decision {
+        /**
+         * 正常入队，队列满时阻塞
+         */
+        ENQUEUE,
+        /**
+         * 丢弃
+         */
+        DROP,
+        /**
+         * 溢写到本地磁盘，队列排空后回放
+         */
+        SPILL,
+    }
+
+    /**
+     * 在调用线程上决定事件的去向
+     *
+     * @param event 日志事件
+     * @param queue 异步队列容量视图
+     * @return 事件去向
+     */
+    Decision decide(ILoggingEvent event, BoundedQueue queue);
+
+    /**
+     * 队列满时阻塞调用方，即原有行为
+     */
+    static BackpressurePolicy block() {
+        return BLOCK;
+    }
+
+    /**
+     * 队列满时最多阻塞timeout，超时丢弃
+     */
+    static BackpressurePolicy blockWithTimeout(long timeout, TimeUnit unit) {
+        long timeoutNanos = unit.toNanos(timeout);
+        return (event, queue) -> {
+            if (queue.getRemainingCapacity() > 0) {
+                return Decision.ENQUEUE;
+            }
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (queue.getRemainingCapacity() <= 0) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return Decision.DROP;
+                }
+                LockSupport.parkNanos(50_000L);
+            }
+            return Decision.ENQUEUE;
+        };
+    }
+
+    /**
+     * 队列满时丢弃低于level的事件，不低于level的事件仍阻塞入队
+     */
+    static BackpressurePolicy dropBelow(Level level) {
+        return (event, queue) -> queue.getRemainingCapacity() <= 0 && !event.getLevel().isGreaterOrEqual(level)
+                ? Decision.DROP
+                : Decision.ENQUEUE;
+    }
+
+    /**
+     * 队列超过半满时低于level的事件按keepRatio概率保留，队列满时全部丢弃
+     *
+     * @param level     不低于该级别的事件不采样
+     * @param keepRatio 保留概率，0~1
+     */
+    static BackpressurePolicy sample(Level level, double keepRatio) {
+        if (keepRatio < 0 || keepRatio > 1) {
+            throw new IllegalArgumentException("keepRatio must be in [0, 1]: " + keepRatio);
+        }
+        return (event, queue) -> {
+            if (event.getLevel().isGreaterOrEqual(level)) {
+                return Decision.ENQUEUE;
+            }
+            int remaining = queue.getRemainingCapacity();
+            if (remaining <= 0) {
+                return Decision.DROP;
+            }
+            if (remaining < queue.getQueueSize() / 2 && ThreadLocalRandom.current().nextDouble() >= keepRatio) {
+                return Decision.DROP;
+            }
+            return Decision.ENQUEUE;
+        };
+    }
+
+    /**
+     * 队列满时溢写到本地磁盘，队列排空后按顺序回放
+     */
+    static BackpressurePolicy spill() {
+        return (event, queue) -> queue.getRemainingCapacity() <= 0 ? Decision.SPILL : Decision.ENQUEUE;
+    }
+}
@@ -0,0 +1,36 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.core.AsyncAppenderBase;
+
+/**
+ * 异步appender的队列容量视图，供背压策略判断队列是否已满
+ *
+ * @author suiwp
+ * @date 2026/10/17 13:10
+ */
+public interface BoundedQueue {
+
+    /**
+     * @return 队列总容量
+     */
+    int getQueueSize();
+
+    /**
+     * @return 队列剩余容量，为0时入队会阻塞
+     */
+    int getRemainingCapacity();
+
+    static BoundedQueue of(AsyncAppenderBase<?> asyncAppender) {
+        return new BoundedQueue() {
+            @Override
+            public int getQueueSize() {
+                return asyncAppender.getQueueSize();
+            }
+
+            @Override
+            public int getRemainingCapacity() {
+                return asyncAppender.getRemainingCapacity();
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.yl.config.log.metrics.LoggerMetrics;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 动态logger在共享分发器上的入口，事件交给{@link LogDispatcher}的写线程写入目标appender
+ *
+ * @author suiwp
+ * @date 2026/10/17 10:35
+ */
+public class DispatchAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements BoundedQueue, Drainable {
+    private final LogDispatcher dispatcher;
+    private final Appender<ILoggingEvent> target;
+    private final int workerIndex;
+    /**
+     * 队列满时是否直接丢弃，不阻塞调用线程
+     */
+    private boolean neverBlock;
+    private final LongAdder droppedCount = new LongAdder();
+    /**
+     * 目前只有控制台使用neverBlock，丢弃计入控制台丢弃数
+     */
+    private LoggerMetrics metrics;
+
+    public DispatchAppender(LogDispatcher dispatcher, Appender<ILoggingEvent> target) {
+        this(dispatcher, target, dispatcher.workerIndex(target.getName()));
+    }
+
+    /**
+     * @param workerIndex 指定写线程，见{@link LogDispatcher#workerIndex(String, int)}
+     */
+    public DispatchAppender(LogDispatcher dispatcher, Appender<ILoggingEvent> target, int workerIndex) {
+        this.dispatcher = dispatcher;
+        this.target = target;
+        this.workerIndex = workerIndex;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // 线程名、MDC、格式化消息需在调用线程上固定下来
+        event.prepareForDeferredProcessing();
+        if (!neverBlock) {
+            dispatcher.dispatch(workerIndex, target, event);
+        } else if (!dispatcher.offer(workerIndex, target, event)) {
+            droppedCount.increment();
+            if (metrics != null) {
+                metrics.recordConsoleDropped();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        dispatcher.stopAfterDrain(workerIndex, target);
+    }
+
+    /**
+     * stop()只投递停止标记，写线程处理到该标记时停止目标appender
+     */
+    @Override
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        return Drainable.awaitStopped(Collections.singletonList(target), timeoutMillis);
+    }
+
+    /**
+     * 所在写线程的队列容量，队列由多个logger共享
+     */
+    @Override
+    public int getQueueSize() {
+        return dispatcher.getQueueSize(workerIndex);
+    }
+
+    @Override
+    public int getRemainingCapacity() {
+        return dispatcher.getRemainingCapacity(workerIndex);
+    }
+
+    public Appender<ILoggingEvent> getTarget() {
+        return target;
+    }
+
+    public boolean isNeverBlock() {
+        return neverBlock;
+    }
+
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    public void setMetrics(LoggerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * neverBlock时因队列满丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
@@ -0,0 +1,57 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.core.Appender;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 停止后仍由后台线程写出已接收事件的appender。stop()可能在下游写完之前返回(如限时等待或只投递停止标记)，
+ * 需要确认不再写入下游时(如重载配置前切换文件appender)调用{@link #awaitDrained(long)}
+ *
+ * @author suiwp
+ * @date 2026/10/18 06:10
+ */
+public interface Drainable {
+
+    /**
+     * 等待stop()之后已接收的事件全部写出、下游appender停止，在stop()之后调用
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 超时仍未完成时返回false
+     */
+    boolean awaitDrained(long timeoutMillis) throws InterruptedException;
+
+    /**
+     * 等待appender写完；不是{@link Drainable}的appender在stop()返回时已写完
+     */
+    static boolean awaitDrained(Appender<?> appender, long timeoutMillis) throws InterruptedException {
+        return !(appender instanceof Drainable) || ((Drainable) appender).awaitDrained(timeoutMillis);
+    }
+
+    /**
+     * 等待由其他线程停止的appender停止
+     */
+    static boolean awaitStopped(Iterable<? extends Appender<?>> appenders, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Appender<?> appender : appenders) {
+            while (appender.isStarted()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(100_000L);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 剩余等待时间
+     */
+    static long remainingMillis(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
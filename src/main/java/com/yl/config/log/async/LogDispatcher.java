@@ -0,0 +1,216 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个动态logger共享的异步分发器，固定数量的写线程，线程数不随logger数量增长。
+ * 同一个日志文件的事件总是路由到同一个写线程，保证单文件内的顺序
+ *
+ * @author suiwp
+ * @date 2026/10/17 10:12
+ */
+public class LogDispatcher {
+    /**
+     * 单次批量取出的最大事件数
+     */
+    private static final int BATCH_SIZE = 128;
+
+    private final Worker[] workers;
+    private volatile boolean running = true;
+
+    /**
+     * @param threads   写线程数
+     * @param queueSize 每个写线程的队列长度
+     */
+    public LogDispatcher(int threads, int queueSize) {
+        this("log-dispatcher", threads, queueSize);
+    }
+
+    /**
+     * @param threadName 写线程名前缀
+     * @param threads    写线程数
+     * @param queueSize  每个写线程的队列长度
+     */
+    public LogDispatcher(String threadName, int threads, int queueSize) {
+        if (threads <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("threads and queueSize must be positive");
+        }
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(threadName + "-" + i, queueSize);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * 计算日志文件对应的写线程下标
+     *
+     * @param logFileName 日志文件名
+     * @return 写线程下标
+     */
+    public int workerIndex(String logFileName) {
+        int h = logFileName.hashCode();
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % workers.length;
+    }
+
+    /**
+     * 分片logger的各分片依次使用相邻的写线程，分片数不超过写线程数时互不共用
+     *
+     * @param logFileName 日志文件名
+     * @param shard       分片下标
+     * @return 写线程下标
+     */
+    public int workerIndex(String logFileName, int shard) {
+        return (workerIndex(logFileName) + shard) % workers.length;
+    }
+
+    /**
+     * 将事件投递到指定写线程，队列满时阻塞调用方
+     */
+    public void dispatch(int workerIndex, Appender<ILoggingEvent> target, ILoggingEvent event) {
+        workers[workerIndex].put(new Task(target, event));
+    }
+
+    /**
+     * 将事件投递到指定写线程，队列满时不阻塞
+     *
+     * @return 队列满时返回false，事件未投递
+     */
+    public boolean offer(int workerIndex, Appender<ILoggingEvent> target, ILoggingEvent event) {
+        return workers[workerIndex].queue.offer(new Task(target, event));
+    }
+
+    /**
+     * 在该写线程已投递的事件全部写完之后停止目标appender，分发器已关闭时直接停止
+     */
+    public void stopAfterDrain(int workerIndex, Appender<ILoggingEvent> target) {
+        if (!running) {
+            target.stop();
+            return;
+        }
+        workers[workerIndex].put(new Task(target, null));
+    }
+
+    /**
+     * 所有写线程队列中尚未写出的事件数
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Worker worker : workers) {
+            queued += worker.queue.size();
+        }
+        return queued;
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public int getRemainingCapacity(int workerIndex) {
+        return workers[workerIndex].queue.remainingCapacity();
+    }
+
+    public int getQueueSize(int workerIndex) {
+        return workers[workerIndex].queueSize;
+    }
+
+    /**
+     * 停止所有写线程，最多等待timeout毫秒排空队列
+     *
+     * @param timeoutMillis 最大等待时间
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Worker worker : workers) {
+            worker.interrupt();
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.join(Math.max(1L, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static class Task {
+        private final Appender<ILoggingEvent> target;
+        /**
+         * 为null时表示停止target
+         */
+        private final ILoggingEvent event;
+
+        private Task(Appender<ILoggingEvent> target, ILoggingEvent event) {
+            this.target = target;
+            this.event = event;
+        }
+    }
+
+    private class Worker extends Thread {
+        private final BlockingQueue<Task> queue;
+        private final int queueSize;
+
+        private Worker(String name, int queueSize) {
+            super(name);
+            this.queueSize = queueSize;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            setDaemon(true);
+        }
+
+        private void put(Task task) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(task);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Task> batch = new ArrayList<>(BATCH_SIZE);
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                runBatch(batch);
+            }
+            // 退出前写完剩余事件
+            queue.drainTo(batch);
+            runBatch(batch);
+        }
+
+        private void runBatch(List<Task> batch) {
+            for (Task task : batch) {
+                try {
+                    if (task.event == null) {
+                        task.target.stop();
+                    } else {
+                        task.target.doAppend(task.event);
+                    }
+                } catch (RuntimeException e) {
+                    // appender内部异常不能让写线程退出
+                }
+            }
+            batch.clear();
+        }
+    }
+}
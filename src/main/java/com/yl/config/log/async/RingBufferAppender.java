@@ -0,0 +1,322 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于预分配环形缓冲区的异步appender，用于替代AsyncAppender的ArrayBlockingQueue。
+ * <pre>
+ *     生产者：CAS抢占序号，写入复用的槽位后发布序号，不持有任何锁
+ *     消费者：单个工作线程按序号批量取出连续已发布的槽位写入下游appender
+ * </pre>
+ * 缓冲区满时生产者自旋后短暂park等待，与discardingThreshold=0的AsyncAppender一样不丢日志；
+ * 等待期间appender被停止时放弃等待，丢弃该事件并计数，不会让调用线程一直卡住
+ *
+ * @author suiwp
+ * @date 2026/10/17 11:05
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent>, BoundedQueue, Drainable {
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+    /**
+     * 消费者空闲时的最长park时间，防止极端情况下丢失唤醒
+     */
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+    /**
+     * 缓冲区满时生产者先自旋的次数
+     */
+    private static final int FULL_SPIN_TRIES = 64;
+
+    private final AppenderAttachableImpl<ILoggingEvent> aai = new AppenderAttachableImpl<>();
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int batchSize = 256;
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+    private boolean includeCallerData = false;
+
+    private Slot[] slots;
+    private int mask;
+    /**
+     * 下一个待抢占的序号
+     */
+    private final AtomicLong claimSequence = new AtomicLong();
+    /**
+     * 下一个待消费的序号，只由消费者写
+     */
+    private volatile long consumedSequence;
+    /**
+     * 生产者缓存的消费进度，只在缓冲区看起来满时才从consumedSequence刷新，减少对消费者频繁写入的字段的读取。
+     * 多个生产者共同写入，volatile保证long的读写不被拆分，读到旧值只会多刷新一次
+     */
+    private volatile long cachedConsumedSequence;
+    private volatile boolean consumerParked;
+    private volatile boolean running;
+    private Worker worker;
+    private final LongAdder droppedCount = new LongAdder();
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!aai.iteratorForAppenders().hasNext()) {
+            addError("No attached appenders found.");
+            return;
+        }
+        int size = 1;
+        while (size < bufferSize) {
+            size <<= 1;
+        }
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+        bufferSize = size;
+        running = true;
+        worker = new Worker();
+        worker.setName("RingBufferAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) {
+                addWarn("Max queue flush timeout (" + maxFlushTime + " ms) exceeded. Approximately "
+                        + getNumberOfElementsInQueue() + " queued events were possibly discarded.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Failed to join worker thread. " + getNumberOfElementsInQueue() + " queued events may be discarded.", e);
+        }
+    }
+
+    /**
+     * 等待消费线程写完并停止下游appender，stop()最多只等待maxFlushTime
+     */
+    @Override
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        Worker w = worker;
+        if (w == null) {
+            return true;
+        }
+        if (timeoutMillis > 0) {
+            w.join(timeoutMillis);
+        }
+        return !w.isAlive();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            droppedCount.increment();
+            return;
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.event = event;
+        slot.sequence = sequence;
+        if (consumerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * 抢占一个序号，缓冲区满时等待消费者腾出槽位
+     *
+     * @return 序号，等待期间appender已停止时返回-1
+     */
+    private long claim() {
+        int tries = 0;
+        while (true) {
+            long current = claimSequence.get();
+            if (current - cachedConsumedSequence >= bufferSize) {
+                long consumed = consumedSequence;
+                cachedConsumedSequence = consumed;
+                if (current - consumed >= bufferSize) {
+                    if (!running) {
+                        // 消费者已退出或即将退出，不会再腾出槽位
+                        return -1;
+                    }
+                    if (consumerParked) {
+                        LockSupport.unpark(worker);
+                    }
+                    if (++tries < FULL_SPIN_TRIES) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(1000L);
+                    }
+                    continue;
+                }
+            }
+            if (claimSequence.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 缓冲区大小，向上取整为2的幂
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 消费者单批次最多处理的事件数，处理完一批才更新消费进度
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    /**
+     * 停止时缓冲区已满而丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public int getNumberOfElementsInQueue() {
+        return (int) Math.max(0, claimSequence.get() - consumedSequence);
+    }
+
+    @Override
+    public int getQueueSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public int getRemainingCapacity() {
+        return bufferSize - getNumberOfElementsInQueue();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        addInfo("Attaching appender named [" + newAppender.getName() + "] to RingBufferAppender.");
+        aai.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return aai.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return aai.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return aai.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        aai.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return aai.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return aai.detachAppender(name);
+    }
+
+    private static class Slot {
+        /**
+         * 已发布的序号，写完event后再写入，作为发布屏障
+         */
+        private volatile long sequence = -1;
+        private ILoggingEvent event;
+    }
+
+    private class Worker extends Thread {
+        @Override
+        public void run() {
+            long next = consumedSequence;
+            while (true) {
+                int count = 0;
+                Slot slot = slots[(int) next & mask];
+                while (count < batchSize && slot.sequence == next) {
+                    ILoggingEvent event = slot.event;
+                    slot.event = null;
+                    try {
+                        aai.appendLoopOnAppenders(event);
+                    } catch (RuntimeException e) {
+                        addError("Failed to append event.", e);
+                    }
+                    count++;
+                    slot = slots[(int) ++next & mask];
+                }
+                if (count > 0) {
+                    consumedSequence = next;
+                    continue;
+                }
+                if (!running && claimSequence.get() == next) {
+                    // 已停止且所有已抢占的序号均已消费
+                    break;
+                }
+                consumerParked = true;
+                if (slot.sequence != next && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+            addInfo("Worker thread exits after flushing remaining events.");
+            aai.detachAndStopAllAppenders();
+        }
+    }
+}
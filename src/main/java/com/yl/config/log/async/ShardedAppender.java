@@ -0,0 +1,84 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个logger的文件输出分片，每个分片是一条独立的 背压 -> 异步队列 -> 文件 管道。
+ * 每个线程首次写日志时按轮转分配一个序号，之后固定写入 序号 % 分片数 的分片，
+ * 同一线程的事件在同一个文件中保持写入顺序，分片间不加锁
+ *
+ * @author suiwp
+ * @date 2026/10/18 00:40
+ */
+public class ShardedAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements BoundedQueue, Drainable {
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+    private static final ThreadLocal<Integer> THREAD_INDEX = ThreadLocal.withInitial(() -> THREAD_SEQ.getAndIncrement() & Integer.MAX_VALUE);
+
+    private final BackpressureAppender[] shards;
+
+    public ShardedAppender(BackpressureAppender[] shards) {
+        if (shards == null || shards.length == 0) {
+            throw new IllegalArgumentException("shards is empty");
+        }
+        this.shards = shards.clone();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        shards[THREAD_INDEX.get() % shards.length].doAppend(event);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        for (BackpressureAppender shard : shards) {
+            shard.stop();
+        }
+    }
+
+    @Override
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (BackpressureAppender shard : shards) {
+            if (!shard.awaitDrained(Drainable.remainingMillis(deadline))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<BackpressureAppender> getShards() {
+        return Collections.unmodifiableList(Arrays.asList(shards));
+    }
+
+    /**
+     * 各分片队列容量之和
+     */
+    @Override
+    public int getQueueSize() {
+        int size = 0;
+        for (BackpressureAppender shard : shards) {
+            size += shard.getQueue().getQueueSize();
+        }
+        return size;
+    }
+
+    @Override
+    public int getRemainingCapacity() {
+        int remaining = 0;
+        for (BackpressureAppender shard : shards) {
+            remaining += shard.getQueue().getRemainingCapacity();
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yl.config.log.async;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEventVO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 背压溢写的本地磁盘存储，按段文件顺序写入，回放时先切换当前段再读取已关闭的段
+ * <pre>
+ *     spillDir/spill-00000001.bin
+ *     spillDir/spill-00000002.bin
+ * </pre>
+ * 上次进程遗留的段文件在创建时加入待回放列表。每个事件写入后flush到操作系统，
+ * 进程崩溃或被kill时已溢写的事件不丢失，下次启动时回放(不fsync，断电时仍可能丢失)
+ *
+ * @author suiwp
+ * @date 2026/10/17 13:40
+ */
+public class SpillStore {
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    /**
+     * 每写入多少个事件重置一次对象流的引用表，避免内存持续增长
+     */
+    private static final int RESET_INTERVAL = 256;
+
+    private final File spillDir;
+    private final Deque<File> closedSegments = new ArrayDeque<>();
+    private File currentSegment;
+    private ObjectOutputStream currentOut;
+    private int currentCount;
+    private long segmentSeq;
+    /**
+     * 正在回放的段及其输入流，只在回放线程上访问
+     */
+    private File replaying;
+    private ObjectInputStream replayIn;
+    /**
+     * 是否有待回放的事件
+     */
+    private volatile boolean backlog;
+
+    public SpillStore(File spillDir) {
+        this.spillDir = spillDir;
+        File[] segments = spillDir.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments != null && segments.length > 0) {
+            Arrays.sort(segments);
+            closedSegments.addAll(Arrays.asList(segments));
+            segmentSeq = parseSeq(segments[segments.length - 1].getName());
+            backlog = true;
+        }
+    }
+
+    public boolean hasBacklog() {
+        return backlog;
+    }
+
+    /**
+     * 写入一个事件并flush，调用线程上执行
+     */
+    public synchronized void write(ILoggingEvent event) throws IOException {
+        if (currentOut == null) {
+            if (!spillDir.exists() && !spillDir.mkdirs()) {
+                throw new IOException("can not create spill dir: " + spillDir);
+            }
+            currentSegment = new File(spillDir, String.format("%s%08d%s", SEGMENT_PREFIX, ++segmentSeq, SEGMENT_SUFFIX));
+            currentOut = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(currentSegment)));
+            currentCount = 0;
+        }
+        currentOut.writeObject(LoggingEventVO.build(event));
+        if (++currentCount % RESET_INTERVAL == 0) {
+            currentOut.reset();
+        }
+        // 只在队列满时溢写，flush的开销小于序列化本身
+        currentOut.flush();
+        backlog = true;
+    }
+
+    /**
+     * 回放所有已写入的事件并删除对应段文件，在回放线程上执行
+     *
+     * @param sink 回放目标，可阻塞
+     * @return 回放的事件数
+     */
+    public long replay(Consumer<ILoggingEvent> sink) throws IOException {
+        return replay(sink, () -> true);
+    }
+
+    /**
+     * 回放已写入的事件并删除回放完的段文件，在回放线程上执行。
+     * 每个事件回放前检查ready，为false时停止，当前段保持打开，下次回放从停止处继续
+     *
+     * @param sink  回放目标
+     * @param ready 下游能否接收下一个事件
+     * @return 回放的事件数
+     */
+    public long replay(Consumer<ILoggingEvent> sink, BooleanSupplier ready) throws IOException {
+        long replayed = 0;
+        try {
+            while (true) {
+                if (replaying == null) {
+                    synchronized (this) {
+                        rotate();
+                        replaying = closedSegments.poll();
+                        if (replaying == null) {
+                            backlog = false;
+                            return replayed;
+                        }
+                    }
+                }
+                if (!ready.getAsBoolean()) {
+                    return replayed;
+                }
+                ILoggingEvent event = readNext();
+                if (event == null) {
+                    File segment = replaying;
+                    closeReplaying();
+                    if (!segment.delete()) {
+                        throw new IOException("can not delete spill segment: " + segment);
+                    }
+                    continue;
+                }
+                sink.accept(event);
+                replayed++;
+            }
+        } catch (IOException e) {
+            closeReplaying();
+            throw e;
+        }
+    }
+
+    /**
+     * 关闭当前段，释放文件句柄，未回放的段保留在磁盘上供下次启动回放，回放到一半的段下次启动时从头回放
+     */
+    public synchronized void close() throws IOException {
+        closeReplaying();
+        if (currentOut != null) {
+            currentOut.close();
+            currentOut = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (currentOut != null) {
+            currentOut.close();
+            currentOut = null;
+            closedSegments.add(currentSegment);
+        }
+    }
+
+    /**
+     * 读取正在回放的段的下一个事件，段结束时返回null
+     */
+    private ILoggingEvent readNext() throws IOException {
+        try {
+            if (replayIn == null) {
+                replayIn = new ObjectInputStream(new BufferedInputStream(new FileInputStream(replaying)));
+            }
+            return (ILoggingEvent) replayIn.readObject();
+        } catch (EOFException e) {
+            // 进程异常退出时段文件可能不完整，已读出的部分正常回放
+            return null;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("bad spill segment: " + replaying, e);
+        }
+    }
+
+    private void closeReplaying() {
+        if (replayIn != null) {
+            try {
+                replayIn.close();
+            } catch (IOException ignored) {
+                // 只读的流，关闭失败不影响已回放的事件
+            }
+            replayIn = null;
+        }
+        replaying = null;
+    }
+
+    private static long parseSeq(String name) {
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
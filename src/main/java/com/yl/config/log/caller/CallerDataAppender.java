@@ -0,0 +1,42 @@
+package com.yl.config.log.caller;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.yl.config.log.LocationMode;
+
+/**
+ * 挂在logger最前面的appender，只在调用线程上按级别采集调用位置，不输出日志。
+ * 未采集的事件没有调用位置，后面的编码器会跳过位置信息，不再触发堆栈构造
+ *
+ * @author suiwp
+ * @date 2026/10/17 17:55
+ */
+public class CallerDataAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    private final LocationMode mode;
+    private final Level minLevel;
+
+    /**
+     * @param mode     采集方式
+     * @param minLevel 不低于该级别的事件才采集
+     */
+    public CallerDataAppender(LocationMode mode, Level minLevel) {
+        this.mode = mode;
+        this.minLevel = minLevel;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (mode == LocationMode.OFF || event.hasCallerData() || !event.getLevel().isGreaterOrEqual(minLevel)) {
+            return;
+        }
+        if (mode == LocationMode.CHEAP && event instanceof LoggingEvent) {
+            StackTraceElement caller = CallerLocator.locate(Logger.FQCN);
+            ((LoggingEvent) event).setCallerData(caller == null ? new StackTraceElement[0] : new StackTraceElement[]{caller});
+        } else {
+            event.getCallerData();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.yl.config.log.caller;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 只读取必要栈帧的调用位置查找。
+ * JDK9+通过StackWalker惰性遍历，找到日志框架之后的第一个栈帧即停止；JDK8没有StackWalker，使用完整堆栈
+ *
+ * @author suiwp
+ * @date 2026/10/17 17:40
+ */
+public final class CallerLocator {
+    private static final Object WALKER;
+    private static final MethodHandle WALK;
+    private static final MethodHandle GET_CLASS_NAME;
+    private static final MethodHandle TO_STACK_TRACE_ELEMENT;
+
+    static {
+        Object walker = null;
+        MethodHandle walk = null;
+        MethodHandle getClassName = null;
+        MethodHandle toStackTraceElement = null;
+        try {
+            // 项目按JDK8编译，通过反射使用StackWalker
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            walker = walkerClass.getMethod("getInstance").invoke(null);
+            Method walkMethod = walkerClass.getMethod("walk", Function.class);
+            walk = lookup.unreflect(walkMethod);
+            getClassName = lookup.unreflect(frameClass.getMethod("getClassName"));
+            toStackTraceElement = lookup.unreflect(frameClass.getMethod("toStackTraceElement"));
+        } catch (Exception e) {
+            walker = null;
+        }
+        WALKER = walker;
+        WALK = walk;
+        GET_CLASS_NAME = getClassName;
+        TO_STACK_TRACE_ELEMENT = toStackTraceElement;
+    }
+
+    private CallerLocator() {
+    }
+
+    /**
+     * 查找日志框架之后的第一个栈帧
+     *
+     * @param fqcn 日志框架入口类，如ch.qos.logback.classic.Logger
+     * @return 调用位置，找不到时返回null
+     */
+    public static StackTraceElement locate(String fqcn) {
+        if (WALKER != null) {
+            try {
+                return (StackTraceElement) WALK.invoke(WALKER, (Function<Stream<Object>, StackTraceElement>) frames -> find(frames, fqcn));
+            } catch (Throwable e) {
+                // 退化为完整堆栈
+            }
+        }
+        StackTraceElement[] steArray = new Throwable().getStackTrace();
+        boolean seen = false;
+        for (StackTraceElement ste : steArray) {
+            if (fqcn.equals(ste.getClassName())) {
+                seen = true;
+            } else if (seen) {
+                return ste;
+            }
+        }
+        return null;
+    }
+
+    private static StackTraceElement find(Stream<Object> frames, String fqcn) {
+        try {
+            boolean seen = false;
+            Iterator<Object> iterator = frames.iterator();
+            while (iterator.hasNext()) {
+                Object frame = iterator.next();
+                if (fqcn.equals(GET_CLASS_NAME.invoke(frame))) {
+                    seen = true;
+                } else if (seen) {
+                    return (StackTraceElement) TO_STACK_TRACE_ELEMENT.invoke(frame);
+                }
+            }
+            return null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
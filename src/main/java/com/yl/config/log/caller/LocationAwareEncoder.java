@@ -0,0 +1,236 @@
+package com.yl.config.log.caller;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按事件是否已采集调用位置选择编码器，未采集的事件使用不含%class/%method/%line的格式，避免在编码时构造堆栈
+ *
+ * @author suiwp
+ * @date 2026/10/17 18:05
+ */
+public class LocationAwareEncoder extends EncoderBase<ILoggingEvent> {
+    /**
+     * 需要调用位置的转换符
+     */
+    private static final Set<String> LOCATION_WORDS = new HashSet<>(Arrays.asList(
+            "class", "C", "method", "M", "line", "L", "file", "F", "caller"));
+
+    private final Encoder<ILoggingEvent> withLocation;
+    private final Encoder<ILoggingEvent> withoutLocation;
+
+    public LocationAwareEncoder(Encoder<ILoggingEvent> withLocation, Encoder<ILoggingEvent> withoutLocation) {
+        this.withLocation = withLocation;
+        this.withoutLocation = withoutLocation;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return withLocation.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return event.hasCallerData() ? withLocation.encode(event) : withoutLocation.encode(event);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return withLocation.footerBytes();
+    }
+
+    @Override
+    public void start() {
+        if (!withLocation.isStarted()) {
+            withLocation.start();
+        }
+        if (!withoutLocation.isStarted()) {
+            withoutLocation.start();
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        withLocation.stop();
+        withoutLocation.stop();
+        super.stop();
+    }
+
+    /**
+     * 去掉格式中的调用位置转换符(%class/%C/%method/%M/%line/%L/%file/%F/%caller)。
+     * 括号内只有位置转换符时连同括号整体去掉，如默认格式中的" [%class.%method\(\) %line{}L]"；
+     * 相邻的位置转换符之间只有分隔符时整体去掉，如"%C.%M:%L"。之后为空白、右括号或结尾时前面的一个空格一并去掉
+     *
+     * @return 去掉后的格式；位置转换符在组合转换符(如%replace(...))内部时无法可靠去掉，返回null
+     */
+    public static String stripLocation(String pattern) {
+        int length = pattern.length();
+        // 不属于任何转换符的字符，含转义字符
+        boolean[] literal = new boolean[length];
+        List<int[]> locations = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        while (i < length) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                literal[i++] = true;
+                literal[i++] = true;
+            } else if (c == '%') {
+                int start = i++;
+                while (i < length && (Character.isDigit(pattern.charAt(i)) || pattern.charAt(i) == '-' || pattern.charAt(i) == '.')) {
+                    i++;
+                }
+                int wordStart = i;
+                while (i < length && Character.isLetter(pattern.charAt(i))) {
+                    i++;
+                }
+                String word = pattern.substring(wordStart, i);
+                if (i < length && pattern.charAt(i) == '(') {
+                    depth++;
+                    i++;
+                    continue;
+                }
+                i = skipOptions(pattern, i);
+                if (LOCATION_WORDS.contains(word)) {
+                    if (depth > 0) {
+                        return null;
+                    }
+                    locations.add(new int[]{start, i});
+                }
+            } else if (c == ')' && depth > 0) {
+                depth--;
+                i = skipOptions(pattern, i + 1);
+            } else {
+                literal[i++] = true;
+            }
+        }
+        if (locations.isEmpty()) {
+            return pattern;
+        }
+        // 相邻的位置转换符之间只有分隔符(如%C.%M:%L)时作为一段整体去掉
+        List<int[]> runs = new ArrayList<>();
+        int[] run = locations.get(0).clone();
+        for (int k = 1; k < locations.size(); k++) {
+            int[] next = locations.get(k);
+            if (isSeparator(pattern, literal, run[1], next[0])) {
+                run[1] = next[1];
+            } else {
+                runs.add(run);
+                run = next.clone();
+            }
+        }
+        runs.add(run);
+        boolean[] removed = new boolean[length];
+        for (int[] location : runs) {
+            int[] range = enclosingBrackets(pattern, literal, runs, location);
+            if (range == null) {
+                range = location;
+            }
+            int from = range[0];
+            if (from > 0 && literal[from - 1] && pattern.charAt(from - 1) == ' ' && endsField(pattern, range[1])) {
+                from--;
+            }
+            Arrays.fill(removed, from, range[1], true);
+        }
+        StringBuilder stripped = new StringBuilder(length);
+        for (int k = 0; k < length; k++) {
+            if (!removed[k]) {
+                stripped.append(pattern.charAt(k));
+            }
+        }
+        return stripped.toString();
+    }
+
+    private static int skipOptions(String pattern, int i) {
+        while (i < pattern.length() && pattern.charAt(i) == '{') {
+            int end = pattern.indexOf('}', i);
+            i = end < 0 ? pattern.length() : end + 1;
+        }
+        return i;
+    }
+
+    /**
+     * 去掉的部分之后是否为空白、右括号、换行或结尾，此时前面的空格一并去掉
+     */
+    private static boolean endsField(String pattern, int end) {
+        if (end >= pattern.length() || pattern.startsWith("%n", end)) {
+            return true;
+        }
+        char c = pattern.charAt(end);
+        return Character.isWhitespace(c) || isClose(c) || c == '\\' && end + 1 < pattern.length() && isClose(pattern.charAt(end + 1));
+    }
+
+    private static boolean isSeparator(String pattern, boolean[] literal, int from, int to) {
+        for (int k = from; k < to; k++) {
+            char c = pattern.charAt(k);
+            if (!literal[k] || Character.isWhitespace(c) || isOpen(c) || isClose(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位置转换符所在的方括号或圆括号，括号内除字面字符外只有位置转换符时返回{左括号下标(含转义符), 右括号下标+1}，否则返回null
+     */
+    private static int[] enclosingBrackets(String pattern, boolean[] literal, List<int[]> runs, int[] location) {
+        // 跳过其中成对的括号，如%method\(\)
+        int open = location[0] - 1;
+        for (int depth = 0; open >= 0; open--) {
+            if (!literal[open]) {
+                if (!inside(runs, open)) {
+                    return null;
+                }
+            } else if (isClose(pattern.charAt(open))) {
+                depth++;
+            } else if (isOpen(pattern.charAt(open)) && depth-- == 0) {
+                break;
+            }
+        }
+        int close = location[1];
+        for (int depth = 0; close < pattern.length(); close++) {
+            if (!literal[close]) {
+                if (!inside(runs, close)) {
+                    return null;
+                }
+            } else if (isOpen(pattern.charAt(close))) {
+                depth++;
+            } else if (isClose(pattern.charAt(close)) && depth-- == 0) {
+                break;
+            }
+        }
+        if (open < 0 || close >= pattern.length()
+                || (pattern.charAt(open) == '[') != (pattern.charAt(close) == ']')) {
+            return null;
+        }
+        if (open > 0 && pattern.charAt(open - 1) == '\\') {
+            open--;
+        }
+        return new int[]{open, close + 1};
+    }
+
+    private static boolean isOpen(char c) {
+        return c == '[' || c == '(';
+    }
+
+    private static boolean isClose(char c) {
+        return c == ']' || c == ')';
+    }
+
+    private static boolean inside(List<int[]> runs, int index) {
+        for (int[] run : runs) {
+            if (index >= run[0] && index < run[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
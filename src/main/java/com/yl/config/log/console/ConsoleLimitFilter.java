@@ -0,0 +1,106 @@
+package com.yl.config.log.console;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.yl.config.log.metrics.LoggerMetrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 控制台输出的限流及采样，低于exemptLevel的事件先按keepRatio采样，再按每秒permitsPerSecond条限流，
+ * 不低于exemptLevel的事件总是输出
+ *
+ * @author suiwp
+ * @date 2026/10/17 19:25
+ */
+public class ConsoleLimitFilter extends Filter<ILoggingEvent> {
+    private final int permitsPerSecond;
+    private final double keepRatio;
+    private final Level exemptLevel;
+
+    /**
+     * 当前计数窗口的秒数
+     */
+    private volatile long windowSecond;
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private final LongAdder passedCount = new LongAdder();
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder limitedCount = new LongAdder();
+    private LoggerMetrics metrics;
+
+    /**
+     * @param permitsPerSecond 每秒最多输出条数，<=0 表示不限流
+     * @param keepRatio        采样保留比例，1表示不采样
+     * @param exemptLevel      不低于该级别的事件不限流也不采样
+     */
+    public ConsoleLimitFilter(int permitsPerSecond, double keepRatio, Level exemptLevel) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.keepRatio = keepRatio;
+        this.exemptLevel = exemptLevel;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(exemptLevel)) {
+            passedCount.increment();
+            return FilterReply.NEUTRAL;
+        }
+        if (keepRatio < 1 && ThreadLocalRandom.current().nextDouble() >= keepRatio) {
+            sampledCount.increment();
+            recordDropped();
+            return FilterReply.DENY;
+        }
+        if (permitsPerSecond > 0 && !tryAcquire()) {
+            limitedCount.increment();
+            recordDropped();
+            return FilterReply.DENY;
+        }
+        passedCount.increment();
+        return FilterReply.NEUTRAL;
+    }
+
+    private void recordDropped() {
+        if (metrics != null) {
+            metrics.recordConsoleDropped();
+        }
+    }
+
+    /**
+     * 固定一秒窗口计数，窗口切换时的少量并发误差可以接受
+     */
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != windowSecond) {
+            windowSecond = second;
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= permitsPerSecond;
+    }
+
+    public void setMetrics(LoggerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public long getPassedCount() {
+        return passedCount.sum();
+    }
+
+    /**
+     * 被采样丢弃的事件数
+     */
+    public long getSampledCount() {
+        return sampledCount.sum();
+    }
+
+    /**
+     * 被限流丢弃的事件数
+     */
+    public long getLimitedCount() {
+        return limitedCount.sum();
+    }
+}
@@ -0,0 +1,113 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.core.CoreConstants;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 将二进制日志转换回动态logger默认的文本格式，输出与{@link FastPatternEncoder}一致：
+ * <pre>
+ *     %d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%X{tid}] [%t] %c [%class.%method\(\) %line{}L]%n-> %m%n
+ * </pre>
+ * 命令行用法：BinaryLogConverter &lt;file[.gz]&gt; [outFile]，不指定outFile时输出到标准输出
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:45
+ */
+public class BinaryLogConverter {
+    private static final byte[] LINE_SEPARATOR = CoreConstants.LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE_PREFIX = "-> ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UNKNOWN_CALLER = "?.?() ?L".getBytes(StandardCharsets.UTF_8);
+
+    private final FastPatternEncoder.DateCache dateCache = new FastPatternEncoder.DateCache();
+
+    /**
+     * 按默认格式追加一条日志
+     */
+    public void format(LogRecord record, ByteBuilder out) {
+        dateCache.format(record.getTimestamp(), out);
+        out.append((byte) ' ');
+        String level = record.getLevel().levelStr;
+        out.appendUtf8(level);
+        for (int i = level.length(); i < 5; i++) {
+            out.append((byte) ' ');
+        }
+        out.append((byte) ' ').append((byte) '[');
+        out.appendUtf8(record.getTid());
+        out.append((byte) ']').append((byte) ' ').append((byte) '[');
+        out.appendUtf8(record.getThreadName());
+        out.append((byte) ']').append((byte) ' ');
+        out.appendUtf8(record.getLoggerName());
+        if (record.hasCallerData()) {
+            out.append((byte) ' ').append((byte) '[');
+            if (record.getCallerClass() == null) {
+                out.append(UNKNOWN_CALLER);
+            } else {
+                out.appendUtf8(record.getCallerClass()).append((byte) '.').appendUtf8(record.getCallerMethod())
+                        .append((byte) '(').append((byte) ')').append((byte) ' ');
+                out.appendLong(record.getCallerLine()).append((byte) 'L');
+            }
+            out.append((byte) ']');
+        }
+        out.append(LINE_SEPARATOR);
+        out.append(MESSAGE_PREFIX);
+        out.appendUtf8(record.getMessage());
+        out.append(LINE_SEPARATOR);
+        if (record.getThrowable() != null) {
+            out.appendUtf8(record.getThrowable());
+        }
+    }
+
+    /**
+     * 将in中的二进制日志逐条转换为文本写入out，不关闭流
+     *
+     * @return 转换的日志条数
+     */
+    public long convert(InputStream in, OutputStream out) throws IOException {
+        BinaryLogReader reader = new BinaryLogReader(in);
+        ByteBuilder buffer = new ByteBuilder(64 * 1024);
+        long count = 0;
+        LogRecord record;
+        while ((record = reader.next()) != null) {
+            format(record, buffer);
+            count++;
+            if (buffer.length() >= 60 * 1024) {
+                out.write(buffer.array(), 0, buffer.length());
+                buffer.reset();
+            }
+        }
+        out.write(buffer.array(), 0, buffer.length());
+        out.flush();
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: BinaryLogConverter <file[.gz]> [outFile]");
+            return;
+        }
+        File file = new File(args[0]);
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        OutputStream out = args.length > 1 ? new BufferedOutputStream(new FileOutputStream(args[1]), 64 * 1024) : System.out;
+        try {
+            long count = new BinaryLogConverter().convert(in, out);
+            System.err.println(count + " records converted");
+        } finally {
+            in.close();
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按{@link BinaryLogFormat}编码的二进制编码器，给机器消费的logger使用，
+ * 时间戳只写与上一条的差值，线程名、logger名、调用位置按字典编号写入，消息不做任何格式化。
+ * <p>
+ * 编码有状态（字典及上一条时间戳），编码顺序必须与写入顺序一致，只能由一个appender在其写锁内使用。
+ * {@link #headerBytes()}在每次打开文件时由appender写入，同时重置状态；
+ * 用{@link BinaryLogConverter}转换回默认文本格式
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:20
+ */
+public class BinaryLogEncoder extends EncoderBase<ILoggingEvent> implements BufferEncoder {
+    private static final String MDC_TID = "tid";
+
+    private final Map<String, Integer> dict = new HashMap<>(256);
+    private long lastTimestamp;
+    /**
+     * 还未写出SYNC，首次编码时补写
+     */
+    private boolean synced;
+    private boolean locationAware = false;
+
+    private final ByteBuilder record = new ByteBuilder(512);
+    private final ByteBuilder throwable = new ByteBuilder(1024);
+    private final ByteBuilder buffer = new ByteBuilder(512);
+
+    /**
+     * 写入SYNC并重置字典，之后的记录不依赖文件之前的内容
+     */
+    @Override
+    public byte[] headerBytes() {
+        return sync(buffer.reset()).toByteArray();
+    }
+
+    /**
+     * 兼容logback Encoder接口，返回的数组需要分配，批量写入请使用{@link #encode(ILoggingEvent, ByteBuilder)}
+     */
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        encode(event, buffer.reset());
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public void encode(ILoggingEvent event, ByteBuilder out) {
+        if (!synced || dict.size() > BinaryLogFormat.MAX_DICT_SIZE) {
+            sync(out);
+        }
+        // 先写字典项，保证读取方遇到编号前已经见过定义
+        int threadId = lookup(event.getThreadName(), out);
+        int loggerId = lookup(event.getLoggerName(), out);
+        StackTraceElement caller = null;
+        byte callerFlag = BinaryLogFormat.CALLER_NONE;
+        int classId = 0;
+        int methodId = 0;
+        if (!locationAware || event.hasCallerData()) {
+            StackTraceElement[] callerData = event.getCallerData();
+            if (callerData == null || callerData.length == 0) {
+                callerFlag = BinaryLogFormat.CALLER_UNKNOWN;
+            } else {
+                callerFlag = BinaryLogFormat.CALLER_PRESENT;
+                caller = callerData[0];
+                classId = lookup(caller.getClassName(), out);
+                methodId = lookup(caller.getMethodName(), out);
+            }
+        }
+
+        ByteBuilder r = record.reset();
+        r.append(BinaryLogFormat.EVENT);
+        long timestamp = event.getTimeStamp();
+        r.appendVarLong(BinaryLogFormat.zigzag(timestamp - lastTimestamp));
+        lastTimestamp = timestamp;
+        r.append((byte) (event.getLevel().levelInt / 1000));
+        r.appendVarLong(threadId);
+        r.appendVarLong(loggerId);
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        appendString(r, mdc == null ? null : mdc.get(MDC_TID));
+        r.append(callerFlag);
+        if (caller != null) {
+            r.appendVarLong(classId);
+            r.appendVarLong(methodId);
+            r.appendVarLong(BinaryLogFormat.zigzag(caller.getLineNumber()));
+        }
+        appendString(r, event.getFormattedMessage());
+        IThrowableProxy tp = event.getThrowableProxy();
+        if (tp == null) {
+            r.appendVarLong(0);
+        } else {
+            ByteBuilder t = throwable.reset();
+            FastPatternEncoder.appendThrowable(tp, "", "", t);
+            r.appendVarLong(t.length());
+            r.append(t.array(), 0, t.length());
+        }
+        out.appendVarLong(r.length());
+        out.append(r.array(), 0, r.length());
+    }
+
+    public boolean isLocationAware() {
+        return locationAware;
+    }
+
+    /**
+     * 为true时未采集调用位置的事件不写位置，也不触发堆栈构造，与{@link FastPatternEncoder#setLocationAware(boolean)}一致
+     */
+    public void setLocationAware(boolean locationAware) {
+        this.locationAware = locationAware;
+    }
+
+    private ByteBuilder sync(ByteBuilder out) {
+        dict.clear();
+        lastTimestamp = 0;
+        synced = true;
+        out.appendVarLong(1 + BinaryLogFormat.MAGIC.length);
+        out.append(BinaryLogFormat.SYNC);
+        out.append(BinaryLogFormat.MAGIC);
+        return out;
+    }
+
+    /**
+     * 查字典编号，首次出现时写入DICT记录
+     */
+    private int lookup(String value, ByteBuilder out) {
+        if (value == null) {
+            value = "null";
+        }
+        Integer id = dict.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = dict.size();
+        dict.put(value, newId);
+        int len = ByteBuilder.utf8Length(value);
+        out.appendVarLong(1 + varLongSize(newId) + varLongSize(len) + len);
+        out.append(BinaryLogFormat.DICT);
+        out.appendVarLong(newId);
+        out.appendVarLong(len);
+        out.appendUtf8(value);
+        return newId;
+    }
+
+    private static void appendString(ByteBuilder out, String value) {
+        if (value == null || value.isEmpty()) {
+            out.appendVarLong(0);
+            return;
+        }
+        out.appendVarLong(ByteBuilder.utf8Length(value));
+        out.appendUtf8(value);
+    }
+
+    private static int varLongSize(long v) {
+        int size = 1;
+        while ((v & ~0x7FL) != 0) {
+            size++;
+            v >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package com.yl.config.log.encoder;
+
+/**
+ * 二进制日志格式，所有整数为变长编码（每字节7位，低位在前），有符号数先做zigzag转换。
+ * <pre>
+ *     record  := varint(len) payload[len]
+ *     payload := SYNC  'Y' 'L' 'B' '1'                  清空字典，时间基准归零
+ *              | DICT  varint(id) str                   定义字典项，线程名、logger名、类名、方法名共用一个字典
+ *              | EVENT zigzag(ts - 上一条ts) byte(level/1000) varint(thread) varint(logger)
+ *                      str(tid) byte(caller) [varint(class) varint(method) zigzag(line)]
+ *                      str(message) str(throwable)
+ *     str     := varint(utf8字节数) utf8
+ * </pre>
+ * caller为{@link #CALLER_NONE}时不输出位置，{@link #CALLER_UNKNOWN}时按"?.?() ?L"输出；
+ * throwable为按logback默认%ex格式渲染后的堆栈，长度为0表示没有异常。
+ * 每个文件以SYNC开头，文件中途也可能出现SYNC（追加写入、字典超过上限），读取方遇到时同样重置状态。
+ * 未知的payload类型按长度跳过
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:10
+ */
+public final class BinaryLogFormat {
+    public static final byte SYNC = 0;
+    public static final byte DICT = 1;
+    public static final byte EVENT = 2;
+
+    public static final byte CALLER_NONE = 0;
+    public static final byte CALLER_PRESENT = 1;
+    public static final byte CALLER_UNKNOWN = 2;
+
+    static final byte[] MAGIC = {'Y', 'L', 'B', '1'};
+
+    /**
+     * 字典项超过该数量时写入SYNC重新开始，避免线程名等无限增长时占用过多内存
+     */
+    static final int MAX_DICT_SIZE = 1 << 16;
+
+    /**
+     * 单条记录的长度上限，读取时超过视为文件损坏
+     */
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private BinaryLogFormat() {
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,179 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.classic.Level;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link BinaryLogFormat}格式的流式解码器，逐条读取，内存占用只与字典及单条记录大小有关。
+ * <p>
+ * 文件末尾不完整的记录（写入中或进程异常退出）视为文件结束
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:35
+ */
+public class BinaryLogReader implements Closeable {
+    private final InputStream in;
+    private final List<String> dict = new ArrayList<>(256);
+    private long lastTimestamp;
+    private byte[] payload = new byte[1024];
+    /**
+     * 当前payload的长度及读取位置
+     */
+    private int limit;
+    private int pos;
+
+    public BinaryLogReader(InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024);
+    }
+
+    /**
+     * 读取下一条日志
+     *
+     * @return 日志，读到文件末尾时返回null
+     * @throws IOException 读取失败或文件内容不是该格式
+     */
+    public LogRecord next() throws IOException {
+        while (readPayload()) {
+            byte type = payload[pos++];
+            switch (type) {
+                case BinaryLogFormat.SYNC:
+                    checkMagic();
+                    dict.clear();
+                    lastTimestamp = 0;
+                    break;
+                case BinaryLogFormat.DICT:
+                    int id = (int) readVarLong();
+                    if (id != dict.size()) {
+                        throw new IOException("unexpected dictionary id " + id + ", expect " + dict.size());
+                    }
+                    dict.add(readString());
+                    break;
+                case BinaryLogFormat.EVENT:
+                    return readEvent();
+                default:
+                    // 新版本增加的类型，按长度跳过
+                    break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private LogRecord readEvent() throws IOException {
+        long timestamp = lastTimestamp + BinaryLogFormat.unzigzag(readVarLong());
+        lastTimestamp = timestamp;
+        Level level = Level.toLevel(readByte() * 1000);
+        String threadName = dictValue(readVarLong());
+        String loggerName = dictValue(readVarLong());
+        String tid = readString();
+        byte callerFlag = readByte();
+        String callerClass = null;
+        String callerMethod = null;
+        int callerLine = 0;
+        if (callerFlag == BinaryLogFormat.CALLER_PRESENT) {
+            callerClass = dictValue(readVarLong());
+            callerMethod = dictValue(readVarLong());
+            callerLine = (int) BinaryLogFormat.unzigzag(readVarLong());
+        }
+        String message = readString();
+        String throwable = readString();
+        return new LogRecord(timestamp, level, threadName, loggerName, tid, callerFlag, callerClass, callerMethod,
+                callerLine, message, throwable.isEmpty() ? null : throwable);
+    }
+
+    /**
+     * 读取一条完整记录到payload
+     *
+     * @return 读到文件末尾时返回false
+     */
+    private boolean readPayload() throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                return false;
+            }
+            if (shift > 28) {
+                throw new IOException("malformed record length");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length <= 0 || length > BinaryLogFormat.MAX_RECORD_SIZE) {
+            throw new IOException("malformed record length " + length);
+        }
+        int len = (int) length;
+        if (payload.length < len) {
+            payload = new byte[Math.max(len, payload.length << 1)];
+        }
+        int read = 0;
+        while (read < len) {
+            int n = in.read(payload, read, len - read);
+            if (n < 0) {
+                return false;
+            }
+            read += n;
+        }
+        limit = len;
+        pos = 0;
+        return true;
+    }
+
+    private void checkMagic() throws IOException {
+        for (byte b : BinaryLogFormat.MAGIC) {
+            if (readByte() != b) {
+                throw new IOException("not a binary log");
+            }
+        }
+    }
+
+    private String dictValue(long id) throws IOException {
+        if (id < 0 || id >= dict.size()) {
+            throw new IOException("undefined dictionary id " + id);
+        }
+        return dict.get((int) id);
+    }
+
+    private byte readByte() throws IOException {
+        if (pos >= limit) {
+            throw new EOFException("record truncated");
+        }
+        return payload[pos++];
+    }
+
+    private long readVarLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private String readString() throws IOException {
+        long len = readVarLong();
+        if (len < 0 || len > limit - pos) {
+            throw new EOFException("record truncated");
+        }
+        String s = new String(payload, pos, (int) len, StandardCharsets.UTF_8);
+        pos += (int) len;
+        return s;
+    }
+}
@@ -0,0 +1,20 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * 将事件直接编码进调用方提供的复用缓冲，不产生中间String和byte[]
+ *
+ * @author suiwp
+ * @date 2026/10/17 16:15
+ */
+public interface BufferEncoder {
+
+    /**
+     * 将事件编码追加到out
+     *
+     * @param event 日志事件
+     * @param out   复用缓冲
+     */
+    void encode(ILoggingEvent event, ByteBuilder out);
+}
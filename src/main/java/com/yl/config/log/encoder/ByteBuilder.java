@@ -0,0 +1,158 @@
+package com.yl.config.log.encoder;
+
+import java.util.Arrays;
+
+/**
+ * 可复用的字节缓冲，按需扩容，reset后重复使用，不为每个事件分配数组
+ *
+ * @author suiwp
+ * @date 2026/10/17 16:10
+ */
+public class ByteBuilder {
+    private byte[] bytes;
+    private int length;
+
+    public ByteBuilder(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public ByteBuilder reset() {
+        length = 0;
+        return this;
+    }
+
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    public ByteBuilder append(byte b) {
+        ensureCapacity(length + 1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    public ByteBuilder append(byte[] src) {
+        return append(src, 0, src.length);
+    }
+
+    public ByteBuilder append(byte[] src, int offset, int len) {
+        ensureCapacity(length + len);
+        System.arraycopy(src, offset, bytes, length, len);
+        length += len;
+        return this;
+    }
+
+    /**
+     * 按UTF-8编码追加字符，null按"null"处理
+     */
+    public ByteBuilder appendUtf8(CharSequence s) {
+        if (s == null) {
+            s = "null";
+        }
+        int len = s.length();
+        ensureCapacity(length + len);
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else {
+                // 按剩余字符最坏情况扩容，之后的ASCII字符无需再检查
+                ensureCapacity(length + 4 + (len - i) * 3);
+                if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (cp >> 18));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 追加十进制整数
+     */
+    public ByteBuilder appendLong(long v) {
+        if (v == Long.MIN_VALUE) {
+            return appendUtf8("-9223372036854775808");
+        }
+        if (v < 0) {
+            append((byte) '-');
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        ensureCapacity(length + digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + (v % 10));
+            v /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * 追加无符号变长整数，每字节7位，低位在前
+     */
+    public ByteBuilder appendVarLong(long v) {
+        ensureCapacity(length + 10);
+        while ((v & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        bytes[length++] = (byte) v;
+        return this;
+    }
+
+    /**
+     * {@link #appendUtf8(CharSequence)}将写入的字节数
+     */
+    public static int utf8Length(CharSequence s) {
+        if (s == null) {
+            return 4;
+        }
+        int len = s.length();
+        int bytes = len;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    // 两个char编码为4字节
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * 动态logger默认格式的免分配编码器，输出与下面的PatternLayout一致：
+ * <pre>
+ *     %d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%X{tid}] [%t] %c [%class.%method\(\) %line{}L]%n-> %m%n
+ * </pre>
+ * 直接按UTF-8写入复用的{@link ByteBuilder}，时间戳只重写变化的部分。
+ * 异常堆栈仍会分配，只出现在ERROR路径上。
+ * locationAware为true时，未采集调用位置的事件不输出位置信息，也不触发堆栈构造
+ *
+ * @author suiwp
+ * @date 2026/10/17 16:20
+ */
+public class FastPatternEncoder extends EncoderBase<ILoggingEvent> implements BufferEncoder {
+    private static final byte[] LINE_SEPARATOR = CoreConstants.LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE_PREFIX = "-> ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NA = "?".getBytes(StandardCharsets.UTF_8);
+    private static final String MDC_TID = "tid";
+
+    /**
+     * 每个线程独立的时间戳缓存及编码缓冲，控制台等同步appender会在多个线程上调用
+     */
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+    private boolean locationAware = false;
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    /**
+     * 兼容logback Encoder接口，返回的数组需要分配，批量写入请使用{@link #encode(ILoggingEvent, ByteBuilder)}
+     */
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        State s = state.get();
+        ByteBuilder out = s.buffer.reset();
+        encode(event, out, s);
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public void encode(ILoggingEvent event, ByteBuilder out) {
+        encode(event, out, state.get());
+    }
+
+    private void encode(ILoggingEvent event, ByteBuilder out, State s) {
+        s.dateCache.format(event.getTimeStamp(), out);
+        out.append((byte) ' ');
+        String level = event.getLevel().levelStr;
+        out.appendUtf8(level);
+        for (int i = level.length(); i < 5; i++) {
+            out.append((byte) ' ');
+        }
+        out.append((byte) ' ').append((byte) '[');
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String tid = mdc == null ? null : mdc.get(MDC_TID);
+        if (tid != null) {
+            out.appendUtf8(tid);
+        }
+        out.append((byte) ']').append((byte) ' ').append((byte) '[');
+        out.appendUtf8(event.getThreadName());
+        out.append((byte) ']').append((byte) ' ');
+        out.appendUtf8(event.getLoggerName());
+        if (!locationAware || event.hasCallerData()) {
+            out.append((byte) ' ').append((byte) '[');
+            appendCallerData(event, out);
+            out.append((byte) ']');
+        }
+        out.append(LINE_SEPARATOR);
+        out.append(MESSAGE_PREFIX);
+        out.appendUtf8(event.getFormattedMessage());
+        out.append(LINE_SEPARATOR);
+        IThrowableProxy tp = event.getThrowableProxy();
+        if (tp != null) {
+            appendThrowable(tp, "", "", out);
+        }
+    }
+
+    public boolean isLocationAware() {
+        return locationAware;
+    }
+
+    public void setLocationAware(boolean locationAware) {
+        this.locationAware = locationAware;
+    }
+
+    /**
+     * %class.%method\(\) %line{}L
+     */
+    private static void appendCallerData(ILoggingEvent event, ByteBuilder out) {
+        StackTraceElement[] callerData = event.getCallerData();
+        if (callerData == null || callerData.length == 0) {
+            out.append(NA).append((byte) '.').append(NA).append((byte) '(').append((byte) ')')
+                    .append((byte) ' ').append(NA).append((byte) 'L');
+            return;
+        }
+        StackTraceElement caller = callerData[0];
+        out.appendUtf8(caller.getClassName()).append((byte) '.').appendUtf8(caller.getMethodName())
+                .append((byte) '(').append((byte) ')').append((byte) ' ');
+        out.appendLong(caller.getLineNumber()).append((byte) 'L');
+    }
+
+    /**
+     * 按logback默认%ex的格式追加异常堆栈
+     */
+    public static void appendThrowable(IThrowableProxy tp, String prefix, String indent, ByteBuilder out) {
+        out.appendUtf8(indent).appendUtf8(prefix).appendUtf8(tp.getClassName());
+        if (tp.getMessage() != null) {
+            out.append((byte) ':').append((byte) ' ').appendUtf8(tp.getMessage());
+        }
+        out.append(LINE_SEPARATOR);
+        StackTraceElementProxy[] frames = tp.getStackTraceElementProxyArray();
+        int common = tp.getCommonFrames();
+        for (int i = 0; i < frames.length - common; i++) {
+            out.appendUtf8(indent).append((byte) '\t').appendUtf8(frames[i].getSTEAsString()).append(LINE_SEPARATOR);
+        }
+        if (common > 0) {
+            out.appendUtf8(indent).appendUtf8("\t... ").appendLong(common).appendUtf8(" common frames omitted").append(LINE_SEPARATOR);
+        }
+        IThrowableProxy[] suppressed = tp.getSuppressed();
+        if (suppressed != null) {
+            for (IThrowableProxy s : suppressed) {
+                appendThrowable(s, CoreConstants.SUPPRESSED, indent + '\t', out);
+            }
+        }
+        if (tp.getCause() != null) {
+            appendThrowable(tp.getCause(), CoreConstants.CAUSED_BY, indent, out);
+        }
+    }
+
+    private static class State {
+        private final ByteBuilder buffer = new ByteBuilder(512);
+        private final DateCache dateCache = new DateCache();
+    }
+
+    /**
+     * yyyy-MM-dd HH:mm:ss.SSS 格式的时间戳缓存，同一秒内只重写毫秒，跨秒重写时分秒，跨天才重新计算日期
+     */
+    static class DateCache {
+        private static final long MILLIS_PER_DAY = 86_400_000L;
+
+        private final TimeZone timeZone = TimeZone.getDefault();
+        private final byte[] cached = new byte[23];
+        private long cachedSecond = Long.MIN_VALUE;
+        private long cachedDayStart = Long.MIN_VALUE;
+        private long cachedDayEnd = Long.MIN_VALUE;
+
+        void format(long timestamp, ByteBuilder out) {
+            long second = Math.floorDiv(timestamp, 1000L);
+            if (second != cachedSecond) {
+                renderSecond(timestamp);
+                cachedSecond = second;
+            }
+            int millis = (int) Math.floorMod(timestamp, 1000L);
+            cached[20] = (byte) ('0' + millis / 100);
+            cached[21] = (byte) ('0' + millis / 10 % 10);
+            cached[22] = (byte) ('0' + millis % 10);
+            out.append(cached);
+        }
+
+        private void renderSecond(long timestamp) {
+            long local = timestamp + timeZone.getOffset(timestamp);
+            if (local < cachedDayStart || local >= cachedDayEnd) {
+                long epochDay = Math.floorDiv(local, MILLIS_PER_DAY);
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                write4(0, date.getYear());
+                cached[4] = '-';
+                write2(5, date.getMonthValue());
+                cached[7] = '-';
+                write2(8, date.getDayOfMonth());
+                cached[10] = ' ';
+                cached[13] = ':';
+                cached[16] = ':';
+                cached[19] = '.';
+                cachedDayStart = epochDay * MILLIS_PER_DAY;
+                cachedDayEnd = cachedDayStart + MILLIS_PER_DAY;
+            }
+            int secondOfDay = (int) ((local - cachedDayStart) / 1000L);
+            write2(11, secondOfDay / 3600);
+            write2(14, secondOfDay / 60 % 60);
+            write2(17, secondOfDay % 60);
+        }
+
+        private void write2(int pos, int v) {
+            cached[pos] = (byte) ('0' + v / 10);
+            cached[pos + 1] = (byte) ('0' + v % 10);
+        }
+
+        private void write4(int pos, int v) {
+            cached[pos] = (byte) ('0' + v / 1000 % 10);
+            cached[pos + 1] = (byte) ('0' + v / 100 % 10);
+            cached[pos + 2] = (byte) ('0' + v / 10 % 10);
+            cached[pos + 3] = (byte) ('0' + v % 10);
+        }
+    }
+}
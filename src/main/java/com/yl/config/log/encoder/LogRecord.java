@@ -0,0 +1,95 @@
+package com.yl.config.log.encoder;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * {@link BinaryLogReader}解码出的一条日志
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:30
+ */
+public class LogRecord {
+    private final long timestamp;
+    private final Level level;
+    private final String threadName;
+    private final String loggerName;
+    private final String tid;
+    private final byte callerFlag;
+    private final String callerClass;
+    private final String callerMethod;
+    private final int callerLine;
+    private final String message;
+    private final String throwable;
+
+    LogRecord(long timestamp, Level level, String threadName, String loggerName, String tid,
+              byte callerFlag, String callerClass, String callerMethod, int callerLine,
+              String message, String throwable) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.threadName = threadName;
+        this.loggerName = loggerName;
+        this.tid = tid;
+        this.callerFlag = callerFlag;
+        this.callerClass = callerClass;
+        this.callerMethod = callerMethod;
+        this.callerLine = callerLine;
+        this.message = message;
+        this.throwable = throwable;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    /**
+     * MDC中的tid，没有时为空串
+     */
+    public String getTid() {
+        return tid;
+    }
+
+    /**
+     * 是否输出调用位置，未采集位置的事件为false
+     */
+    public boolean hasCallerData() {
+        return callerFlag != BinaryLogFormat.CALLER_NONE;
+    }
+
+    /**
+     * 调用位置，采集了位置但无法获取时为null
+     */
+    public String getCallerClass() {
+        return callerClass;
+    }
+
+    public String getCallerMethod() {
+        return callerMethod;
+    }
+
+    public int getCallerLine() {
+        return callerLine;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 按logback默认%ex格式渲染的堆栈，没有异常时为null
+     */
+    public String getThrowable() {
+        return throwable;
+    }
+}
@@ -0,0 +1,409 @@
+package com.yl.config.log.flight;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.yl.config.log.async.Drainable;
+import com.yl.config.log.encoder.ByteBuilder;
+import com.yl.config.log.encoder.FastPatternEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 飞行记录：低于fileLevel的事件不写文件，只按紧凑格式写入内存环，环满时覆盖最旧的记录；
+ * 出现不低于triggerLevel的事件（如{@code ErrBox.logErr}）时，先将环中记录按顺序交给文件appender，再写该事件。
+ * 也可通过{@link #dump(String)}随时导出。
+ * <p>
+ * 环在首次记录时从{@link FlightRecorderPool}申请，所有logger共用一个内存上限。
+ * tidScoped为true且触发事件带tid时，只导出同一tid的记录，其余记录留在环中
+ *
+ * @author suiwp
+ * @date 2026/10/17 23:15
+ */
+public class FlightRecorderAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements Drainable {
+    private static final String MDC_TID = "tid";
+    private static final byte NO_CALLER = 0;
+    private static final byte CALLER = 1;
+    private static final byte EMPTY_CALLER = 2;
+    /**
+     * 编码用的线程缓冲，所有飞行记录共用
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    /**
+     * 编码大记录(如长异常)后超过该大小的缓冲不再保留
+     */
+    private static final int MAX_SCRATCH_SIZE = 16 * 1024;
+
+    private final Appender<ILoggingEvent> delegate;
+    private final FlightRecorderPool pool;
+    private final int capacity;
+    private final Level fileLevel;
+    private Level triggerLevel = Level.ERROR;
+    private boolean tidScoped;
+
+    /**
+     * 记录只做内存拷贝，锁内没有IO
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] ring;
+    /**
+     * 写入位置及最旧记录的位置，单调递增，取模后为环内下标
+     */
+    private long head;
+    private long tail;
+    private volatile String loggerName;
+
+    private final LongAdder recordedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder dumpedCount = new LongAdder();
+
+    /**
+     * @param delegate  文件appender
+     * @param fileLevel 低于该级别的事件只进内存环
+     * @param capacity  每个logger的环大小（字节）
+     * @param pool      全局内存额度
+     */
+    public FlightRecorderAppender(Appender<ILoggingEvent> delegate, Level fileLevel, int capacity, FlightRecorderPool pool) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.fileLevel = fileLevel;
+        this.capacity = capacity;
+        this.pool = pool;
+    }
+
+    public void setTriggerLevel(Level triggerLevel) {
+        this.triggerLevel = triggerLevel;
+    }
+
+    public void setTidScoped(boolean tidScoped) {
+        this.tidScoped = tidScoped;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!event.getLevel().isGreaterOrEqual(fileLevel)) {
+            record(event);
+            return;
+        }
+        if (event.getLevel().isGreaterOrEqual(triggerLevel)) {
+            dump(tidScoped ? tid(event) : null);
+        }
+        delegate.doAppend(event);
+    }
+
+    /**
+     * 将环中记录按顺序交给文件appender并从环中移除
+     *
+     * @param tid 不为null时只导出该tid的记录
+     * @return 导出的记录数
+     */
+    public int dump(String tid) {
+        List<LoggingEvent> events;
+        lock.lock();
+        try {
+            if (ring == null || head == tail) {
+                return 0;
+            }
+            events = new ArrayList<>();
+            List<byte[]> kept = null;
+            for (long pos = tail; pos < head; ) {
+                int len = readInt(pos);
+                byte[] entry = new byte[len];
+                copyOut(pos + 4, entry, len);
+                pos += 4 + len;
+                Entry decoded = new Entry(entry);
+                if (tid == null || tid.equals(decoded.tid)) {
+                    events.add(decoded.toEvent());
+                } else {
+                    if (kept == null) {
+                        kept = new ArrayList<>();
+                    }
+                    kept.add(entry);
+                }
+            }
+            head = 0;
+            tail = 0;
+            if (kept != null) {
+                for (byte[] entry : kept) {
+                    put(entry, entry.length);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (LoggingEvent event : events) {
+            delegate.doAppend(event);
+        }
+        dumpedCount.add(events.size());
+        return events.size();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        lock.lock();
+        try {
+            if (ring != null) {
+                ring = null;
+                pool.release(capacity);
+            }
+        } finally {
+            lock.unlock();
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        return Drainable.awaitDrained(delegate, timeoutMillis);
+    }
+
+    public Appender<ILoggingEvent> getDelegate() {
+        return delegate;
+    }
+
+    public long getRecordedCount() {
+        return recordedCount.sum();
+    }
+
+    /**
+     * 全局额度不足或单条过大而未记录的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getDumpedCount() {
+        return dumpedCount.sum();
+    }
+
+    private void record(ILoggingEvent event) {
+        if (loggerName == null) {
+            loggerName = event.getLoggerName();
+        }
+        Scratch scratch = SCRATCH.get();
+        try {
+            // 编码在锁外完成，锁内只做拷贝
+            ByteBuilder out = encode(event, scratch);
+            if (out.length() + 4 > capacity / 2) {
+                droppedCount.increment();
+                return;
+            }
+            lock.lock();
+            try {
+                if (ring == null) {
+                    if (!isStarted() || (ring = pool.allocate(capacity)) == null) {
+                        droppedCount.increment();
+                        return;
+                    }
+                }
+                put(out.array(), out.length());
+            } finally {
+                lock.unlock();
+            }
+            recordedCount.increment();
+        } finally {
+            scratch.trim();
+        }
+    }
+
+    /**
+     * varint(ts) level/1000 str(thread) str(tid) caller [str(class) str(method) varint(line+2)] str(message)
+     */
+    private static ByteBuilder encode(ILoggingEvent event, Scratch scratch) {
+        ByteBuilder out = scratch.record.reset();
+        out.appendVarLong(event.getTimeStamp());
+        out.append((byte) (event.getLevel().levelInt / 1000));
+        appendString(out, event.getThreadName());
+        appendString(out, tid(event));
+        StackTraceElement[] callerData = event.hasCallerData() ? event.getCallerData() : null;
+        if (callerData == null) {
+            out.append(NO_CALLER);
+        } else if (callerData.length == 0) {
+            out.append(EMPTY_CALLER);
+        } else {
+            out.append(CALLER);
+            appendString(out, callerData[0].getClassName());
+            appendString(out, callerData[0].getMethodName());
+            out.appendVarLong(callerData[0].getLineNumber() + 2L);
+        }
+        IThrowableProxy tp = event.getThrowableProxy();
+        if (tp == null) {
+            appendString(out, event.getFormattedMessage());
+        } else {
+            // 异常无法还原为IThrowableProxy，按%ex格式渲染后接在消息后面
+            ByteBuilder text = scratch.text().reset();
+            text.appendUtf8(event.getFormattedMessage()).appendUtf8(CoreConstants.LINE_SEPARATOR);
+            FastPatternEncoder.appendThrowable(tp, "", "", text);
+            int len = text.length() - CoreConstants.LINE_SEPARATOR.length();
+            out.appendVarLong(len);
+            out.append(text.array(), 0, len);
+        }
+        return out;
+    }
+
+    private static void appendString(ByteBuilder out, String value) {
+        if (value == null) {
+            out.appendVarLong(0);
+            return;
+        }
+        out.appendVarLong(ByteBuilder.utf8Length(value));
+        out.appendUtf8(value);
+    }
+
+    private static String tid(ILoggingEvent event) {
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        return mdc == null ? null : mdc.get(MDC_TID);
+    }
+
+    private void put(byte[] src, int len) {
+        int need = len + 4;
+        while (capacity - (head - tail) < need) {
+            // 覆盖最旧的记录
+            tail += 4 + readInt(tail);
+        }
+        writeInt(head, len);
+        copyIn(head + 4, src, len);
+        head += need;
+    }
+
+    private int index(long pos) {
+        return (int) (pos % capacity);
+    }
+
+    private void writeInt(long pos, int v) {
+        for (int i = 0; i < 4; i++) {
+            ring[index(pos + i)] = (byte) (v >>> (i << 3));
+        }
+    }
+
+    private int readInt(long pos) {
+        int v = 0;
+        for (int i = 0; i < 4; i++) {
+            v |= (ring[index(pos + i)] & 0xFF) << (i << 3);
+        }
+        return v;
+    }
+
+    private void copyIn(long pos, byte[] src, int len) {
+        int i = index(pos);
+        int first = Math.min(len, capacity - i);
+        System.arraycopy(src, 0, ring, i, first);
+        if (first < len) {
+            System.arraycopy(src, first, ring, 0, len - first);
+        }
+    }
+
+    private void copyOut(long pos, byte[] dst, int len) {
+        int i = index(pos);
+        int first = Math.min(len, capacity - i);
+        System.arraycopy(ring, i, dst, 0, first);
+        if (first < len) {
+            System.arraycopy(ring, 0, dst, first, len - first);
+        }
+    }
+
+    /**
+     * 解码后的一条记录
+     */
+    private class Entry {
+        private final byte[] bytes;
+        private int pos;
+        private final long timestamp;
+        private final Level level;
+        private final String threadName;
+        private final String tid;
+        private final StackTraceElement[] callerData;
+        private final String message;
+
+        private Entry(byte[] bytes) {
+            this.bytes = bytes;
+            this.timestamp = readVarLong();
+            this.level = Level.toLevel(bytes[pos++] * 1000);
+            this.threadName = readString();
+            String t = readString();
+            this.tid = t.isEmpty() ? null : t;
+            byte caller = bytes[pos++];
+            if (caller == CALLER) {
+                String className = readString();
+                String methodName = readString();
+                int line = (int) (readVarLong() - 2);
+                this.callerData = new StackTraceElement[]{new StackTraceElement(className, methodName, null, line)};
+            } else {
+                this.callerData = caller == EMPTY_CALLER ? new StackTraceElement[0] : null;
+            }
+            this.message = readString();
+        }
+
+        private LoggingEvent toEvent() {
+            Logger logger = ((LoggerContext) getContext()).getLogger(loggerName);
+            LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+            event.setTimeStamp(timestamp);
+            event.setThreadName(threadName);
+            event.setMDCPropertyMap(tid == null ? Collections.<String, String>emptyMap() : Collections.singletonMap(MDC_TID, tid));
+            if (callerData != null) {
+                event.setCallerData(callerData);
+            }
+            return event;
+        }
+
+        private long readVarLong() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return v;
+                }
+            }
+        }
+
+        private String readString() {
+            int len = (int) readVarLong();
+            String s = new String(bytes, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+
+    private static class Scratch {
+        private ByteBuilder record = new ByteBuilder(256);
+        /**
+         * 异常事件的消息及堆栈，首次用到时创建
+         */
+        private ByteBuilder text;
+
+        private ByteBuilder text() {
+            if (text == null) {
+                text = new ByteBuilder(1024);
+            }
+            return text;
+        }
+
+        private void trim() {
+            if (record.array().length > MAX_SCRATCH_SIZE) {
+                record = new ByteBuilder(256);
+            }
+            if (text != null && text.array().length > MAX_SCRATCH_SIZE) {
+                text = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.yl.config.log.flight;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 所有logger飞行记录环共享的内存额度，环在首次记录时按固定大小申请，额度不足时该logger不记录
+ *
+ * @author suiwp
+ * @date 2026/10/17 23:10
+ */
+public class FlightRecorderPool {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public FlightRecorderPool(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 申请size字节的环
+     *
+     * @return 额度不足时返回null
+     */
+    byte[] allocate(int size) {
+        long used;
+        do {
+            used = usedBytes.get();
+            if (used + size > maxBytes) {
+                return null;
+            }
+        } while (!usedBytes.compareAndSet(used, used + size));
+        return new byte[size];
+    }
+
+    void release(int size) {
+        usedBytes.addAndGet(-size);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.yl.config.log.index;
+
+import java.io.File;
+
+/**
+ * 日志文件旁的索引文件：时间索引(.idx)及名称索引(.nidx)。
+ * 索引按未压缩的日志文件名存放，归档压缩为.gz后仍使用原索引，不压缩、不单独计入保留，随日志文件一起删除
+ *
+ * @author suiwp
+ * @date 2026/10/18 05:00
+ */
+public final class IndexFiles {
+    private static final String GZ_SUFFIX = ".gz";
+
+    private IndexFiles() {
+    }
+
+    /**
+     * 是否为索引文件
+     */
+    public static boolean isSidecar(String fileName) {
+        return fileName.endsWith(TimeIndexWriter.SUFFIX) || fileName.endsWith(NameIndexWriter.SUFFIX);
+    }
+
+    /**
+     * 日志文件(含.gz归档)的所有索引文件，不检查是否存在
+     */
+    public static File[] sidecarsOf(File logFile) {
+        File raw = uncompressed(logFile);
+        return new File[]{TimeIndexWriter.indexFile(raw), NameIndexWriter.indexFile(raw)};
+    }
+
+    /**
+     * .gz归档压缩前的文件，索引按该文件名存放；未压缩的文件原样返回
+     */
+    public static File uncompressed(File file) {
+        String path = file.getPath();
+        return path.endsWith(GZ_SUFFIX) ? new File(path.substring(0, path.length() - GZ_SUFFIX.length())) : file;
+    }
+}
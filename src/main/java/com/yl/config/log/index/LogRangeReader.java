@@ -0,0 +1,501 @@
+package com.yl.config.log.index;
+
+import ch.qos.logback.classic.Level;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 按时间范围读取单个动态logger的日志，包括活动文件collection.log及collection目录下的归档(含.gz)。
+ * <pre>
+ *     有索引(.idx)的文件只扫描与时间范围相交的块，没有索引的文件整体扫描
+ *     未压缩文件内存映射后扫描，.gz文件解压时跳过不需要的部分
+ *     多个文件并行扫描，结果按文件从旧到新、文件内按写入顺序排列
+ * </pre>
+ * 分片logger(logger目录下有shard-i子目录)读取所有分片及分片前的文件，结果按时间合并。
+ * <p>
+ * 只识别默认格式：每条记录以"yyyy-MM-dd HH:mm:ss.SSS 级别 [tid]"开头，之后不以时间开头的行属于同一条记录
+ * <pre>
+ * java com.yl.config.log.index.LogRangeReader ./logs/tenant_a "2026-10-18 10:00:00" "2026-10-18 10:05:00" [WARN] [tid]
+ * </pre>
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:10
+ */
+public class LogRangeReader {
+    private static final Pattern ARCHIVE_PATTERN = Pattern.compile("^\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log(\\.gz)?$");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss.SSS".length();
+    private static final String SHARD_DIR_PREFIX = "shard-";
+    private static final Pattern SHARD_DIR_PATTERN = Pattern.compile("^shard-\\d+$");
+    /**
+     * 按记录开头的时间比较，同一格式下字典序即时间顺序
+     */
+    private static final Comparator<String> TIMESTAMP_ORDER = (a, b) -> {
+        int n = Math.min(TIMESTAMP_LENGTH, Math.min(a.length(), b.length()));
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return 0;
+    };
+    /**
+     * 单次映射的最大长度
+     */
+    private static final long MAX_MAP_SIZE = 256L * 1024 * 1024;
+
+    private final File loggerDir;
+    private final ZoneId zone;
+    private Level minLevel;
+    private String tid;
+
+    /**
+     * @param loggerDir logBasePath下该logger的目录
+     */
+    public LogRangeReader(File loggerDir) {
+        this(loggerDir, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param loggerDir logBasePath下该logger的目录
+     * @param zone      写日志时的时区
+     */
+    public LogRangeReader(File loggerDir, ZoneId zone) {
+        this.loggerDir = loggerDir;
+        this.zone = zone;
+    }
+
+    /**
+     * 只返回不低于该级别的记录
+     */
+    public void setMinLevel(Level minLevel) {
+        this.minLevel = minLevel;
+    }
+
+    /**
+     * 只返回MDC tid等于该值的记录
+     */
+    public void setTid(String tid) {
+        this.tid = tid;
+    }
+
+    /**
+     * 读取[from, to)范围内的记录
+     *
+     * @param from 起始时间戳(含)
+     * @param to   结束时间戳(不含)
+     * @return 完整的记录文本，含换行
+     */
+    public List<String> read(long from, long to) throws IOException {
+        List<File> files = listFiles(from, to);
+        File[] shardDirs = listShardDirs();
+        for (File shardDir : shardDirs) {
+            files.addAll(new LogRangeReader(shardDir, zone).listFiles(from, to));
+        }
+        List<List<String>> parts;
+        try {
+            parts = files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return new FileScanner(from, to).scan(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (shardDirs.length == 0) {
+            List<String> records = new ArrayList<>();
+            parts.forEach(records::addAll);
+            return records;
+        }
+        return merge(parts);
+    }
+
+    /**
+     * 将多个分片的记录按时间合并，时间相同的记录保持传入的先后顺序。
+     * 每个分片内的记录基本有序，归并排序按已有的有序段合并，接近线性
+     *
+     * @param parts 各分片的记录，每条以"yyyy-MM-dd HH:mm:ss.SSS"开头
+     * @return 合并后的记录
+     */
+    public static List<String> merge(List<List<String>> parts) {
+        int size = 0;
+        for (List<String> part : parts) {
+            size += part.size();
+        }
+        String[] records = new String[size];
+        int i = 0;
+        for (List<String> part : parts) {
+            for (String record : part) {
+                records[i++] = record;
+            }
+        }
+        Arrays.sort(records, TIMESTAMP_ORDER);
+        return Arrays.asList(records);
+    }
+
+    /**
+     * 分片logger的各分片目录(shard-0, shard-1...)，按下标排序；未分片时为空
+     */
+    File[] listShardDirs() {
+        File[] dirs = loggerDir.listFiles(file -> file.isDirectory() && SHARD_DIR_PATTERN.matcher(file.getName()).matches());
+        if (dirs == null) {
+            return new File[0];
+        }
+        Arrays.sort(dirs, Comparator.comparingInt((File dir) -> Integer.parseInt(dir.getName().substring(SHARD_DIR_PREFIX.length()))));
+        return dirs;
+    }
+
+    /**
+     * 归档按日期、序号排序，活动文件在最后；归档日期与时间范围不相交的直接跳过
+     */
+    List<File> listFiles(long from, long to) {
+        List<File> files = new ArrayList<>();
+        File[] archives = new File(loggerDir, "collection").listFiles();
+        if (archives != null) {
+            List<Object[]> matched = new ArrayList<>();
+            for (File archive : archives) {
+                Matcher matcher = ARCHIVE_PATTERN.matcher(archive.getName());
+                if (!archive.isFile() || !matcher.matches()) {
+                    continue;
+                }
+                LocalDate date = LocalDate.parse(matcher.group(1), DATE_FORMATTER);
+                long dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+                long dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                if (dayEnd > from && dayStart < to) {
+                    matched.add(new Object[]{archive, date, Integer.parseInt(matcher.group(2))});
+                }
+            }
+            matched.sort(Comparator.comparing((Object[] a) -> (LocalDate) a[1]).thenComparingInt(a -> (Integer) a[2]));
+            for (Object[] a : matched) {
+                files.add((File) a[0]);
+            }
+        }
+        File active = new File(loggerDir, "collection.log");
+        if (active.isFile()) {
+            files.add(active);
+        }
+        return files;
+    }
+
+    /**
+     * 扫描单个文件，每个文件一个实例，不共享状态
+     */
+    private class FileScanner {
+        private final long from;
+        private final long to;
+        private final List<String> records = new ArrayList<>();
+        /**
+         * 缓存上一条记录"yyyy-MM-dd HH:mm"对应的毫秒数，同一分钟内的记录不再解析日期
+         */
+        private final byte[] minutePrefix = new byte[16];
+        private long minuteMillis = Long.MIN_VALUE;
+
+        private FileScanner(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private List<String> scan(File file) throws IOException {
+            boolean gzip = file.getName().endsWith(".gz");
+            File logFile = IndexFiles.uncompressed(file);
+            TimeIndex index = TimeIndex.load(TimeIndexWriter.indexFile(logFile));
+            if (gzip) {
+                scanGzip(file, index);
+            } else {
+                scanMapped(file, index);
+            }
+            return records;
+        }
+
+        private void scanMapped(File file, TimeIndex index) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long length = channel.size();
+                for (long[] region : index.regions(from, to, length)) {
+                    for (long start = region[0]; start < region[1]; ) {
+                        long end = Math.min(region[1], start + MAX_MAP_SIZE);
+                        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                        int consumed = scanRecords(buffer, end == region[1]);
+                        if (consumed == 0) {
+                            // 单条记录超过映射长度，按剩余部分一次映射
+                            end = region[1];
+                            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                            consumed = scanRecords(buffer, true);
+                        }
+                        start += consumed;
+                    }
+                }
+            }
+        }
+
+        private void scanGzip(File file, TimeIndex index) throws IOException {
+            // 解压后的长度未知，索引未覆盖的尾部一直读到文件结束
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024), 64 * 1024)) {
+                long position = 0;
+                for (long[] region : index.regions(from, to, Long.MAX_VALUE)) {
+                    position += skipFully(in, region[0] - position);
+                    if (position < region[0]) {
+                        return;
+                    }
+                    byte[] bytes = readUpTo(in, region[1] - region[0]);
+                    position += bytes.length;
+                    scanRecords(ByteBuffer.wrap(bytes), true);
+                }
+            }
+        }
+
+        /**
+         * 扫描缓冲区中的完整记录
+         *
+         * @param last 缓冲区是否到达区间末尾，末尾不完整的记录也处理
+         * @return 处理到的位置，之后为不完整的记录
+         */
+        private int scanRecords(ByteBuffer buffer, boolean last) {
+            int limit = buffer.limit();
+            int recordStart = -1;
+            int lineStart = 0;
+            while (lineStart < limit) {
+                if (isRecordStart(buffer, lineStart, limit)) {
+                    if (recordStart >= 0) {
+                        accept(buffer, recordStart, lineStart);
+                    }
+                    recordStart = lineStart;
+                }
+                int lineEnd = indexOf(buffer, (byte) '\n', lineStart, limit);
+                if (lineEnd < 0) {
+                    if (!last) {
+                        return recordStart >= 0 ? recordStart : lineStart;
+                    }
+                    lineStart = limit;
+                    break;
+                }
+                lineStart = lineEnd + 1;
+            }
+            if (recordStart >= 0) {
+                if (!last) {
+                    return recordStart;
+                }
+                accept(buffer, recordStart, limit);
+            }
+            return limit;
+        }
+
+        private void accept(ByteBuffer buffer, int start, int end) {
+            long timestamp = parseTimestamp(buffer, start);
+            if (timestamp < from || timestamp >= to) {
+                return;
+            }
+            int levelStart = start + TIMESTAMP_LENGTH + 1;
+            int levelEnd = indexOf(buffer, (byte) ' ', levelStart, end);
+            if (levelEnd < 0) {
+                return;
+            }
+            if (minLevel != null) {
+                Level level = Level.toLevel(ascii(buffer, levelStart, levelEnd), null);
+                if (level == null || !level.isGreaterOrEqual(minLevel)) {
+                    return;
+                }
+            }
+            if (tid != null && !tidMatches(buffer, levelEnd, end)) {
+                return;
+            }
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            records.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 级别后补齐的空格之后第一个[...]为tid
+         */
+        private boolean tidMatches(ByteBuffer buffer, int from, int end) {
+            int open = indexOf(buffer, (byte) '[', from, end);
+            if (open < 0) {
+                return false;
+            }
+            int close = indexOf(buffer, (byte) ']', open + 1, end);
+            if (close < 0 || close - open - 1 != tid.length()) {
+                return false;
+            }
+            for (int i = 0; i < tid.length(); i++) {
+                if (buffer.get(open + 1 + i) != tid.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isRecordStart(ByteBuffer buffer, int start, int limit) {
+            if (limit - start < TIMESTAMP_LENGTH + 1) {
+                return false;
+            }
+            // yyyy-MM-dd HH:mm:ss.SSS
+            for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+                byte b = buffer.get(start + i);
+                boolean ok;
+                switch (i) {
+                    case 4:
+                    case 7:
+                        ok = b == '-';
+                        break;
+                    case 10:
+                        ok = b == ' ';
+                        break;
+                    case 13:
+                    case 16:
+                        ok = b == ':';
+                        break;
+                    case 19:
+                        ok = b == '.' || b == ',';
+                        break;
+                    default:
+                        ok = b >= '0' && b <= '9';
+                }
+                if (!ok) {
+                    return false;
+                }
+            }
+            return buffer.get(start + TIMESTAMP_LENGTH) == ' ';
+        }
+
+        private long parseTimestamp(ByteBuffer buffer, int start) {
+            boolean sameMinute = minuteMillis != Long.MIN_VALUE;
+            for (int i = 0; i < minutePrefix.length && sameMinute; i++) {
+                sameMinute = minutePrefix[i] == buffer.get(start + i);
+            }
+            if (!sameMinute) {
+                for (int i = 0; i < minutePrefix.length; i++) {
+                    minutePrefix[i] = buffer.get(start + i);
+                }
+                minuteMillis = LocalDateTime.of(digits(buffer, start, 4), digits(buffer, start + 5, 2), digits(buffer, start + 8, 2),
+                        digits(buffer, start + 11, 2), digits(buffer, start + 14, 2)).atZone(zone).toInstant().toEpochMilli();
+            }
+            return minuteMillis + digits(buffer, start + 17, 2) * 1000L + digits(buffer, start + 20, 3);
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            value = value * 10 + (buffer.get(start + i) - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte target, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) buffer.get(start + i);
+        }
+        return new String(chars);
+    }
+
+    static long skipFully(InputStream in, long count) throws IOException {
+        long skipped = 0;
+        byte[] discard = null;
+        while (skipped < count) {
+            long n = in.skip(count - skipped);
+            if (n <= 0) {
+                // GZIPInputStream到末尾时skip返回0，用read确认
+                if (discard == null) {
+                    discard = new byte[8192];
+                }
+                int read = in.read(discard, 0, (int) Math.min(discard.length, count - skipped));
+                if (read < 0) {
+                    break;
+                }
+                n = read;
+            }
+            skipped += n;
+        }
+        return skipped;
+    }
+
+    static byte[] readUpTo(InputStream in, long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 1024 * 1024));
+        byte[] chunk = new byte[64 * 1024];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            if (buffer.remaining() < read) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + read));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            buffer.put(chunk, 0, read);
+            remaining -= read;
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 命令行：LogRangeReader 日志目录 起始时间 结束时间 [最低级别] [tid]，时间格式yyyy-MM-dd HH:mm:ss[.SSS]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: LogRangeReader <loggerDir> <from> <to> [level] [tid]");
+            System.exit(1);
+        }
+        LogRangeReader reader = new LogRangeReader(new File(args[0]));
+        if (args.length > 3 && !args[3].isEmpty()) {
+            reader.setMinLevel(Level.toLevel(args[3]));
+        }
+        if (args.length > 4) {
+            reader.setTid(args[4]);
+        }
+        PrintStream out = new PrintStream(System.out, false, "UTF-8");
+        for (String record : reader.read(parseTime(args[1], reader.zone), parseTime(args[2], reader.zone))) {
+            out.print(record);
+        }
+        out.flush();
+    }
+
+    static long parseTime(String text, ZoneId zone) {
+        String pattern = text.length() > 19 ? "yyyy-MM-dd HH:mm:ss.SSS" : "yyyy-MM-dd HH:mm:ss";
+        return LocalDateTime.parse(text, DateTimeFormatter.ofPattern(pattern)).atZone(zone).toInstant().toEpochMilli();
+    }
+}
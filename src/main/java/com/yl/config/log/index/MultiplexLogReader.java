@@ -0,0 +1,206 @@
+package com.yl.config.log.index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 从多个logger共用的日志文件中读取单个logger的记录，包括活动文件及collection目录下的归档(含.gz)。
+ * 只读取名称索引(.nidx)，按索引中的偏移及长度直接取出该logger的记录，不扫描其他logger的数据；没有名称索引的文件跳过
+ * <pre>
+ * java com.yl.config.log.index.MultiplexLogReader ./logs/_shared tenant_a ["2026-10-18 10:00:00" "2026-10-18 10:05:00"]
+ * </pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 01:35
+ */
+public class MultiplexLogReader {
+    private final File fileDir;
+    private final ZoneId zone;
+
+    /**
+     * @param fileDir logBasePath下共用文件的目录
+     */
+    public MultiplexLogReader(File fileDir) {
+        this(fileDir, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param fileDir logBasePath下共用文件的目录
+     * @param zone    写日志时的时区，用于按日期跳过归档
+     */
+    public MultiplexLogReader(File fileDir, ZoneId zone) {
+        this.fileDir = fileDir;
+        this.zone = zone;
+    }
+
+    /**
+     * 读取该logger的全部记录
+     */
+    public List<String> read(String loggerName) throws IOException {
+        return read(loggerName, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取该logger在[from, to)范围内的记录
+     *
+     * @param loggerName logger名
+     * @param from       起始时间戳(含)
+     * @param to         结束时间戳(不含)
+     * @return 完整的记录文本，按文件从旧到新、文件内按写入顺序排列
+     */
+    public List<String> read(String loggerName, long from, long to) throws IOException {
+        List<File> files = new LogRangeReader(fileDir, zone).listFiles(from, to);
+        try {
+            return files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return readFile(file, loggerName, from, to);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<String> readFile(File file, String loggerName, long from, long to) throws IOException {
+        boolean gzip = file.getName().endsWith(".gz");
+        File logFile = IndexFiles.uncompressed(file);
+        List<long[]> entries = loadEntries(NameIndexWriter.indexFile(logFile), loggerName, from, to);
+        List<String> records = new ArrayList<>(entries.size());
+        if (entries.isEmpty()) {
+            return records;
+        }
+        if (gzip) {
+            try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024), 64 * 1024)) {
+                long position = 0;
+                for (long[] entry : entries) {
+                    position += LogRangeReader.skipFully(in, entry[0] - position);
+                    byte[] bytes = LogRangeReader.readUpTo(in, entry[1]);
+                    position += bytes.length;
+                    if (bytes.length < entry[1]) {
+                        break;
+                    }
+                    records.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            for (long[] entry : entries) {
+                if (entry[0] + entry[1] > length) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) entry[1]);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, entry[0] + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                records.add(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 读取名称索引中该logger在时间范围内的记录位置
+     *
+     * @return 按偏移排序，每个为{offset, length}
+     */
+    static List<long[]> loadEntries(File indexFile, String loggerName, long from, long to) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        if (!indexFile.isFile()) {
+            return entries;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 64 * 1024))) {
+            // 当前会话中目标logger的编号，未出现时为-1
+            long targetId = -1;
+            long nextId = 0;
+            long lastEnd = 0;
+            long lastTimestamp = 0;
+            while (true) {
+                byte tag = in.readByte();
+                if (tag == NameIndexWriter.SESSION) {
+                    lastEnd = readVarLong(in);
+                    lastTimestamp = 0;
+                    targetId = -1;
+                    nextId = 0;
+                } else if (tag == NameIndexWriter.NAME) {
+                    byte[] name = new byte[(int) readVarLong(in)];
+                    in.readFully(name);
+                    if (targetId < 0 && loggerName.equals(new String(name, StandardCharsets.UTF_8))) {
+                        targetId = nextId;
+                    }
+                    nextId++;
+                } else if (tag == NameIndexWriter.RECORD) {
+                    long id = readVarLong(in);
+                    long offset = lastEnd + readVarLong(in);
+                    long length = readVarLong(in);
+                    long delta = readVarLong(in);
+                    long timestamp = lastTimestamp + ((delta >>> 1) ^ -(delta & 1));
+                    lastEnd = offset + length;
+                    lastTimestamp = timestamp;
+                    if (id == targetId && timestamp >= from && timestamp < to) {
+                        entries.add(new long[]{offset, length});
+                    }
+                } else {
+                    throw new IOException("bad name index: " + indexFile);
+                }
+            }
+        } catch (EOFException e) {
+            // 读到末尾，写入中断的半条索引被忽略
+        }
+        return entries;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+    }
+
+    /**
+     * 命令行：MultiplexLogReader 共用文件目录 logger名 [起始时间 结束时间]，时间格式yyyy-MM-dd HH:mm:ss[.SSS]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("usage: MultiplexLogReader <fileDir> <loggerName> [<from> <to>]");
+            System.exit(1);
+        }
+        MultiplexLogReader reader = new MultiplexLogReader(new File(args[0]));
+        List<String> records = args.length == 2
+                ? reader.read(args[1])
+                : reader.read(args[1], LogRangeReader.parseTime(args[2], reader.zone), LogRangeReader.parseTime(args[3], reader.zone));
+        PrintStream out = new PrintStream(System.out, false, "UTF-8");
+        for (String record : records) {
+            out.print(record);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,92 @@
+package com.yl.config.log.index;
+
+import com.yl.config.log.encoder.ByteBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 多个logger共用一个日志文件时的名称索引，写在日志文件旁的"文件名.nidx"，记录每条事件的位置及所属logger。
+ * <pre>
+ *     SESSION varint(起始偏移)                                   每次打开文件时写入，名称编号从0重新开始
+ *     NAME    varint(长度) utf8(logger名)                         名称首次出现时写入，编号按出现顺序递增
+ *     RECORD  varint(编号) varint(与上一条结束位置的间隔) varint(长度) zigzag(与上一条的时间差)
+ * </pre>
+ * 每条事件约5字节，索引在日志数据落盘后追加，只会指向已写入的数据
+ *
+ * @author suiwp
+ * @date 2026/10/18 01:20
+ */
+public class NameIndexWriter {
+    public static final String SUFFIX = ".nidx";
+
+    static final byte SESSION = 0;
+    static final byte NAME = 1;
+    static final byte RECORD = 2;
+
+    private final FileOutputStream out;
+    private final ByteBuilder pending = new ByteBuilder(4096);
+    private final Map<String, Integer> ids = new HashMap<>();
+    private long lastEnd;
+    private long lastTimestamp;
+
+    /**
+     * @param logFile  日志文件
+     * @param fileSize 日志文件当前大小
+     */
+    public NameIndexWriter(File logFile, long fileSize) throws IOException {
+        this.out = new FileOutputStream(indexFile(logFile), true);
+        this.lastEnd = fileSize;
+        pending.append(SESSION).appendVarLong(fileSize);
+    }
+
+    public static File indexFile(File logFile) {
+        return new File(logFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * 在事件写入缓冲区时调用
+     *
+     * @param offset     事件在日志文件中的起始偏移
+     * @param length     事件长度
+     * @param loggerName 事件所属logger
+     * @param timestamp  事件时间戳
+     */
+    public void onEvent(long offset, int length, String loggerName, long timestamp) {
+        Integer id = ids.get(loggerName);
+        if (id == null) {
+            id = ids.size();
+            ids.put(loggerName, id);
+            pending.append(NAME).appendVarLong(ByteBuilder.utf8Length(loggerName)).appendUtf8(loggerName);
+        }
+        long delta = timestamp - lastTimestamp;
+        pending.append(RECORD)
+                .appendVarLong(id)
+                .appendVarLong(offset - lastEnd)
+                .appendVarLong(length)
+                .appendVarLong((delta << 1) ^ (delta >> 63));
+        lastEnd = offset + length;
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * 日志数据落盘后调用，追加之前事件的索引
+     */
+    public void flush() throws IOException {
+        if (pending.length() > 0) {
+            out.write(pending.array(), 0, pending.length());
+            pending.reset();
+        }
+    }
+
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.yl.config.log.index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link TimeIndexWriter}写出的索引，计算时间范围需要扫描的文件区间
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:00
+ */
+public class TimeIndex {
+    private final List<Block> blocks;
+
+    private TimeIndex(List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * 加载日志文件的索引，不存在时返回空索引
+     */
+    public static TimeIndex load(File indexFile) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        if (indexFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                while (true) {
+                    blocks.add(new Block(in.readLong(), in.readLong(), in.readLong(), in.readLong()));
+                }
+            } catch (EOFException e) {
+                // 读到末尾，写入中断的半条索引被忽略
+            }
+        }
+        blocks.sort((a, b) -> Long.compare(a.start, b.start));
+        return new TimeIndex(blocks);
+    }
+
+    /**
+     * 计算[from, to)范围需要扫描的区间：与范围相交的块，以及索引未覆盖的部分(如进程重启前未写完的块)，相邻区间合并
+     *
+     * @param fileLength 日志文件长度
+     * @return 按偏移排序的区间，每个为{start, end}
+     */
+    public List<long[]> regions(long from, long to, long fileLength) {
+        if (blocks.isEmpty()) {
+            return fileLength > 0 ? Collections.singletonList(new long[]{0, fileLength}) : Collections.emptyList();
+        }
+        List<long[]> regions = new ArrayList<>();
+        long covered = 0;
+        for (Block block : blocks) {
+            if (block.start >= fileLength) {
+                break;
+            }
+            if (block.start > covered) {
+                add(regions, covered, block.start);
+            }
+            if (block.maxTimestamp >= from && block.minTimestamp < to) {
+                add(regions, block.start, Math.min(block.end, fileLength));
+            }
+            covered = Math.max(covered, block.end);
+        }
+        if (covered < fileLength) {
+            add(regions, covered, fileLength);
+        }
+        return regions;
+    }
+
+    private static void add(List<long[]> regions, long start, long end) {
+        if (!regions.isEmpty()) {
+            long[] last = regions.get(regions.size() - 1);
+            if (last[1] >= start) {
+                last[1] = Math.max(last[1], end);
+                return;
+            }
+        }
+        regions.add(new long[]{start, end});
+    }
+
+    public int size() {
+        return blocks.size();
+    }
+
+    private static class Block {
+        private final long start;
+        private final long end;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+
+        private Block(long start, long end, long minTimestamp, long maxTimestamp) {
+            this.start = start;
+            this.end = end;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.yl.config.log.index;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 日志文件的稀疏时间索引，写在日志文件旁的"文件名.idx"。
+ * <pre>
+ *     每个块覆盖日志文件中一段连续的完整事件，块的大小约为interval字节
+ *     每条索引32字节：块起始偏移、块结束偏移、块内最小时间戳、块内最大时间戳
+ * </pre>
+ * 多线程写入的事件时间戳不是严格递增的，按块记录最小最大值，查询时与时间范围相交的块都要扫描。
+ * 使用FileOutputStream而不是FileChannel，写入线程被中断时不会关闭文件
+ *
+ * @author suiwp
+ * @date 2026/10/17 21:50
+ */
+public class TimeIndexWriter {
+    public static final String SUFFIX = ".idx";
+    public static final long DEFAULT_INTERVAL = 64 * 1024;
+
+    private final long interval;
+    private final DataOutputStream out;
+    private long blockStart = -1;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    /**
+     * @param logFile  日志文件
+     * @param interval 块大小
+     */
+    public TimeIndexWriter(File logFile, long interval) throws IOException {
+        this.interval = interval;
+        this.out = new DataOutputStream(new FileOutputStream(indexFile(logFile), true));
+    }
+
+    public static File indexFile(File logFile) {
+        return new File(logFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * 在事件写入前调用
+     *
+     * @param offset    事件在日志文件中的起始偏移
+     * @param timestamp 事件时间戳
+     */
+    public void onEvent(long offset, long timestamp) throws IOException {
+        if (blockStart >= 0 && offset - blockStart >= interval) {
+            writeBlock(offset);
+        }
+        if (blockStart < 0) {
+            blockStart = offset;
+            minTimestamp = timestamp;
+            maxTimestamp = timestamp;
+            return;
+        }
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        } else if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * 写出最后一个块并关闭
+     *
+     * @param endOffset 日志文件的结束偏移
+     */
+    public void close(long endOffset) throws IOException {
+        try {
+            if (blockStart >= 0 && endOffset > blockStart) {
+                writeBlock(endOffset);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock(long endOffset) throws IOException {
+        out.writeLong(blockStart);
+        out.writeLong(endOffset);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        // 每块只写一次，直接落到文件，进程异常退出时已关闭的块不丢失
+        out.flush();
+        blockStart = -1;
+    }
+}
@@ -0,0 +1,265 @@
+package com.yl.config.log.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.yl.config.log.async.BoundedQueue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个动态logger的运行指标。
+ * <pre>
+ *     记录路径只有LongAdder累加及直方图桶计数，不加锁
+ *     队列深度、高水位及每秒事件数由后台线程定时{@link #sample()}，不在日志路径上读取队列
+ * </pre>
+ * 配置重载后继续使用同一个实例，指标跨重载累计
+ *
+ * @author suiwp
+ * @date 2026/10/17 21:10
+ */
+public class LoggerMetrics implements LoggerMetricsMXBean {
+    private final String logFileName;
+
+    private final LongAdder traceCount = new LongAdder();
+    private final LongAdder debugCount = new LongAdder();
+    private final LongAdder infoCount = new LongAdder();
+    private final LongAdder warnCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder consoleDroppedCount = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder rolloverCount = new LongAdder();
+    private final LongAdder rolloverNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile BoundedQueue queue;
+    /**
+     * 以下字段只由采样线程写入
+     */
+    private volatile int queueDepth;
+    private volatile int queueHighWaterMark;
+    private volatile double eventsPerSecond;
+    private long lastEventCount;
+    private long lastRateTime = System.nanoTime();
+
+    public LoggerMetrics(String logFileName) {
+        this.logFileName = logFileName;
+    }
+
+    public void recordEvent(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                errorCount.increment();
+                break;
+            case Level.WARN_INT:
+                warnCount.increment();
+                break;
+            case Level.INFO_INT:
+                infoCount.increment();
+                break;
+            case Level.DEBUG_INT:
+                debugCount.increment();
+                break;
+            default:
+                traceCount.increment();
+        }
+    }
+
+    public void recordBlocked(long nanos) {
+        blockedNanos.add(nanos);
+    }
+
+    public void recordDropped() {
+        droppedCount.increment();
+    }
+
+    public void recordSpilled() {
+        spilledCount.increment();
+    }
+
+    public void recordConsoleDropped() {
+        consoleDroppedCount.increment();
+    }
+
+    /**
+     * 事件编码后立即写入文件时调用，记录字节数及从事件产生到写入的延迟
+     */
+    public void recordWrite(ILoggingEvent event, int bytes) {
+        recordBytes(bytes);
+        recordLatency(event.getTimeStamp(), System.currentTimeMillis());
+    }
+
+    /**
+     * 事件进入写缓冲时调用，延迟在落盘后通过{@link #recordLatency}记录
+     */
+    public void recordBytes(int bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * @param eventTimeStamp 事件时间戳
+     * @param writtenMillis  写入文件的时间
+     */
+    public void recordLatency(long eventTimeStamp, long writtenMillis) {
+        latency.record(writtenMillis - eventTimeStamp);
+    }
+
+    public void recordRollover(long nanos) {
+        rolloverCount.increment();
+        rolloverNanos.add(nanos);
+    }
+
+    /**
+     * 当前的异步队列，配置重载后替换
+     */
+    public void setQueue(BoundedQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * 采样队列深度，约每秒计算一次每秒事件数，由后台线程定时调用
+     */
+    public void sample() {
+        BoundedQueue current = queue;
+        if (current != null) {
+            int depth = Math.max(0, current.getQueueSize() - current.getRemainingCapacity());
+            queueDepth = depth;
+            if (depth > queueHighWaterMark) {
+                queueHighWaterMark = depth;
+            }
+        }
+        long now = System.nanoTime();
+        long elapsed = now - lastRateTime;
+        if (elapsed >= 1_000_000_000L) {
+            long total = getEventCount();
+            eventsPerSecond = (total - lastEventCount) * 1e9 / elapsed;
+            lastEventCount = total;
+            lastRateTime = now;
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(this);
+    }
+
+    public long getEventCount() {
+        return traceCount.sum() + debugCount.sum() + infoCount.sum() + warnCount.sum() + errorCount.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getLogFileName() {
+        return logFileName;
+    }
+
+    @Override
+    public long getTraceCount() {
+        return traceCount.sum();
+    }
+
+    @Override
+    public long getDebugCount() {
+        return debugCount.sum();
+    }
+
+    @Override
+    public long getInfoCount() {
+        return infoCount.sum();
+    }
+
+    @Override
+    public long getWarnCount() {
+        return warnCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        BoundedQueue current = queue;
+        return current == null ? 0 : current.getQueueSize();
+    }
+
+    @Override
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark;
+    }
+
+    @Override
+    public long getBlockedMillis() {
+        return blockedNanos.sum() / 1_000_000L;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    @Override
+    public long getConsoleDroppedCount() {
+        return consoleDroppedCount.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getRolloverCount() {
+        return rolloverCount.sum();
+    }
+
+    @Override
+    public long getRolloverMillis() {
+        return rolloverNanos.sum() / 1_000_000L;
+    }
+
+    @Override
+    public long getLatencyP50Millis() {
+        return latency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Millis() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyP999Millis() {
+        return latency.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getLatencyMaxMillis() {
+        return latency.getMax();
+    }
+
+    @Override
+    public void resetQueueHighWaterMark() {
+        queueHighWaterMark = queueDepth;
+    }
+}
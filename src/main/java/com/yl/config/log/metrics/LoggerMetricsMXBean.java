@@ -0,0 +1,66 @@
+package com.yl.config.log.metrics;
+
+/**
+ * 单个动态logger的JMX视图，ObjectName为 com.yl.config.log:type=DynamicLogger,name="日志文件名"
+ *
+ * @author suiwp
+ * @date 2026/10/17 21:05
+ */
+public interface LoggerMetricsMXBean {
+
+    String getLogFileName();
+
+    long getTraceCount();
+
+    long getDebugCount();
+
+    long getInfoCount();
+
+    long getWarnCount();
+
+    long getErrorCount();
+
+    /**
+     * 最近一秒的事件数
+     */
+    double getEventsPerSecond();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    int getQueueHighWaterMark();
+
+    /**
+     * 调用线程因队列满等待的累计时间
+     */
+    long getBlockedMillis();
+
+    long getDroppedCount();
+
+    long getSpilledCount();
+
+    /**
+     * 控制台因队列满、限流或采样未输出的事件数
+     */
+    long getConsoleDroppedCount();
+
+    long getBytesWritten();
+
+    long getRolloverCount();
+
+    long getRolloverMillis();
+
+    /**
+     * 事件产生到写入文件(批量写入时为落盘)的延迟，单位毫秒，与事件时间戳的精度一致
+     */
+    long getLatencyP50Millis();
+
+    long getLatencyP99Millis();
+
+    long getLatencyP999Millis();
+
+    long getLatencyMaxMillis();
+
+    void resetQueueHighWaterMark();
+}
@@ -0,0 +1,161 @@
+package com.yl.config.log.metrics;
+
+/**
+ * {@link LoggerMetrics}某一时刻的只读快照，各项分别读取，彼此之间不保证严格一致
+ *
+ * @author suiwp
+ * @date 2026/10/17 21:20
+ */
+public class MetricsSnapshot {
+    private final String logFileName;
+    private final long timestamp;
+    private final long traceCount;
+    private final long debugCount;
+    private final long infoCount;
+    private final long warnCount;
+    private final long errorCount;
+    private final double eventsPerSecond;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final int queueHighWaterMark;
+    private final long blockedMillis;
+    private final long droppedCount;
+    private final long spilledCount;
+    private final long consoleDroppedCount;
+    private final long bytesWritten;
+    private final long rolloverCount;
+    private final long rolloverMillis;
+    private final long latencyCount;
+    private final long latencyP50Millis;
+    private final long latencyP99Millis;
+    private final long latencyP999Millis;
+    private final long latencyMaxMillis;
+
+    MetricsSnapshot(LoggerMetrics metrics) {
+        this.logFileName = metrics.getLogFileName();
+        this.timestamp = System.currentTimeMillis();
+        this.traceCount = metrics.getTraceCount();
+        this.debugCount = metrics.getDebugCount();
+        this.infoCount = metrics.getInfoCount();
+        this.warnCount = metrics.getWarnCount();
+        this.errorCount = metrics.getErrorCount();
+        this.eventsPerSecond = metrics.getEventsPerSecond();
+        this.queueDepth = metrics.getQueueDepth();
+        this.queueCapacity = metrics.getQueueCapacity();
+        this.queueHighWaterMark = metrics.getQueueHighWaterMark();
+        this.blockedMillis = metrics.getBlockedMillis();
+        this.droppedCount = metrics.getDroppedCount();
+        this.spilledCount = metrics.getSpilledCount();
+        this.consoleDroppedCount = metrics.getConsoleDroppedCount();
+        this.bytesWritten = metrics.getBytesWritten();
+        this.rolloverCount = metrics.getRolloverCount();
+        this.rolloverMillis = metrics.getRolloverMillis();
+        this.latencyCount = metrics.getLatency().getTotalCount();
+        this.latencyP50Millis = metrics.getLatencyP50Millis();
+        this.latencyP99Millis = metrics.getLatencyP99Millis();
+        this.latencyP999Millis = metrics.getLatencyP999Millis();
+        this.latencyMaxMillis = metrics.getLatencyMaxMillis();
+    }
+
+    public String getLogFileName() {
+        return logFileName;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getTraceCount() {
+        return traceCount;
+    }
+
+    public long getDebugCount() {
+        return debugCount;
+    }
+
+    public long getInfoCount() {
+        return infoCount;
+    }
+
+    public long getWarnCount() {
+        return warnCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark;
+    }
+
+    public long getBlockedMillis() {
+        return blockedMillis;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getSpilledCount() {
+        return spilledCount;
+    }
+
+    public long getConsoleDroppedCount() {
+        return consoleDroppedCount;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getRolloverCount() {
+        return rolloverCount;
+    }
+
+    public long getRolloverMillis() {
+        return rolloverMillis;
+    }
+
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+
+    public long getLatencyP50Millis() {
+        return latencyP50Millis;
+    }
+
+    public long getLatencyP99Millis() {
+        return latencyP99Millis;
+    }
+
+    public long getLatencyP999Millis() {
+        return latencyP999Millis;
+    }
+
+    public long getLatencyMaxMillis() {
+        return latencyMaxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: events=%d(%.1f/s, error=%d, warn=%d) queue=%d/%d(hwm %d) blocked=%dms dropped=%d spilled=%d "
+                        + "consoleDropped=%d bytes=%d rollover=%d(%dms) latency p50=%dms p99=%dms p99.9=%dms max=%dms",
+                logFileName, traceCount + debugCount + infoCount + warnCount + errorCount, eventsPerSecond, errorCount, warnCount,
+                queueDepth, queueCapacity, queueHighWaterMark, blockedMillis, droppedCount, spilledCount,
+                consoleDroppedCount, bytesWritten, rolloverCount, rolloverMillis,
+                latencyP50Millis, latencyP99Millis, latencyP999Millis, latencyMaxMillis);
+    }
+}
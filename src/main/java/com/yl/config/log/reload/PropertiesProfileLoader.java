@@ -0,0 +1,216 @@
+package com.yl.config.log.reload;
+
+import ch.qos.logback.classic.Level;
+import com.yl.config.log.ConsoleMode;
+import com.yl.config.log.FileSinkMode;
+import com.yl.config.log.LocationMode;
+import com.yl.config.log.LogEncoding;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.LogProfiles;
+import com.yl.config.log.async.BackpressurePolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从properties文件加载{@link LogProfiles}，未配置的项继承default
+ * <pre>
+ * default.queueSize=1024
+ * default.console=ASYNC
+ * prefix.audit_.queueSize=8192
+ * prefix.audit_.maxFileSize=200MB
+ * name.tenant_a.backpressure=dropBelow:WARN
+ * name.tenant_a.consoleLimit=100:0.1:WARN
+ * </pre>
+ * 支持的项：backpressure(block | block:毫秒 | dropBelow:级别 | sample:级别:比例 | spill)、fileSink、lingerMillis、
+ * bufferSize(如64KB)、encoding、location(模式 | 模式:级别)、console、consoleLimit(每秒条数:比例:级别)、queueSize、maxFileSize、
+ * maxHistory、totalSizeCap、pattern、timeIndex、flightRecorder(级别:大小 | 级别:大小:tid)、shards、multiplex(共用文件名)。
+ * <p>
+ * 同一个loader多次加载时，配置项未变的规则返回同一个{@link LogProfile}实例，重载时据此跳过未变化的logger
+ *
+ * @author suiwp
+ * @date 2026/10/17 20:10
+ */
+public class PropertiesProfileLoader {
+    private static final String DEFAULT_KEY = "default.";
+    private static final String NAME_KEY = "name.";
+    private static final String PREFIX_KEY = "prefix.";
+
+    /**
+     * 上次加载的结果，key为规则合并default后的全部配置项
+     */
+    private Map<Map<String, String>, LogProfile> lastProfiles = new HashMap<>();
+
+    public synchronized LogProfiles load(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath());
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return load(properties);
+        }
+    }
+
+    public synchronized LogProfiles load(Properties properties) {
+        Map<String, String> defaults = new TreeMap<>();
+        Map<String, Map<String, String>> names = new LinkedHashMap<>();
+        Map<String, Map<String, String>> prefixes = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith(DEFAULT_KEY)) {
+                defaults.put(key.substring(DEFAULT_KEY.length()), value);
+            } else if (key.startsWith(NAME_KEY)) {
+                putRule(names, key, NAME_KEY.length(), value);
+            } else if (key.startsWith(PREFIX_KEY)) {
+                putRule(prefixes, key, PREFIX_KEY.length(), value);
+            } else {
+                throw new IllegalArgumentException("unknown log profile key: " + key);
+            }
+        }
+        Map<Map<String, String>, LogProfile> profiles = new HashMap<>();
+        LogProfiles.Builder builder = LogProfiles.builder().defaultProfile(profile(defaults, profiles));
+        for (Map.Entry<String, Map<String, String>> entry : names.entrySet()) {
+            builder.exact(entry.getKey(), profile(merge(defaults, entry.getValue()), profiles));
+        }
+        for (Map.Entry<String, Map<String, String>> entry : prefixes.entrySet()) {
+            builder.prefix(entry.getKey(), profile(merge(defaults, entry.getValue()), profiles));
+        }
+        lastProfiles = profiles;
+        return builder.build();
+    }
+
+    /**
+     * name.a.b.queueSize中名称为a.b，最后一段为配置项
+     */
+    private static void putRule(Map<String, Map<String, String>> rules, String key, int start, String value) {
+        int dot = key.lastIndexOf('.');
+        if (dot <= start) {
+            throw new IllegalArgumentException("invalid log profile key: " + key);
+        }
+        rules.computeIfAbsent(key.substring(start, dot), k -> new TreeMap<>()).put(key.substring(dot + 1), value);
+    }
+
+    private static Map<String, String> merge(Map<String, String> defaults, Map<String, String> rule) {
+        Map<String, String> merged = new TreeMap<>(defaults);
+        merged.putAll(rule);
+        return merged;
+    }
+
+    private LogProfile profile(Map<String, String> items, Map<Map<String, String>, LogProfile> profiles) {
+        LogProfile profile = profiles.get(items);
+        if (profile == null) {
+            profile = lastProfiles.get(items);
+            if (profile == null) {
+                profile = build(items);
+            }
+            profiles.put(items, profile);
+        }
+        return profile;
+    }
+
+    private static LogProfile build(Map<String, String> items) {
+        LogProfile.Builder builder = LogProfile.builder();
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            try {
+                apply(builder, item.getKey(), item.getValue());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid log profile item " + item.getKey() + "=" + item.getValue(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void apply(LogProfile.Builder builder, String key, String value) {
+        String[] parts = value.split(":");
+        switch (key) {
+            case "backpressure":
+                builder.backpressure(backpressure(parts));
+                break;
+            case "fileSink":
+                builder.fileSink(FileSinkMode.valueOf(value));
+                break;
+            case "lingerMillis":
+                builder.lingerMillis(Long.parseLong(value));
+                break;
+            case "bufferSize":
+                builder.bufferSize(value);
+                break;
+            case "encoding":
+                builder.encoding(LogEncoding.valueOf(value));
+                break;
+            case "location":
+                builder.location(LocationMode.valueOf(parts[0]), parts.length > 1 ? level(parts[1]) : Level.ALL);
+                break;
+            case "console":
+                builder.console(ConsoleMode.valueOf(value));
+                break;
+            case "consoleLimit":
+                builder.consoleLimit(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]), level(parts[2]));
+                break;
+            case "queueSize":
+                builder.queueSize(Integer.parseInt(value));
+                break;
+            case "maxFileSize":
+                builder.maxFileSize(value);
+                break;
+            case "maxHistory":
+                builder.maxHistory(Integer.parseInt(value));
+                break;
+            case "totalSizeCap":
+                builder.totalSizeCap(value);
+                break;
+            case "pattern":
+                builder.pattern(value);
+                break;
+            case "timeIndex":
+                builder.timeIndex(Boolean.parseBoolean(value));
+                break;
+            case "flightRecorder":
+                builder.flightRecorder(level(parts[0]), parts[1], parts.length > 2 && "tid".equals(parts[2]));
+                break;
+            case "shards":
+                builder.shards(Integer.parseInt(value));
+                break;
+            case "multiplex":
+                builder.multiplex(value);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown item");
+        }
+    }
+
+    private static BackpressurePolicy backpressure(String[] parts) {
+        switch (parts[0]) {
+            case "block":
+                return parts.length > 1
+                        ? BackpressurePolicy.blockWithTimeout(Long.parseLong(parts[1]), TimeUnit.MILLISECONDS)
+                        : BackpressurePolicy.block();
+            case "dropBelow":
+                return BackpressurePolicy.dropBelow(level(parts[1]));
+            case "sample":
+                return BackpressurePolicy.sample(level(parts[1]), Double.parseDouble(parts[2]));
+            case "spill":
+                return BackpressurePolicy.spill();
+            default:
+                throw new IllegalArgumentException("unknown backpressure: " + parts[0]);
+        }
+    }
+
+    private static Level level(String name) {
+        Level level = Level.toLevel(name, null);
+        if (level == null) {
+            throw new IllegalArgumentException("unknown level: " + name);
+        }
+        return level;
+    }
+}
@@ -0,0 +1,232 @@
+package com.yl.config.log.reload;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.yl.config.log.async.Drainable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 动态logger上唯一挂载的appender，内部持有一组实际的appender，重载配置时整体切换。
+ * <pre>
+ *     切换期间新事件在调用线程上短暂等待；已进入旧appender的事件处理完后停止旧appender，
+ *     并等待其异步队列写完、文件appender停止({@link Drainable})，再创建新appender并放行等待的事件。
+ *     每个事件只进入一组appender，不丢失也不重复，同一文件不会被新旧appender同时写入
+ * </pre>
+ * 旧appender超过{@link #DRAIN_TIMEOUT_MILLIS}仍未写完时记录警告后继续切换，此时无法保证上述最后一点
+ * 通过{@link #lazy(Supplier)}创建时，appender组在第一个事件到达时才创建，在此之前不打开文件、不启动线程；
+ * 未创建前重载配置只替换创建方式
+ *
+ * @author suiwp
+ * @date 2026/10/17 20:30
+ */
+public class SwitchableAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    /**
+     * 切换中的占位，事件等待新的appender
+     */
+    private static final Pipeline SWITCHING = new Pipeline(Collections.emptyList());
+    private static final long WAIT_NANOS = 100_000L;
+    /**
+     * 等待旧appender写完的最长时间
+     */
+    public static final long DRAIN_TIMEOUT_MILLIS = 30_000L;
+
+    private volatile Pipeline current;
+    private final Object switchLock = new Object();
+
+    public SwitchableAppender(List<Appender<ILoggingEvent>> appenders) {
+        this.current = new Pipeline(appenders);
+    }
+
+    private SwitchableAppender(Supplier<List<Appender<ILoggingEvent>>> factory) {
+        this.current = Pipeline.lazy(factory);
+    }
+
+    /**
+     * 第一个事件到达时在该事件的线程上调用factory创建appender组
+     *
+     * @param factory 创建失败时记录错误，之后的事件被丢弃
+     */
+    public static SwitchableAppender lazy(Supplier<List<Appender<ILoggingEvent>>> factory) {
+        return new SwitchableAppender(factory);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        Pipeline pipeline = acquire();
+        if (pipeline == null) {
+            return;
+        }
+        try {
+            List<Appender<ILoggingEvent>> appenders = pipeline.appenders;
+            for (int i = 0; i < appenders.size(); i++) {
+                appenders.get(i).doAppend(event);
+            }
+        } finally {
+            pipeline.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 增加当前appender组的在途计数，计数后再确认仍是当前组，避免切换线程漏看
+     */
+    private Pipeline acquire() {
+        while (true) {
+            Pipeline pipeline = current;
+            if (pipeline == null) {
+                return null;
+            }
+            if (pipeline == SWITCHING) {
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+            if (pipeline.factory != null) {
+                materialize(pipeline);
+                continue;
+            }
+            pipeline.inFlight.incrementAndGet();
+            if (pipeline == current) {
+                return pipeline;
+            }
+            pipeline.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 创建延迟的appender组，并发到达的事件在该组上等待，只创建一次。
+     * 创建时不持有switchLock，创建过程中需要的其他锁不会与重载、停止互相等待
+     */
+    private void materialize(Pipeline lazy) {
+        synchronized (lazy) {
+            if (current != lazy) {
+                return;
+            }
+            List<Appender<ILoggingEvent>> appenders;
+            try {
+                appenders = lazy.factory.get();
+            } catch (RuntimeException e) {
+                addError("Failed to create appenders for [" + name + "].", e);
+                appenders = Collections.emptyList();
+            }
+            Pipeline next = new Pipeline(appenders);
+            synchronized (switchLock) {
+                if (current == lazy) {
+                    current = next;
+                    return;
+                }
+            }
+            // 创建期间被重载或停止，丢弃刚创建的appender组
+            stopPipeline(next);
+        }
+    }
+
+    /**
+     * 停止当前appender组后切换到factory创建的新appender组。
+     * 创建失败时切换为空组(之后的事件被丢弃)并抛出异常，由调用方决定是否重试
+     *
+     * @param factory 在旧appender停止并写完后调用
+     */
+    public void switchTo(Supplier<List<Appender<ILoggingEvent>>> factory) {
+        synchronized (switchLock) {
+            Pipeline old = current;
+            if (old == null) {
+                throw new IllegalStateException("appender [" + name + "] already stopped");
+            }
+            if (old.factory != null) {
+                // 尚未创建，继续延迟到第一个事件
+                current = Pipeline.lazy(factory);
+                return;
+            }
+            current = SWITCHING;
+            stopPipeline(old);
+            Pipeline next = Pipeline.EMPTY;
+            try {
+                next = new Pipeline(factory.get());
+            } finally {
+                current = next;
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (switchLock) {
+            Pipeline old = current;
+            current = null;
+            super.stop();
+            if (old != null) {
+                stopPipeline(old);
+            }
+        }
+    }
+
+    private void stopPipeline(Pipeline pipeline) {
+        while (pipeline.inFlight.get() > 0) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        // 按顺序停止，异步appender停止时会排空队列并停止其下的文件appender
+        for (Appender<ILoggingEvent> appender : pipeline.appenders) {
+            appender.stop();
+        }
+        // 异步appender的stop()可能在写完之前返回，等待后台线程写完
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MILLIS);
+        try {
+            for (Appender<ILoggingEvent> appender : pipeline.appenders) {
+                if (!Drainable.awaitDrained(appender, Drainable.remainingMillis(deadline))) {
+                    addWarn("Appender [" + appender.getName() + "] of [" + name + "] is still writing after "
+                            + DRAIN_TIMEOUT_MILLIS + " ms.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addWarn("Interrupted while waiting for appenders of [" + name + "] to drain.", e);
+        }
+    }
+
+    /**
+     * appender组是否仍未创建
+     */
+    public boolean isPending() {
+        Pipeline pipeline = current;
+        return pipeline != null && pipeline.factory != null;
+    }
+
+    /**
+     * 当前的appender组(只读)，切换中、尚未创建或已停止时返回空列表
+     */
+    public List<Appender<ILoggingEvent>> getAppenders() {
+        Pipeline pipeline = current;
+        return pipeline == null ? Collections.emptyList() : pipeline.appenders;
+    }
+
+    private static class Pipeline {
+        private static final Pipeline EMPTY = new Pipeline(Collections.emptyList());
+
+        private final List<Appender<ILoggingEvent>> appenders;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /**
+         * 不为null时表示延迟创建的appender组
+         */
+        private final Supplier<List<Appender<ILoggingEvent>>> factory;
+
+        private Pipeline(List<Appender<ILoggingEvent>> appenders) {
+            this(appenders, null);
+        }
+
+        private Pipeline(List<Appender<ILoggingEvent>> appenders, Supplier<List<Appender<ILoggingEvent>>> factory) {
+            this.appenders = Collections.unmodifiableList(new ArrayList<>(appenders));
+            this.factory = factory;
+        }
+
+        private static Pipeline lazy(Supplier<List<Appender<ILoggingEvent>>> factory) {
+            return new Pipeline(Collections.emptyList(), factory);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.yl.config.log.sink;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import com.yl.config.log.encoder.BufferEncoder;
+import com.yl.config.log.encoder.ByteBuilder;
+import com.yl.config.log.index.NameIndexWriter;
+import com.yl.config.log.index.TimeIndexWriter;
+import com.yl.config.log.metrics.LoggerMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 批量写文件的appender，编码后的事件先放入堆外缓冲区，再以一次FileChannel.write落盘。
+ * <pre>
+ *     缓冲区从{@link #MIN_BUFFER_SIZE}开始，在lingerMillis内写满时逐步扩大到bufferSize，写入量小的logger只占用较小的堆外内存
+ *     缓冲区满时落盘
+ *     缓冲区中最早的事件超过lingerMillis未落盘时由后台线程落盘
+ *     ERROR事件立即落盘
+ * </pre>
+ * 滚动及归档保留规则见{@link RolloverPolicy}
+ *
+ * @author suiwp
+ * @date 2026/10/17 15:30
+ */
+public class BatchedFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final int MIN_BUFFER_SIZE = 16 * 1024;
+    public static final long DEFAULT_LINGER_MILLIS = 200;
+
+    private File file;
+    private Encoder<ILoggingEvent> encoder;
+    private RolloverPolicy rolloverPolicy;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private long lingerMillis = DEFAULT_LINGER_MILLIS;
+    /**
+     * 滚动出新归档文件后回调，在写入线程上执行，不能阻塞
+     */
+    private Consumer<File> archiveListener;
+    private LoggerMetrics metrics;
+    /**
+     * 缓冲区中事件的时间戳，落盘后记录延迟，只在设置了metrics时使用
+     */
+    private long[] bufferedTimeStamps = new long[64];
+    private int bufferedCount;
+    /**
+     * 时间索引的块大小，<=0 表示不写索引
+     */
+    private long indexInterval = TimeIndexWriter.DEFAULT_INTERVAL;
+    private TimeIndexWriter indexWriter;
+    /**
+     * 是否写名称索引，多个logger共用文件时开启
+     */
+    private boolean nameIndex;
+    private NameIndexWriter nameIndexWriter;
+
+    /**
+     * 写入线程与落盘线程共用，正常情况下只有异步appender的工作线程写入，基本无竞争
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    /**
+     * 已落盘的文件大小
+     */
+    private long fileSize;
+    /**
+     * 缓冲区中最早事件的写入时间
+     */
+    private long firstBufferedTime;
+    private ScheduledFuture<?> lingerTask;
+    /**
+     * encoder支持{@link BufferEncoder}时复用的编码缓冲，持有锁时使用
+     */
+    private final ByteBuilder scratch = new ByteBuilder(1024);
+
+    @Override
+    public void start() {
+        if (file == null || encoder == null) {
+            addError("No file or encoder set for the appender named [" + name + "].");
+            return;
+        }
+        buffer = ByteBuffer.allocateDirect(Math.min(bufferSize, MIN_BUFFER_SIZE));
+        try {
+            openFile();
+            openIndex();
+        } catch (IOException e) {
+            addError("Failed to open file [" + file + "].", e);
+            return;
+        }
+        lingerTask = Flusher.EXECUTOR.scheduleWithFixedDelay(this::flushIfLingered, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        lingerTask.cancel(false);
+        lock.lock();
+        try {
+            flushBuffer();
+            channel.close();
+            closeIndex();
+        } catch (IOException e) {
+            addError("Failed to close file [" + file + "].", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (encoder instanceof BufferEncoder) {
+            lock.lock();
+            try {
+                // 先滚动再编码，有状态的编码器（如二进制格式）需要在新文件头之后编码
+                rolloverIfTriggered(event);
+                // 直接编码进复用缓冲，不产生中间byte[]
+                ((BufferEncoder) encoder).encode(event, scratch.reset());
+                write(event, scratch.array(), scratch.length());
+            } catch (IOException e) {
+                addError("Failed to write event to file [" + file + "].", e);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        byte[] bytes = encoder.encode(event);
+        lock.lock();
+        try {
+            rolloverIfTriggered(event);
+            write(event, bytes, bytes.length);
+        } catch (IOException e) {
+            addError("Failed to write event to file [" + file + "].", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rolloverIfTriggered(ILoggingEvent event) throws IOException {
+        long now = event.getTimeStamp();
+        if (rolloverPolicy != null && rolloverPolicy.isTriggering(fileSize + buffer.position(), now)) {
+            rollover(now);
+        }
+    }
+
+    private void write(ILoggingEvent event, byte[] bytes, int length) throws IOException {
+        if (length > bufferSize) {
+            flushBuffer();
+        } else if (length > buffer.remaining()) {
+            ensureRemaining(length);
+        }
+        if (indexWriter != null) {
+            indexWriter.onEvent(fileSize + buffer.position(), event.getTimeStamp());
+        }
+        if (nameIndexWriter != null) {
+            nameIndexWriter.onEvent(fileSize + buffer.position(), length, event.getLoggerName(), event.getTimeStamp());
+        }
+        if (length > bufferSize) {
+            // 超过缓冲区的大事件直接写
+            writeFully(ByteBuffer.wrap(bytes, 0, length));
+            if (nameIndexWriter != null) {
+                nameIndexWriter.flush();
+            }
+            if (metrics != null) {
+                metrics.recordWrite(event, length);
+            }
+        } else {
+            if (buffer.position() == 0) {
+                firstBufferedTime = System.currentTimeMillis();
+            }
+            buffer.put(bytes, 0, length);
+            if (metrics != null) {
+                metrics.recordBytes(length);
+                if (bufferedCount == bufferedTimeStamps.length) {
+                    bufferedTimeStamps = Arrays.copyOf(bufferedTimeStamps, bufferedCount * 2);
+                }
+                bufferedTimeStamps[bufferedCount++] = event.getTimeStamp();
+            }
+        }
+        if (event.getLevel().isGreaterOrEqual(Level.ERROR)) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * 缓冲区未达到bufferSize时扩大，仍放不下时落盘
+     */
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.capacity() < bufferSize) {
+            int capacity = (int) Math.min(bufferSize, Math.max(2L * buffer.capacity(), (long) buffer.position() + length));
+            ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        if (length > buffer.remaining()) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * 将缓冲区内容落盘
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            addError("Failed to flush file [" + file + "].", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfLingered() {
+        if (!lock.tryLock()) {
+            // 写入线程持有锁时由其负责落盘
+            return;
+        }
+        try {
+            if (buffer.position() > 0 && System.currentTimeMillis() - firstBufferedTime >= lingerMillis) {
+                flushBuffer();
+            }
+        } catch (IOException e) {
+            addError("Failed to flush file [" + file + "].", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+        if (nameIndexWriter != null) {
+            // 名称索引在数据之后写入，不会指向未落盘的数据
+            nameIndexWriter.flush();
+        }
+        if (bufferedCount > 0) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < bufferedCount; i++) {
+                metrics.recordLatency(bufferedTimeStamps[i], now);
+            }
+            bufferedCount = 0;
+        }
+    }
+
+    private void writeFully(ByteBuffer src) throws IOException {
+        // FileChannel在线程被中断时会关闭通道，AsyncAppender停止时恰好在被中断的工作线程上调用stop，
+        // 写入期间先清除中断标记，写完后恢复
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (src.hasRemaining()) {
+                fileSize += channel.write(src);
+            }
+        } catch (ClosedByInterruptException e) {
+            // 写入过程中再次被中断，重新打开后继续写剩余部分
+            interrupted = true;
+            Thread.interrupted();
+            openFile();
+            while (src.hasRemaining()) {
+                fileSize += channel.write(src);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void rollover(long now) throws IOException {
+        long start = System.nanoTime();
+        flushBuffer();
+        channel.close();
+        closeIndex();
+        File archived;
+        try {
+            archived = rolloverPolicy.rollover(now);
+            if (archived != null) {
+                // 索引随日志文件一起归档
+                File index = TimeIndexWriter.indexFile(file);
+                if (index.exists()) {
+                    Files.move(index.toPath(), TimeIndexWriter.indexFile(archived).toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+                File names = NameIndexWriter.indexFile(file);
+                if (names.exists()) {
+                    Files.move(names.toPath(), NameIndexWriter.indexFile(archived).toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            openFile();
+            openIndex();
+            if (metrics != null) {
+                metrics.recordRollover(System.nanoTime() - start);
+            }
+        }
+        if (archived != null && archiveListener != null) {
+            archiveListener.accept(archived);
+        }
+    }
+
+    private void openFile() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("can not create dir: " + parent);
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        byte[] header = encoder.headerBytes();
+        if (header != null && header.length > 0 && fileSize == 0) {
+            writeFully(ByteBuffer.wrap(header));
+        }
+    }
+
+    private void openIndex() throws IOException {
+        if (indexInterval > 0) {
+            indexWriter = new TimeIndexWriter(file, indexInterval);
+        }
+        if (nameIndex) {
+            nameIndexWriter = new NameIndexWriter(file, fileSize);
+        }
+    }
+
+    private void closeIndex() throws IOException {
+        TimeIndexWriter writer = indexWriter;
+        NameIndexWriter nameWriter = nameIndexWriter;
+        indexWriter = null;
+        nameIndexWriter = null;
+        try {
+            if (writer != null) {
+                writer.close(fileSize);
+            }
+        } finally {
+            if (nameWriter != null) {
+                nameWriter.close();
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public RolloverPolicy getRolloverPolicy() {
+        return rolloverPolicy;
+    }
+
+    public void setRolloverPolicy(RolloverPolicy rolloverPolicy) {
+        this.rolloverPolicy = rolloverPolicy;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public long getLingerMillis() {
+        return lingerMillis;
+    }
+
+    public void setLingerMillis(long lingerMillis) {
+        this.lingerMillis = lingerMillis;
+    }
+
+    public Consumer<File> getArchiveListener() {
+        return archiveListener;
+    }
+
+    public void setArchiveListener(Consumer<File> archiveListener) {
+        this.archiveListener = archiveListener;
+    }
+
+    public long getIndexInterval() {
+        return indexInterval;
+    }
+
+    /**
+     * 时间索引的块大小，<=0 表示不写索引，需在start前设置
+     */
+    public void setIndexInterval(long indexInterval) {
+        this.indexInterval = indexInterval;
+    }
+
+    public boolean isNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * 是否写名称索引，供{@link com.yl.config.log.index.MultiplexLogReader}按logger名读取，需在start前设置
+     */
+    public void setNameIndex(boolean nameIndex) {
+        this.nameIndex = nameIndex;
+    }
+
+    public void setMetrics(LoggerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 所有批量appender共享的定时落盘线程
+     */
+    private static class Flusher {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-file-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.yl.config.log.sink;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import com.yl.config.log.encoder.BinaryLogEncoder;
+import com.yl.config.log.metrics.LoggerMetrics;
+
+/**
+ * 记录写入字节数、写入延迟及滚动耗时的{@link RollingFileAppender}
+ *
+ * @author suiwp
+ * @date 2026/10/17 21:30
+ */
+public class MeteredRollingFileAppender extends RollingFileAppender<ILoggingEvent> {
+    private LoggerMetrics metrics;
+    /**
+     * 编码器有状态时，滚动判断、编码与写入需在同一把锁内完成，保证编码顺序与写入顺序一致
+     */
+    private boolean serialEncode;
+
+    public void setMetrics(LoggerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void start() {
+        serialEncode = getEncoder() instanceof BinaryLogEncoder;
+        if (metrics != null && getEncoder() != null && !(getEncoder() instanceof MeteredEncoder)) {
+            MeteredEncoder encoder = new MeteredEncoder(getEncoder(), metrics);
+            encoder.setContext(getContext());
+            encoder.start();
+            setEncoder(encoder);
+        }
+        super.start();
+    }
+
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        if (!serialEncode) {
+            super.subAppend(event);
+            return;
+        }
+        lock.lock();
+        try {
+            super.subAppend(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void rollover() {
+        if (metrics == null) {
+            super.rollover();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            super.rollover();
+        } finally {
+            metrics.recordRollover(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 编码发生在写入前，编码结果即写入的字节
+     */
+    private static class MeteredEncoder extends EncoderBase<ILoggingEvent> {
+        private final Encoder<ILoggingEvent> delegate;
+        private final LoggerMetrics metrics;
+
+        private MeteredEncoder(Encoder<ILoggingEvent> delegate, LoggerMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public byte[] headerBytes() {
+            return delegate.headerBytes();
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            byte[] bytes = delegate.encode(event);
+            metrics.recordWrite(event, bytes.length);
+            return bytes;
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return delegate.footerBytes();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.yl.config.log.sink;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+/**
+ * 动态logger在共用日志文件上的入口，事件交给共用文件的管道写入。
+ * 停止时只停止自身，共用文件由{@link com.yl.config.log.LogAppenderConfig}在关闭时统一停止
+ *
+ * @author suiwp
+ * @date 2026/10/18 01:50
+ */
+public class MultiplexAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    private final Appender<ILoggingEvent> target;
+
+    /**
+     * @param target 共用文件的管道
+     */
+    public MultiplexAppender(Appender<ILoggingEvent> target) {
+        this.target = target;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        target.doAppend(event);
+    }
+
+    public Appender<ILoggingEvent> getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yl.config.log.sink;
+
+import com.yl.config.log.index.IndexFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按时间及大小滚动的规则，与SizeAndTimeBasedRollingPolicy的配置保持一致：
+ * <pre>
+ *     活动文件：    logBasePath/name/collection.log
+ *     归档文件：    logBasePath/name/collection/.yyyy-MM-dd.i.log
+ *     单文件大小超过maxFileSize或跨天时滚动，归档保留maxHistory天，全部归档不超过totalSizeCap
+ * </pre>
+ * 归档旁的索引文件计入所属归档的大小，随归档一起删除
+ *
+ * @author suiwp
+ * @date 2026/10/17 15:00
+ */
+public class RolloverPolicy {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    /**
+     * 归档文件名，后缀可能被压缩等后续处理追加；同样匹配旁边的索引文件及压缩中的.tmp文件，列出归档时排除
+     */
+    static final Pattern ARCHIVE_PATTERN = Pattern.compile("^\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log.*$");
+
+    private final File activeFile;
+    private final File archiveDir;
+    private final long maxFileSize;
+    private final int maxHistory;
+    private final long totalSizeCap;
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    /**
+     * 当前周期的日期及结束时间
+     */
+    private LocalDate periodDate;
+    private long periodEnd;
+
+    public RolloverPolicy(File activeFile, File archiveDir, long maxFileSize, int maxHistory, long totalSizeCap) {
+        this.activeFile = activeFile;
+        this.archiveDir = archiveDir;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+        this.totalSizeCap = totalSizeCap;
+        // 已存在的活动文件属于其最后修改时间所在周期，首个事件时按该日期归档
+        long start = activeFile.exists() ? activeFile.lastModified() : System.currentTimeMillis();
+        startPeriod(start);
+    }
+
+    /**
+     * 是否需要滚动
+     *
+     * @param fileSize 活动文件当前大小(含未落盘部分)
+     * @param now      当前时间
+     */
+    public boolean isTriggering(long fileSize, long now) {
+        return now >= periodEnd || (fileSize > 0 && fileSize >= maxFileSize);
+    }
+
+    /**
+     * 将活动文件重命名为归档文件，并按保留规则清理，调用前需关闭活动文件
+     *
+     * @param now 当前时间
+     * @return 归档文件，活动文件不存在时返回null
+     */
+    public File rollover(long now) throws IOException {
+        File archived = null;
+        if (activeFile.exists() && activeFile.length() > 0) {
+            if (!archiveDir.exists() && !archiveDir.mkdirs()) {
+                throw new IOException("can not create archive dir: " + archiveDir);
+            }
+            String date = DATE_FORMATTER.format(periodDate);
+            archived = new File(archiveDir, "." + date + "." + nextIndex(date) + ".log");
+            Files.move(activeFile.toPath(), archived.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (now >= periodEnd) {
+            startPeriod(now);
+        }
+        applyRetention();
+        return archived;
+    }
+
+    /**
+     * 删除超过maxHistory天的归档，并从最旧的开始删除直到总大小不超过totalSizeCap
+     */
+    public void applyRetention() {
+        List<Archive> archives = listArchives(archiveDir);
+        LocalDate oldest = periodDate.minusDays(maxHistory);
+        long total = 0;
+        List<Archive> kept = new ArrayList<>(archives.size());
+        for (Archive archive : archives) {
+            if (archive.date.isBefore(oldest)) {
+                delete(archive.file);
+            } else {
+                kept.add(archive);
+                total += archive.size();
+            }
+        }
+        for (Archive archive : kept) {
+            if (total <= totalSizeCap) {
+                break;
+            }
+            total -= archive.size();
+            delete(archive.file);
+        }
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public File getArchiveDir() {
+        return archiveDir;
+    }
+
+    private void startPeriod(long time) {
+        periodDate = Instant.ofEpochMilli(time).atZone(zoneId).toLocalDate();
+        periodEnd = periodDate.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+    }
+
+    private int nextIndex(String date) {
+        int max = -1;
+        for (Archive archive : listArchives(archiveDir)) {
+            if (date.equals(DATE_FORMATTER.format(archive.date))) {
+                max = Math.max(max, archive.index);
+            }
+        }
+        return max + 1;
+    }
+
+    /**
+     * 删除归档及其索引
+     */
+    private static void delete(File file) {
+        deleteFile(file);
+        for (File sidecar : IndexFiles.sidecarsOf(file)) {
+            deleteFile(sidecar);
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete() && file.exists()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 列出归档目录下的归档文件(不含索引及压缩中的临时文件)，按日期、序号从旧到新排序
+     */
+    static List<Archive> listArchives(File archiveDir) {
+        List<Archive> archives = new ArrayList<>();
+        File[] files = archiveDir.listFiles();
+        if (files == null) {
+            return archives;
+        }
+        for (File file : files) {
+            Matcher matcher = ARCHIVE_PATTERN.matcher(file.getName());
+            // 压缩中的.tmp由LogArchiver完成后改名，计入或删除会使压缩失败
+            if (file.isFile() && matcher.matches() && !file.getName().endsWith(".tmp") && !IndexFiles.isSidecar(file.getName())) {
+                archives.add(new Archive(file, LocalDate.parse(matcher.group(1), DATE_FORMATTER), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        archives.sort(Comparator.comparing((Archive a) -> a.date).thenComparingInt(a -> a.index));
+        return archives;
+    }
+
+    static class Archive {
+        final File file;
+        final LocalDate date;
+        final int index;
+
+        Archive(File file, LocalDate date, int index) {
+            this.file = file;
+            this.date = date;
+            this.index = index;
+        }
+
+        /**
+         * 归档及其索引的总大小
+         */
+        long size() {
+            long total = file.length();
+            for (File sidecar : IndexFiles.sidecarsOf(file)) {
+                total += sidecar.length();
+            }
+            return total;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.yl.design.fun.box;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * @author suiwp
@@ -61,6 +66,90 @@ public abstract class Box<T> implements Serializable {
         return ErrBox.throwBox(errCode, msg, throwable);
     }
 
+    /**
+     * Constructs an {@link ErrBox} that never captures or renders a stack trace, for expected business
+     * errors where the exception only carries a message. Logging prints the cause chain's types and messages.
+     *
+     * <pre>{@code
+     * // StacklessException skips fillInStackTrace as well
+     * Box.errStackless(ErrCode.NONE_DATA_ERR, "无数据", new StacklessException("order " + id + " not found"));
+     * }</pre>
+     *
+     * @return A new {@code Err} instance.
+     */
+    public static <T> Box<T> errStackless(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+        return ErrBox.stacklessBox(errCode, msg, throwable);
+    }
+
+    /**
+     * Returns the shared, immutable {@link ErrBox} of a constant (errCode, msg) pair without allocating.
+     * See {@link ErrBox#constant(ICodeEnum, String)}.
+     *
+     * @return The shared {@code Err} instance.
+     */
+    public static <T> Box<T> constErr(ICodeEnum<?> errCode, String msg) {
+        return ErrBox.constant(errCode, msg);
+    }
+
+    /**
+     * Turns a list of {@code Box} into a {@code Box} of the values in the same order, stopping at the first error.
+     *
+     * <pre>{@code
+     * // = Box.val([1, 2])
+     * Box.sequence(Arrays.asList(Box.val(1), Box.val(2)));
+     * }</pre>
+     *
+     * @param boxes Boxes to combine.
+     * @param <T>   Type of the values.
+     * @return a {@code Box} of all values, or the first {@code ErrBox}
+     */
+    public static <T> Box<List<T>> sequence(List<? extends Box<? extends T>> boxes) {
+        return BoxBatch.inline(boxes, Function.identity(), true);
+    }
+
+    /**
+     * Like {@link #sequence(List)}, but collects every error. More than one error is combined into
+     * an {@code ErrBox} whose {@link ErrBox#getErrs()} lists them in input order.
+     *
+     * @param boxes Boxes to combine.
+     * @param <T>   Type of the values.
+     * @return a {@code Box} of all values, or an {@code ErrBox} of all errors
+     */
+    public static <T> Box<List<T>> sequenceAll(List<? extends Box<? extends T>> boxes) {
+        return BoxBatch.inline(boxes, Function.identity(), false);
+    }
+
+    /**
+     * Maps each item to a {@code Box} in the calling thread, stopping at the first error.
+     * See {@link BoxBatch} for parallel execution.
+     *
+     * <pre>{@code
+     * Box<List<Order>> orders = Box.traverse(orderIds, this::loadOrder);
+     * }</pre>
+     *
+     * @param items  Items to map.
+     * @param mapper A mapper returning a {@code Box}.
+     * @param <A>    Type of the items.
+     * @param <T>    Type of the values.
+     * @return a {@code Box} of all values in input order, or the first {@code ErrBox}
+     */
+    public static <A, T> Box<List<T>> traverse(List<? extends A> items, Function<? super A, ? extends Box<? extends T>> mapper) {
+        return BoxBatch.inline(items, mapper, true);
+    }
+
+    /**
+     * Like {@link #traverse(List, Function)}, but maps every item and collects every error.
+     *
+     * @param items  Items to map.
+     * @param mapper A mapper returning a {@code Box}.
+     * @param <A>    Type of the items.
+     * @param <T>    Type of the values.
+     * @return a {@code Box} of all values in input order, or an {@code ErrBox} of all errors
+     */
+    public static <A, T> Box<List<T>> traverseAll(List<? extends A> items, Function<? super A, ? extends Box<? extends T>> mapper) {
+        return BoxBatch.inline(items, mapper, false);
+    }
+
     /**
      * Narrows a widened {@code Box<? extends L, ? extends R>} to {@code Box<L, R>}
      * by performing a type-safe cast. This is eligible because immutable/read-only
@@ -136,7 +225,111 @@ public abstract class Box<T> implements Serializable {
 
     public abstract T getVal();
 
-    private static class Val<T> extends Box<T> implements Serializable {
+    /**
+     * Maps the value. An {@code ErrBox} is returned as the same instance.
+     *
+     * <pre>{@code
+     * // = Box.val("42")
+     * Box.val(42).map(String::valueOf);
+     * }</pre>
+     *
+     * @param mapper A value mapper.
+     * @param <U>    Type of the mapped value.
+     * @return a {@code Box} of the mapped value, or this {@code ErrBox}
+     */
+    public abstract <U> Box<U> map(Function<? super T, ? extends U> mapper);
+
+    /**
+     * Maps the value to another {@code Box}. An {@code ErrBox} is returned as the same instance.
+     *
+     * <pre>{@code
+     * Box<User> user = findUserId(token).flatMap(this::loadUser);
+     * }</pre>
+     *
+     * @param mapper A mapper returning a {@code Box}.
+     * @param <U>    Type of the mapped value.
+     * @return the {@code Box} returned by mapper, or this {@code ErrBox}
+     */
+    public abstract <U> Box<U> flatMap(Function<? super T, ? extends Box<? extends U>> mapper);
+
+    /**
+     * Maps the error, e.g. to translate the errCode of a lower layer. A value is returned as the same instance.
+     *
+     * <pre>{@code
+     * box.mapErr(err -> Box.<File>err(ErrCode.IO_ERR, "生成文件失败", err.getThrowable()).toErrBox());
+     * }</pre>
+     *
+     * @param mapper An error mapper.
+     * @return the mapped {@code ErrBox}, or this
+     */
+    public abstract Box<T> mapErr(Function<? super ErrBox<T>, ? extends ErrBox<T>> mapper);
+
+    /**
+     * Turns an error into a value. A value is returned as the same instance.
+     *
+     * <pre>{@code
+     * // = Box.val(0)
+     * Box.<Integer>err(ErrCode.NONE_DATA_ERR, "no data").recover(err -> 0);
+     * }</pre>
+     *
+     * @param recovery Computes a value from the error.
+     * @return a {@code Box} of the recovered value, or this
+     */
+    public abstract Box<T> recover(Function<? super ErrBox<T>, ? extends T> recovery);
+
+    /**
+     * Folds either the error or the value into a single result.
+     *
+     * <pre>{@code
+     * Result result = box.fold(err -> Result.fail(err.getMsg()), Result::ok);
+     * }</pre>
+     *
+     * @param ifErr Applied if this is an {@code ErrBox}.
+     * @param ifVal Applied if this is a value.
+     * @param <U>   Type of the result.
+     * @return the result of ifErr or ifVal
+     */
+    public abstract <U> U fold(Function<? super ErrBox<T>, ? extends U> ifErr, Function<? super T, ? extends U> ifVal);
+
+    /**
+     * Maps the value to a {@code long} held by a {@link LongBox}, which does not box it.
+     * An {@code ErrBox} is carried over as the same instance.
+     *
+     * <pre>{@code
+     * LongBox total = loadOrder(id).mapToLong(Order::getAmount).map(v -> v * count);
+     * }</pre>
+     *
+     * @param mapper A value mapper.
+     * @return a {@code LongBox} of the mapped value, or of this {@code ErrBox}
+     */
+    public abstract LongBox mapToLong(ToLongFunction<? super T> mapper);
+
+    /**
+     * Performs an action on the value, e.g. logging. Does nothing for an {@code ErrBox}.
+     *
+     * @param action An action on the value.
+     * @return this
+     */
+    public abstract Box<T> peek(Consumer<? super T> action);
+
+    /**
+     * Performs an action on the error, e.g. {@code peekErr(err -> err.logErr(log, err.prefix("任务")))}.
+     * Does nothing for a value.
+     *
+     * @param action An action on the error.
+     * @return this
+     */
+    public abstract Box<T> peekErr(Consumer<? super ErrBox<T>> action);
+
+    /**
+     * Returns the value, or the supplied one if this is an {@code ErrBox}.
+     *
+     * @param other Supplies the value for an {@code ErrBox}.
+     * @return the value or other's result
+     */
+    public abstract T orElseGet(Supplier<? extends T> other);
+
+    private static final class Val<T> extends Box<T> implements Serializable {
         private static final long serialVersionUID = 1L;
         private final T val;
 
@@ -163,6 +356,55 @@ public abstract class Box<T> implements Serializable {
         public T getVal() {
             return val;
         }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> Box<U> map(Function<? super T, ? extends U> mapper) {
+            U mapped = mapper.apply(val);
+            // 值未变化时(如校验、日志类步骤)复用当前实例
+            return mapped == val ? (Box<U>) this : new Val<>(mapped);
+        }
+
+        @Override
+        public <U> Box<U> flatMap(Function<? super T, ? extends Box<? extends U>> mapper) {
+            return Box.narrow(mapper.apply(val));
+        }
+
+        @Override
+        public Box<T> mapErr(Function<? super ErrBox<T>, ? extends ErrBox<T>> mapper) {
+            return this;
+        }
+
+        @Override
+        public Box<T> recover(Function<? super ErrBox<T>, ? extends T> recovery) {
+            return this;
+        }
+
+        @Override
+        public <U> U fold(Function<? super ErrBox<T>, ? extends U> ifErr, Function<? super T, ? extends U> ifVal) {
+            return ifVal.apply(val);
+        }
+
+        @Override
+        public LongBox mapToLong(ToLongFunction<? super T> mapper) {
+            return LongBox.val(mapper.applyAsLong(val));
+        }
+
+        @Override
+        public Box<T> peek(Consumer<? super T> action) {
+            action.accept(val);
+            return this;
+        }
+
+        @Override
+        public Box<T> peekErr(Consumer<? super ErrBox<T>> action) {
+            return this;
+        }
+
+        @Override
+        public T orElseGet(Supplier<? extends T> other) {
+            return val;
+        }
     }
 
 }
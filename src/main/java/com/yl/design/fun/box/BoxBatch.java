@@ -0,0 +1,292 @@
+package com.yl.design.fun.box;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 批量处理产生{@code Box}的任务，全部成功时得到按输入顺序排列的值列表，否则得到错误：
+ * <pre>
+ *     FAIL_FAST  首个错误出现后不再处理剩余项，返回该错误
+ *     ACCUMULATE 处理所有项，返回包含全部错误(按输入顺序)的组合错误，见{@link ErrBox#getErrs()}
+ * </pre>
+ * 输入按chunkSize分块，调用线程与executor中最多parallelism个任务按块领取处理，
+ * executor繁忙或拒绝时由调用线程处理剩余的块，因此在executor自身的线程中调用也不会死锁。
+ * 只有一块时直接在调用线程处理。
+ * <p>
+ * FAIL_FAST只在开始处理每一项前检查是否已失败，不中断正在执行的mapper。
+ * mapper抛出的异常会停止剩余项，并在调用线程重新抛出
+ *
+ * <pre>{@code
+ * private static final BoxBatch BATCH = new BoxBatch(BoxBatch.Mode.ACCUMULATE, ioPool, 16, 32);
+ *
+ * Box<List<Order>> orders = BATCH.traverse(orderIds, this::loadOrder);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:30
+ */
+public class BoxBatch {
+    /**
+     * 自动分块时每个线程平均分到的块数，块越多负载越均衡
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final BoxBatch FAIL_FAST = new BoxBatch(Mode.FAIL_FAST, ForkJoinPool.commonPool(),
+            ForkJoinPool.getCommonPoolParallelism(), 0);
+    private static final BoxBatch ACCUMULATE = new BoxBatch(Mode.ACCUMULATE, ForkJoinPool.commonPool(),
+            ForkJoinPool.getCommonPoolParallelism(), 0);
+
+    public enum Mode {
+        FAIL_FAST, ACCUMULATE
+    }
+
+    private final Mode mode;
+    private final Executor executor;
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * @param mode        错误处理方式
+     * @param executor    执行器
+     * @param parallelism 最多同时占用executor的任务数，不含调用线程
+     * @param chunkSize   每块的项数，0表示按输入大小及并行度自动计算
+     */
+    public BoxBatch(Mode mode, Executor executor, int parallelism, int chunkSize) {
+        if (mode == null || executor == null) {
+            throw new IllegalArgumentException("mode and executor must not be null");
+        }
+        if (parallelism < 0 || chunkSize < 0) {
+            throw new IllegalArgumentException("parallelism and chunkSize must not be negative");
+        }
+        this.mode = mode;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 在ForkJoinPool.commonPool()上并行，首个错误后停止
+     */
+    public static BoxBatch failFast() {
+        return FAIL_FAST;
+    }
+
+    /**
+     * 在ForkJoinPool.commonPool()上并行，累计所有错误
+     */
+    public static BoxBatch accumulate() {
+        return ACCUMULATE;
+    }
+
+    /**
+     * 在指定ForkJoinPool上按其并行度处理
+     */
+    public static BoxBatch of(Mode mode, ForkJoinPool pool) {
+        return new BoxBatch(mode, pool, pool.getParallelism(), 0);
+    }
+
+    /**
+     * 对每一项执行mapper
+     *
+     * @return 全部成功时为按输入顺序排列的值列表(不可增删)
+     */
+    public <A, T> Box<List<T>> traverse(List<? extends A> items, Function<? super A, ? extends Box<? extends T>> mapper) {
+        int size = items.size();
+        int chunk = chunkSize > 0 ? chunkSize : Math.max(1, size / ((parallelism + 1) * CHUNKS_PER_THREAD));
+        int chunks = (size - 1) / chunk + 1;
+        if (chunks <= 1 || parallelism == 0) {
+            return inline(items, mapper, mode == Mode.FAIL_FAST);
+        }
+        // 各块按下标读取
+        List<? extends A> indexed = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        Run<A, T> run = new Run<>(indexed, mapper, chunk, chunks);
+        int helpers = Math.min(parallelism, chunks - 1);
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(run::work);
+            } catch (RejectedExecutionException e) {
+                // 由调用线程及已提交的任务处理
+                break;
+            }
+        }
+        run.work();
+        run.await();
+        return run.result();
+    }
+
+    /**
+     * 合并已有的结果，不使用executor
+     */
+    public <T> Box<List<T>> sequence(List<? extends Box<? extends T>> boxes) {
+        return inline(boxes, Function.identity(), mode == Mode.FAIL_FAST);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 在调用线程中依次处理，{@link Box#traverse}等也使用此实现
+     */
+    @SuppressWarnings("unchecked")
+    static <A, T> Box<List<T>> inline(List<? extends A> items, Function<? super A, ? extends Box<? extends T>> mapper,
+                                      boolean failFast) {
+        Object[] values = new Object[items.size()];
+        List<ErrBox<?>> errs = null;
+        int i = 0;
+        for (A item : items) {
+            Box<? extends T> box = mapper.apply(item);
+            if (box.isErr()) {
+                if (failFast) {
+                    return box.toErrBox().narrowErr();
+                }
+                if (errs == null) {
+                    errs = new ArrayList<>();
+                }
+                errs.add(box.toErrBox());
+            } else {
+                values[i] = box.getVal();
+            }
+            i++;
+        }
+        if (errs != null) {
+            return errs.size() == 1 ? errs.get(0).narrowErr() : ErrBox.multiBox(errs);
+        }
+        return Box.val((List<T>) Arrays.asList(values));
+    }
+
+    /**
+     * 一次traverse的共享状态
+     */
+    private class Run<A, T> {
+        private final List<? extends A> items;
+        private final Function<? super A, ? extends Box<? extends T>> mapper;
+        private final int chunk;
+        private final int chunks;
+        private final Object[] values;
+        /**
+         * ACCUMULATE下各项的错误，没有错误时不创建
+         */
+        private volatile ErrBox<?>[] errs;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final CountDownLatch done;
+        /**
+         * FAIL_FAST的首个错误
+         */
+        private final AtomicReference<ErrBox<?>> failure = new AtomicReference<>();
+        private final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        private Run(List<? extends A> items, Function<? super A, ? extends Box<? extends T>> mapper, int chunk, int chunks) {
+            this.items = items;
+            this.mapper = mapper;
+            this.chunk = chunk;
+            this.chunks = chunks;
+            this.values = new Object[items.size()];
+            this.done = new CountDownLatch(chunks);
+        }
+
+        /**
+         * 领取并处理块，直到没有剩余的块
+         */
+        private void work() {
+            int c;
+            while ((c = nextChunk.getAndIncrement()) < chunks) {
+                try {
+                    if (!stopped) {
+                        process(c * chunk, Math.min(items.size(), (c + 1) * chunk));
+                    }
+                } catch (Throwable t) {
+                    thrown.compareAndSet(null, t);
+                    stopped = true;
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+
+        private void process(int from, int to) {
+            for (int i = from; i < to && !stopped; i++) {
+                Box<? extends T> box = mapper.apply(items.get(i));
+                if (!box.isErr()) {
+                    values[i] = box.getVal();
+                } else if (mode == Mode.FAIL_FAST) {
+                    failure.compareAndSet(null, box.toErrBox());
+                    stopped = true;
+                } else {
+                    errs()[i] = box.toErrBox();
+                }
+            }
+        }
+
+        private ErrBox<?>[] errs() {
+            ErrBox<?>[] current = errs;
+            if (current == null) {
+                synchronized (this) {
+                    if ((current = errs) == null) {
+                        errs = current = new ErrBox<?>[items.size()];
+                    }
+                }
+            }
+            return current;
+        }
+
+        private void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // 块都已被领取，等待其完成，不提前返回不完整的结果
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Box<List<T>> result() {
+            Throwable t = thrown.get();
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            if (t != null) {
+                throw new IllegalStateException(t);
+            }
+            ErrBox<?> first = failure.get();
+            if (first != null) {
+                return first.narrowErr();
+            }
+            ErrBox<?>[] all = errs;
+            if (all != null) {
+                List<ErrBox<?>> list = new ArrayList<>();
+                for (ErrBox<?> err : all) {
+                    if (err != null) {
+                        list.add(err);
+                    }
+                }
+                return list.size() == 1 ? list.get(0).narrowErr() : ErrBox.multiBox(list);
+            }
+            return Box.val((List<T>) Arrays.asList(values));
+        }
+    }
+}
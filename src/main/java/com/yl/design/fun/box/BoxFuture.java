@@ -0,0 +1,284 @@
+package com.yl.design.fun.box;
+
+import com.yl.design.fun.result.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link Box}的异步版本，基于{@code CompletableFuture<Box<T>>}，错误仍以{@link ErrBox}表示：
+ * <pre>
+ *     内部future总是正常完成，结果为值或ErrBox
+ *     各阶段抛出的异常、适配的future异常完成，转为{@link ICodeEnum.Default#ASYNC_ERR}的ErrBox
+ *     超时转为指定errCode的ErrBox，默认{@link ICodeEnum.Default#TIMEOUT_ERR}
+ * </pre>
+ * map等回调在完成上一阶段的线程中执行(已完成时在调用线程中执行)，不应在其中阻塞；
+ * 需要IO的步骤通过flatMap接入返回BoxFuture的异步调用。只在最外层(如同步接口的边界)调用{@link #join()}
+ *
+ * <pre>{@code
+ * BoxFuture<OrderView> view = orderClient.load(orderId)
+ *         .timeout(200, TimeUnit.MILLISECONDS, ErrCode.ORDER_TIMEOUT)
+ *         .zip(userClient.load(userId), OrderView::new);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 04:10
+ */
+public final class BoxFuture<T> {
+    private static final String ASYNC_ERR_MSG = "异步任务异常";
+
+    private final CompletableFuture<Box<T>> future;
+
+    private BoxFuture(CompletableFuture<Box<T>> future) {
+        this.future = future;
+    }
+
+    /**
+     * 已完成的BoxFuture
+     */
+    public static <T> BoxFuture<T> of(Box<T> box) {
+        return new BoxFuture<>(CompletableFuture.completedFuture(box));
+    }
+
+    /**
+     * 已完成的BoxFuture，见{@link Result#toBox()}
+     */
+    public static <T> BoxFuture<T> of(Result<?, T> result) {
+        return of(result.toBox());
+    }
+
+    public static <T> BoxFuture<T> val(T val) {
+        return of(Box.val(val));
+    }
+
+    public static <T> BoxFuture<T> err(ICodeEnum<?> errCode, String msg) {
+        return of(Box.err(errCode, msg));
+    }
+
+    /**
+     * 在executor中执行同步的Box调用，用于接入尚无异步版本的接口
+     */
+    public static <T> BoxFuture<T> supplyAsync(Supplier<? extends Box<T>> supplier, Executor executor) {
+        return new BoxFuture<>(CompletableFuture.supplyAsync(() -> {
+            try {
+                return supplier.get();
+            } catch (Throwable t) {
+                return asyncErr(t);
+            }
+        }, executor));
+    }
+
+    /**
+     * 适配结果为Box的future，异常完成转为ErrBox
+     */
+    public static <T> BoxFuture<T> fromBoxFuture(CompletableFuture<? extends Box<T>> future) {
+        return new BoxFuture<>(future.handle((box, t) -> t == null ? box : asyncErr(t)));
+    }
+
+    /**
+     * 适配普通future，异常完成转为ErrBox
+     */
+    public static <T> BoxFuture<T> fromFuture(CompletableFuture<? extends T> future) {
+        return new BoxFuture<>(future.handle((val, t) -> t == null ? Box.val(val) : asyncErr(t)));
+    }
+
+    /**
+     * 转换值，ErrBox原样传递
+     */
+    public <U> BoxFuture<U> map(Function<? super T, ? extends U> mapper) {
+        return then(box -> box.map(mapper));
+    }
+
+    /**
+     * 接入下一个同步的Box步骤，如校验
+     */
+    public <U> BoxFuture<U> flatMapBox(Function<? super T, ? extends Box<? extends U>> mapper) {
+        return then(box -> box.flatMap(mapper));
+    }
+
+    /**
+     * 接入下一个异步调用，上一阶段为ErrBox时不调用mapper
+     */
+    public <U> BoxFuture<U> flatMap(Function<? super T, ? extends BoxFuture<? extends U>> mapper) {
+        return new BoxFuture<>(future.thenCompose(box -> {
+            if (box.isErr()) {
+                return CompletableFuture.completedFuture(box.toErrBox().<U>narrowErr());
+            }
+            try {
+                return mapper.apply(box.getVal()).toCompletableFuture().thenApply(Box::<U>narrow);
+            } catch (Throwable t) {
+                return CompletableFuture.completedFuture(asyncErr(t));
+            }
+        }));
+    }
+
+    /**
+     * 见{@link Box#mapErr}
+     */
+    public BoxFuture<T> mapErr(Function<? super ErrBox<T>, ? extends ErrBox<T>> mapper) {
+        return then(box -> box.mapErr(mapper));
+    }
+
+    /**
+     * 见{@link Box#recover}
+     */
+    public BoxFuture<T> recover(Function<? super ErrBox<T>, ? extends T> recovery) {
+        return then(box -> box.recover(recovery));
+    }
+
+    /**
+     * 合并两个并行的结果。任一方先得到ErrBox时立即完成，不等待另一方
+     */
+    public <U, R> BoxFuture<R> zip(BoxFuture<? extends U> other, BiFunction<? super T, ? super U, ? extends R> zipper) {
+        CompletableFuture<Box<R>> result = new CompletableFuture<>();
+        future.thenAccept(box -> {
+            if (box.isErr()) {
+                result.complete(box.toErrBox().narrowErr());
+            }
+        });
+        other.future.thenAccept(box -> {
+            if (box.isErr()) {
+                result.complete(box.toErrBox().narrowErr());
+            }
+        });
+        future.thenAcceptBoth(other.future, (left, right) -> {
+            if (left.isErr() || right.isErr()) {
+                return;
+            }
+            try {
+                result.complete(Box.val(zipper.apply(left.getVal(), right.getVal())));
+            } catch (Throwable t) {
+                result.complete(asyncErr(t));
+            }
+        });
+        return new BoxFuture<>(result);
+    }
+
+    /**
+     * 取最先得到的值，如多个副本或多个数据源的请求；全部为ErrBox时返回组合错误，见{@link ErrBox#getErrs()}
+     */
+    public static <T> BoxFuture<T> any(List<? extends BoxFuture<? extends T>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("futures must not be empty");
+        }
+        CompletableFuture<Box<T>> result = new CompletableFuture<>();
+        AtomicReferenceArray<ErrBox<?>> errs = new AtomicReferenceArray<>(futures.size());
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            int index = i;
+            futures.get(i).toCompletableFuture().thenAccept(box -> {
+                if (!box.isErr()) {
+                    result.complete(Box.narrow(box));
+                    return;
+                }
+                errs.set(index, box.toErrBox());
+                if (remaining.decrementAndGet() == 0) {
+                    // 最后一个完成的线程汇总错误，前面的set对其可见
+                    List<ErrBox<?>> list = new ArrayList<>(errs.length());
+                    for (int k = 0; k < errs.length(); k++) {
+                        list.add(errs.get(k));
+                    }
+                    result.complete(list.size() == 1 ? list.get(0).narrowErr() : ErrBox.multiBox(list));
+                }
+            });
+        }
+        return new BoxFuture<>(result);
+    }
+
+    /**
+     * 本阶段超时，超时后得到{@link ICodeEnum.Default#TIMEOUT_ERR}的ErrBox
+     */
+    public BoxFuture<T> timeout(long timeout, TimeUnit unit) {
+        return timeout(timeout, unit, ICodeEnum.Default.TIMEOUT_ERR);
+    }
+
+    /**
+     * 本阶段超时，超时后得到errCode的ErrBox。只影响本阶段的结果，不取消仍在执行的调用。
+     * 超时结果在CompletableFuture的默认异步线程池中完成，后续阶段不在共享的超时线程上执行
+     */
+    public BoxFuture<T> timeout(long timeout, TimeUnit unit, ICodeEnum<?> errCode) {
+        if (future.isDone()) {
+            return this;
+        }
+        CompletableFuture<Box<T>> result = new CompletableFuture<>();
+        String msg = "超时" + unit.toMillis(timeout) + "ms";
+        ScheduledFuture<?> task = Timer.EXECUTOR.schedule(
+                () -> CompletableFuture.runAsync(() -> result.complete(Box.err(errCode, msg))), timeout, unit);
+        future.thenAccept(box -> {
+            task.cancel(false);
+            result.complete(box);
+        });
+        return new BoxFuture<>(result);
+    }
+
+    /**
+     * 完成时执行action，如记录错误日志
+     */
+    public BoxFuture<T> onComplete(Consumer<? super Box<T>> action) {
+        return then(box -> {
+            action.accept(box);
+            return box;
+        });
+    }
+
+    /**
+     * 阻塞等待结果，只在同步边界使用
+     */
+    public Box<T> join() {
+        return future.join();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public CompletableFuture<Box<T>> toCompletableFuture() {
+        return future;
+    }
+
+    /**
+     * 同步的下一阶段，异常转为ErrBox，保持内部future正常完成
+     */
+    private <U> BoxFuture<U> then(Function<? super Box<T>, ? extends Box<U>> step) {
+        return new BoxFuture<>(future.thenApply(box -> {
+            try {
+                return step.apply(box);
+            } catch (Throwable t) {
+                return asyncErr(t);
+            }
+        }));
+    }
+
+    private static <T> Box<T> asyncErr(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        return Box.err(ICodeEnum.Default.ASYNC_ERR, ASYNC_ERR_MSG, cause);
+    }
+
+    /**
+     * 所有BoxFuture共享的超时线程，只负责把超时结果交给异步线程池。
+     * 提前完成而取消的超时任务立即从队列移除，大量短超时不会在队列中堆积到期限
+     */
+    private static class Timer {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "box-future-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.yl.design.fun.box;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link Box}的double特化版本，值不装箱，错误与Box共用{@link ErrBox}。
+ * 金额类的值分布很散，只缓存0.0
+ *
+ * <pre>{@code
+ * DoubleBox amount = DoubleBox.val(order.getAmount());
+ * double total = amount.map(v -> v * rate).foldDouble(err -> 0, v -> v);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:10
+ */
+public final class DoubleBox implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final DoubleBox ZERO = new DoubleBox(0, null);
+
+    private final double val;
+    /**
+     * 不为null时表示错误
+     */
+    private final ErrBox<?> err;
+
+    private DoubleBox(double val, ErrBox<?> err) {
+        this.val = val;
+        this.err = err;
+    }
+
+    public static DoubleBox val(double val) {
+        // 不缓存-0.0
+        if (Double.doubleToRawLongBits(val) == 0L) {
+            return ZERO;
+        }
+        return new DoubleBox(val, null);
+    }
+
+    public static DoubleBox err(ErrBox<?> err) {
+        if (err == null) {
+            throw new IllegalArgumentException("err is null");
+        }
+        return new DoubleBox(0, err);
+    }
+
+    public static DoubleBox err(ICodeEnum<?> errCode, String msg) {
+        return err(ErrBox.msgBox(errCode, msg));
+    }
+
+    public static DoubleBox err(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+        return err(ErrBox.throwBox(errCode, msg, throwable));
+    }
+
+    /**
+     * 由{@code Box<Double>}转换，错误时共用同一个ErrBox
+     *
+     * @throws NullPointerException 值为null时
+     */
+    public static DoubleBox unbox(Box<? extends Double> box) {
+        return box.isErr() ? err(box.toErrBox()) : val(box.getVal());
+    }
+
+    public boolean isErr() {
+        return err != null;
+    }
+
+    public boolean isRight() {
+        return err == null;
+    }
+
+    /**
+     * @throws NoSuchElementException 错误时
+     */
+    public double getAsDouble() {
+        if (err != null) {
+            throw new NoSuchElementException("DoubleBox is err: " + err.getMsg());
+        }
+        return val;
+    }
+
+    public double orElse(double other) {
+        return err == null ? val : other;
+    }
+
+    /**
+     * 值时返回{@link ErrBox#EMPTY}
+     */
+    public ErrBox<Double> toErrBox() {
+        return err == null ? ErrBox.EMPTY.narrowErr() : err.narrowErr();
+    }
+
+    public Box<Double> boxed() {
+        return err == null ? Box.val(val) : err.narrowErr();
+    }
+
+    /**
+     * 映射值，错误时返回当前实例
+     */
+    public DoubleBox map(DoubleUnaryOperator mapper) {
+        if (err != null) {
+            return this;
+        }
+        double mapped = mapper.applyAsDouble(val);
+        return Double.doubleToRawLongBits(mapped) == Double.doubleToRawLongBits(val) ? this : val(mapped);
+    }
+
+    /**
+     * 映射为对象值，错误时返回同一个ErrBox实例
+     */
+    public <U> Box<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        return err == null ? Box.val(mapper.apply(val)) : err.narrowErr();
+    }
+
+    public DoubleBox flatMap(DoubleFunction<DoubleBox> mapper) {
+        return err == null ? mapper.apply(val) : this;
+    }
+
+    public DoubleBox mapErr(Function<? super ErrBox<?>, ? extends ErrBox<?>> mapper) {
+        return err == null ? this : err(mapper.apply(err));
+    }
+
+    public DoubleBox recover(ToDoubleFunction<? super ErrBox<?>> recovery) {
+        return err == null ? this : val(recovery.applyAsDouble(err));
+    }
+
+    public <U> U fold(Function<? super ErrBox<?>, ? extends U> ifErr, DoubleFunction<? extends U> ifVal) {
+        return err == null ? ifVal.apply(val) : ifErr.apply(err);
+    }
+
+    /**
+     * 结果为double的fold，不装箱
+     */
+    public double foldDouble(ToDoubleFunction<? super ErrBox<?>> ifErr, DoubleUnaryOperator ifVal) {
+        return err == null ? ifVal.applyAsDouble(val) : ifErr.applyAsDouble(err);
+    }
+
+    public DoubleBox peek(DoubleConsumer action) {
+        if (err == null) {
+            action.accept(val);
+        }
+        return this;
+    }
+}
@@ -1,10 +1,16 @@
 package com.yl.design.fun.box;
 
-import org.slf4j.Logger;
-
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * @author suiwp
@@ -14,6 +20,11 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
     private static final long serialVersionUID = 1L;
     public static final ErrBox<Void> EMPTY = new ErrMsgBox<>(ICodeEnum.Default.OK, "");
 
+    /**
+     * logErr的错误风暴去重，null表示不去重
+     */
+    private static volatile ErrDeduplicator deduplicator;
+
     private ErrBox() {
     }
 
@@ -25,6 +36,51 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         return new ErrMsgBox<>(errCode, msg);
     }
 
+    protected static <T> ErrBox<T> stacklessBox(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+        return new ErrStacklessBox<>(errCode, msg, throwable);
+    }
+
+    /**
+     * 批量处理累计的多个错误，errs按输入顺序排列且不少于2个
+     */
+    static <T> ErrBox<T> multiBox(List<ErrBox<?>> errs) {
+        return new ErrMultiBox<>(errs);
+    }
+
+    /**
+     * 常量错误：同一(errCode, msg)返回同一个不可变实例，不分配对象。
+     * 适合"无数据"、校验不通过等固定文案的业务错误，可保存在静态字段中直接返回。
+     * 每个errCode最多缓存256个msg，超出后按普通错误创建，msg中不应带有变化的参数；msg为null时每个errCode共用一个实例
+     *
+     * <pre>{@code
+     * private static final ErrBox<Void> NO_DATA = ErrBox.constant(ErrCode.NONE_DATA_ERR, "无数据");
+     *
+     * return NO_DATA.narrowErr();
+     * }</pre>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ErrBox<T> constant(ICodeEnum<?> errCode, String msg) {
+        if (errCode == null) {
+            throw new IllegalArgumentException("errCode is null");
+        }
+        if (msg == null) {
+            // ConcurrentHashMap不支持null键
+            return (ErrBox<T>) Constants.NULL_MSG.computeIfAbsent(errCode, code -> new ErrMsgBox<>(code, null));
+        }
+        Map<String, ErrBox<?>> byMsg = Constants.REGISTRY.get(errCode);
+        if (byMsg == null) {
+            byMsg = Constants.REGISTRY.computeIfAbsent(errCode, k -> new ConcurrentHashMap<>());
+        }
+        ErrBox<?> box = byMsg.get(msg);
+        if (box != null) {
+            return (ErrBox<T>) box;
+        }
+        if (byMsg.size() >= Constants.MAX_PER_CODE) {
+            return new ErrMsgBox<>(errCode, msg);
+        }
+        return (ErrBox<T>) byMsg.computeIfAbsent(msg, m -> new ErrMsgBox<>(errCode, m));
+    }
+
     @Override
     public ErrBox<T> toErrBox() {
         return this;
@@ -45,12 +101,129 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         return null;
     }
 
+    /**
+     * ErrBox不持有值，可作为任意值类型的ErrBox返回，不创建新实例
+     */
+    @SuppressWarnings("unchecked")
+    public <R> ErrBox<R> narrowErr() {
+        return (ErrBox<R>) this;
+    }
+
+    @Override
+    public <U> Box<U> map(Function<? super T, ? extends U> mapper) {
+        return narrowErr();
+    }
+
+    @Override
+    public <U> Box<U> flatMap(Function<? super T, ? extends Box<? extends U>> mapper) {
+        return narrowErr();
+    }
+
+    @Override
+    public Box<T> mapErr(Function<? super ErrBox<T>, ? extends ErrBox<T>> mapper) {
+        return mapper.apply(this);
+    }
+
+    @Override
+    public Box<T> recover(Function<? super ErrBox<T>, ? extends T> recovery) {
+        return Box.val(recovery.apply(this));
+    }
+
+    @Override
+    public <U> U fold(Function<? super ErrBox<T>, ? extends U> ifErr, Function<? super T, ? extends U> ifVal) {
+        return ifErr.apply(this);
+    }
+
+    @Override
+    public LongBox mapToLong(ToLongFunction<? super T> mapper) {
+        return LongBox.err(this);
+    }
+
+    @Override
+    public Box<T> peek(Consumer<? super T> action) {
+        return this;
+    }
+
+    @Override
+    public Box<T> peekErr(Consumer<? super ErrBox<T>> action) {
+        action.accept(this);
+        return this;
+    }
+
+    @Override
+    public T orElseGet(Supplier<? extends T> other) {
+        return other.get();
+    }
+
+    /**
+     * 启用logErr去重，传null关闭，同时输出旧去重器未输出的汇总
+     *
+     * <pre>{@code
+     * ErrBox.setDeduplicator(new ErrDeduplicator(10, TimeUnit.SECONDS, 1024));
+     * }</pre>
+     */
+    public static void setDeduplicator(ErrDeduplicator deduplicator) {
+        ErrDeduplicator old = ErrBox.deduplicator;
+        ErrBox.deduplicator = deduplicator;
+        if (old != null && old != deduplicator) {
+            old.close();
+        }
+    }
+
+    public static ErrDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
     public abstract String getMsg();
 
-    public abstract void logErr(org.slf4j.Logger logger, String logMsg);
+    public abstract ICodeEnum<?> getErrCode();
+
+    /**
+     * @return 异常，没有时返回null
+     */
+    public abstract Throwable getThrowable();
+
+    /**
+     * 按ERROR级别输出，启用去重时同类错误在窗口内只完整输出一次
+     */
+    public void logErr(org.slf4j.Logger logger, String logMsg) {
+        ErrDeduplicator current = deduplicator;
+        if (current != null && !current.acquire(this, logger, logMsg)) {
+            return;
+        }
+        Throwable throwable = getThrowable();
+        if (throwable == null) {
+            logger.error(logMsg);
+        } else if (!logsStack()) {
+            logger.error("{} {}", logMsg, getThrowStackStr());
+        } else {
+            logger.error(logMsg, throwable);
+        }
+    }
+
+    /**
+     * 输出日志时是否带异常堆栈
+     */
+    boolean logsStack() {
+        return true;
+    }
+
+    /**
+     * 去重用的异常指纹，没有异常时为0
+     */
+    long fingerprint() {
+        return 0;
+    }
 
     public abstract String getThrowStackStr();
 
+    /**
+     * 包含的错误，{@link BoxBatch}累计模式下为各项的错误(按输入顺序)，其余为只含自身的列表
+     */
+    public List<ErrBox<?>> getErrs() {
+        return Collections.singletonList(this);
+    }
+
     /**
      * format msg with flag <pre>
      *     errFlag + ErrCode + msg + throwableMsg(if exist)
@@ -62,7 +235,7 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
      */
     public abstract String prefix(String errFlag);
 
-    private static class ErrMsgBox<T> extends ErrBox<T> implements Serializable {
+    private static final class ErrMsgBox<T> extends ErrBox<T> implements Serializable {
         public final String msg;
         public final ICodeEnum<?> errCode;
 
@@ -77,8 +250,13 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         }
 
         @Override
-        public void logErr(Logger logger, String logMsg) {
-            logger.error(logMsg);
+        public ICodeEnum<?> getErrCode() {
+            return errCode;
+        }
+
+        @Override
+        public Throwable getThrowable() {
+            return null;
         }
 
         @Override
@@ -92,12 +270,13 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         }
     }
 
-    private static class ErrThrowBox<T> extends ErrBox<T> implements Serializable {
+    private static final class ErrThrowBox<T> extends ErrBox<T> implements Serializable {
         public final Throwable throwable;
         public final String msg;
         public final ICodeEnum<?> errCode;
         private String throwStackStr;
         private String msgWithThrow;
+        private long fingerprint;
 
         public ErrThrowBox(ICodeEnum<?> errCode, String msg, Throwable throwable) {
             this.throwable = throwable;
@@ -111,8 +290,21 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         }
 
         @Override
-        public void logErr(Logger logger, String logMsg) {
-            logger.error(logMsg, throwable);
+        public ICodeEnum<?> getErrCode() {
+            return errCode;
+        }
+
+        @Override
+        public Throwable getThrowable() {
+            return throwable;
+        }
+
+        @Override
+        long fingerprint() {
+            if (fingerprint == 0) {
+                fingerprint = ErrDeduplicator.fingerprint(throwable);
+            }
+            return fingerprint;
         }
 
         @Override
@@ -138,5 +330,179 @@ public abstract class ErrBox<T> extends Box<T> implements Serializable {
         }
     }
 
+    /**
+     * 不采集、不输出堆栈的异常错误，用于只借异常传递消息的预期业务错误。
+     * getThrowStackStr及logErr只输出异常链的类型和消息，去重指纹只取异常链的类型
+     */
+    private static final class ErrStacklessBox<T> extends ErrBox<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public final Throwable throwable;
+        public final String msg;
+        public final ICodeEnum<?> errCode;
+        private String throwStackStr;
+
+        public ErrStacklessBox(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+            this.throwable = throwable;
+            this.msg = msg;
+            this.errCode = errCode;
+        }
+
+        @Override
+        public String getMsg() {
+            return msg;
+        }
+
+        @Override
+        public ICodeEnum<?> getErrCode() {
+            return errCode;
+        }
+
+        @Override
+        public Throwable getThrowable() {
+            return throwable;
+        }
+
+        @Override
+        boolean logsStack() {
+            return false;
+        }
+
+        @Override
+        long fingerprint() {
+            long h = 1125899906842597L;
+            for (Throwable t = throwable; t != null; t = t.getCause()) {
+                h = 31 * h + t.getClass().getName().hashCode();
+            }
+            return h;
+        }
+
+        /**
+         * 异常链，如 java.io.IOException: xx; caused by: java.net.SocketException: yy
+         */
+        @Override
+        public String getThrowStackStr() {
+            if (throwStackStr != null) {
+                return throwStackStr;
+            }
+            if (throwable == null) {
+                return msg;
+            }
+            StringBuilder sb = new StringBuilder(128).append(throwable);
+            Throwable cause = throwable.getCause();
+            for (int depth = 0; cause != null && cause != throwable && depth < 8; depth++, cause = cause.getCause()) {
+                sb.append("; caused by: ").append(cause);
+            }
+            throwStackStr = sb.toString();
+            return throwStackStr;
+        }
+
+        @Override
+        public String prefix(String errFlag) {
+            if (throwable == null) {
+                return String.format("%s。 %s.", errCode.formatOfActType(errFlag), msg);
+            }
+            return String.format("%s。 %s.  %s : %s.", errCode.formatOfActType(errFlag), msg, throwable.getMessage(), throwable.getClass().getName());
+        }
+    }
 
+    /**
+     * 多个错误的组合：errCode、异常及去重指纹取首个错误，msg及堆栈信息汇总所有错误
+     */
+    private static final class ErrMultiBox<T> extends ErrBox<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * getThrowStackStr最多展开的错误数
+         */
+        private static final int MAX_RENDERED = 16;
+
+        public final List<ErrBox<?>> errs;
+        private final ErrBox<?> first;
+        private String msg;
+        private String throwStackStr;
+
+        public ErrMultiBox(List<ErrBox<?>> errs) {
+            this.errs = Collections.unmodifiableList(errs);
+            this.first = errs.get(0);
+        }
+
+        @Override
+        public List<ErrBox<?>> getErrs() {
+            return errs;
+        }
+
+        /**
+         * 如 共3个错误, 首个: 订单1无数据
+         */
+        @Override
+        public String getMsg() {
+            if (msg == null) {
+                msg = "共" + errs.size() + "个错误, 首个: " + first.getMsg();
+            }
+            return msg;
+        }
+
+        @Override
+        public ICodeEnum<?> getErrCode() {
+            return first.getErrCode();
+        }
+
+        @Override
+        public Throwable getThrowable() {
+            return first.getThrowable();
+        }
+
+        /**
+         * 输出所有错误的汇总，不带堆栈
+         */
+        @Override
+        public void logErr(org.slf4j.Logger logger, String logMsg) {
+            ErrDeduplicator current = deduplicator;
+            if (current != null && !current.acquire(this, logger, logMsg)) {
+                return;
+            }
+            logger.error("{} {}", logMsg, getThrowStackStr());
+        }
+
+        @Override
+        long fingerprint() {
+            return first.fingerprint();
+        }
+
+        /**
+         * 逐行列出各错误，超过16个时只列出前16个
+         */
+        @Override
+        public String getThrowStackStr() {
+            if (throwStackStr != null) {
+                return throwStackStr;
+            }
+            StringBuilder sb = new StringBuilder(256).append(getMsg());
+            for (int i = 0; i < errs.size() && i < MAX_RENDERED; i++) {
+                ErrBox<?> err = errs.get(i);
+                sb.append(System.lineSeparator()).append('[').append(i).append("] ")
+                        .append(err.getErrCode().name()).append(' ').append(err.getThrowStackStr());
+            }
+            if (errs.size() > MAX_RENDERED) {
+                sb.append(System.lineSeparator()).append("... ").append(errs.size() - MAX_RENDERED).append(" more");
+            }
+            throwStackStr = sb.toString();
+            return throwStackStr;
+        }
+
+        @Override
+        public String prefix(String errFlag) {
+            return String.format("%s。 %s.", getErrCode().formatOfActType(errFlag), getMsg());
+        }
+    }
+
+    /**
+     * 常量错误的注册表，首次使用{@link #constant}时初始化
+     */
+    private static class Constants {
+        private static final int MAX_PER_CODE = 256;
+        private static final Map<ICodeEnum<?>, Map<String, ErrBox<?>>> REGISTRY = new ConcurrentHashMap<>();
+        private static final Map<ICodeEnum<?>, ErrBox<?>> NULL_MSG = new ConcurrentHashMap<>();
+    }
 }
@@ -0,0 +1,245 @@
+package com.yl.design.fun.box;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ErrBox#logErr}的错误风暴去重，按 errCode + msg + 异常指纹(异常类型及栈顶若干帧) 归类：
+ * <pre>
+ *     窗口内首次出现时完整输出
+ *     窗口内重复出现时只计数
+ *     窗口结束后输出一行汇总，写明被省略的次数
+ * </pre>
+ * 计数表为固定大小的开放寻址数组，只用CAS更新，不加锁；表满时不再去重，按原样输出。
+ * 通过{@link ErrBox#setDeduplicator(ErrDeduplicator)}启用
+ *
+ * @author suiwp
+ * @date 2026/10/17 23:40
+ */
+public class ErrDeduplicator implements AutoCloseable {
+    /**
+     * 查找空位或已有项时最多探测的槽数
+     */
+    private static final int MAX_PROBES = 8;
+    /**
+     * 异常指纹取每层异常栈顶的帧数
+     */
+    private static final int FINGERPRINT_FRAMES = 8;
+    private static final int FINGERPRINT_CAUSES = 4;
+
+    private final long windowMillis;
+    private final AtomicReferenceArray<Slot> table;
+    private final int mask;
+    private final ScheduledFuture<?> sweepTask;
+
+    private final LongAdder suppressedCount = new LongAdder();
+    private final LongAdder untrackedCount = new LongAdder();
+
+    /**
+     * @param window   去重窗口
+     * @param unit     时间单位
+     * @param capacity 同时跟踪的错误种类上限，向上取2的幂
+     */
+    public ErrDeduplicator(long window, TimeUnit unit, int capacity) {
+        if (window <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("window and capacity must be positive");
+        }
+        this.windowMillis = unit.toMillis(window);
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        long period = Math.max(windowMillis, 10);
+        this.sweepTask = Sweeper.EXECUTOR.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 判断本次是否需要完整输出，不需要时计入窗口内的省略次数
+     *
+     * @param err    错误
+     * @param logger 汇总输出到该logger
+     * @param logMsg 汇总行使用的日志消息
+     * @return true表示完整输出
+     */
+    public boolean acquire(ErrBox<?> err, Logger logger, String logMsg) {
+        ICodeEnum<?> errCode = err.getErrCode();
+        String msg = err.getMsg();
+        long fingerprint = err.fingerprint();
+        int hash = spread(System.identityHashCode(errCode) * 31 + (msg == null ? 0 : msg.hashCode()) + Long.hashCode(fingerprint));
+        long now = System.currentTimeMillis();
+        Slot expired = null;
+        int expiredIndex = -1;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int index = (hash + i) & mask;
+            Slot slot = table.get(index);
+            if (slot == null) {
+                Slot created = new Slot(errCode, msg, fingerprint, hash, logger, logMsg, now);
+                if (table.compareAndSet(index, null, created)) {
+                    return true;
+                }
+                slot = table.get(index);
+                if (slot == null) {
+                    // 刚被清理，按未跟踪处理
+                    continue;
+                }
+            }
+            if (slot.matches(errCode, msg, fingerprint, hash)) {
+                return slot.acquire(now);
+            }
+            if (expired == null && slot.isIdle(now)) {
+                expired = slot;
+                expiredIndex = i;
+            }
+        }
+        if (expired != null) {
+            // 探测范围内都被占用时替换一个已过期的项
+            int index = (hash + expiredIndex) & mask;
+            expired.summarize();
+            if (table.compareAndSet(index, expired, new Slot(errCode, msg, fingerprint, hash, logger, logMsg, now))) {
+                return true;
+            }
+        }
+        untrackedCount.increment();
+        return true;
+    }
+
+    /**
+     * 输出所有已结束窗口的汇总，并清理空闲的项
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < table.length(); i++) {
+            Slot slot = table.get(i);
+            if (slot == null || now - slot.windowStart.get() < windowMillis) {
+                continue;
+            }
+            slot.summarize();
+            if (slot.isIdle(now)) {
+                table.compareAndSet(i, slot, null);
+            }
+        }
+    }
+
+    /**
+     * 停止后台汇总，并输出所有未输出的汇总
+     */
+    @Override
+    public void close() {
+        sweepTask.cancel(false);
+        for (int i = 0; i < table.length(); i++) {
+            Slot slot = table.get(i);
+            if (slot != null) {
+                slot.summarize();
+            }
+        }
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
+    /**
+     * 表满未能去重、按原样输出的次数
+     */
+    public long getUntrackedCount() {
+        return untrackedCount.sum();
+    }
+
+    /**
+     * 异常指纹：各层异常的类型及栈顶若干帧，不含异常消息，消息中常带有变化的参数
+     */
+    static long fingerprint(Throwable throwable) {
+        long h = 1125899906842597L;
+        Throwable t = throwable;
+        for (int depth = 0; t != null && depth < FINGERPRINT_CAUSES; depth++, t = t.getCause()) {
+            h = 31 * h + t.getClass().getName().hashCode();
+            StackTraceElement[] frames = t.getStackTrace();
+            for (int i = 0; i < frames.length && i < FINGERPRINT_FRAMES; i++) {
+                h = 31 * h + frames[i].hashCode();
+            }
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private class Slot {
+        private final ICodeEnum<?> errCode;
+        private final String msg;
+        private final long fingerprint;
+        private final int hash;
+        private final Logger logger;
+        private final String logMsg;
+        private final AtomicLong windowStart;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Slot(ICodeEnum<?> errCode, String msg, long fingerprint, int hash, Logger logger, String logMsg, long now) {
+            this.errCode = errCode;
+            this.msg = msg;
+            this.fingerprint = fingerprint;
+            this.hash = hash;
+            this.logger = logger;
+            this.logMsg = logMsg;
+            this.windowStart = new AtomicLong(now);
+        }
+
+        private boolean matches(ICodeEnum<?> errCode, String msg, long fingerprint, int hash) {
+            return this.hash == hash && this.errCode == errCode && this.fingerprint == fingerprint
+                    && (this.msg == null ? msg == null : this.msg.equals(msg));
+        }
+
+        private boolean acquire(long now) {
+            long start = windowStart.get();
+            if (now - start < windowMillis) {
+                suppressed.incrementAndGet();
+                suppressedCount.increment();
+                return false;
+            }
+            if (windowStart.compareAndSet(start, now)) {
+                // 开启新窗口的线程输出上个窗口的汇总及本次错误
+                summarize();
+                return true;
+            }
+            suppressed.incrementAndGet();
+            suppressedCount.increment();
+            return false;
+        }
+
+        /**
+         * 超过两个窗口没有出现，可以清理
+         */
+        private boolean isIdle(long now) {
+            return now - windowStart.get() >= windowMillis << 1 && suppressed.get() == 0;
+        }
+
+        private void summarize() {
+            long count = suppressed.getAndSet(0);
+            if (count > 0) {
+                logger.warn("{}。 {}ms内重复{}次，已省略", logMsg, windowMillis, count);
+            }
+        }
+    }
+
+    /**
+     * 所有去重器共享的汇总线程
+     */
+    private static class Sweeper {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "err-dedup-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -12,6 +12,14 @@ public interface ICodeEnum<E extends Enum<E>> {
     String name();
 
     enum Default implements ICodeEnum<Default> {
-        OK
+        OK,
+        /**
+         * {@link BoxFuture#timeout}的默认错误码
+         */
+        TIMEOUT_ERR,
+        /**
+         * 异步阶段抛出异常或future异常完成
+         */
+        ASYNC_ERR
     }
 }
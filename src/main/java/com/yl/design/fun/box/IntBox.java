@@ -0,0 +1,157 @@
+package com.yl.design.fun.box;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link Box}的int特化版本，值不装箱，错误与Box共用{@link ErrBox}。
+ * -128~1023的值使用缓存实例，其余值创建一个不装箱的实例
+ *
+ * <pre>{@code
+ * IntBox count = IntBox.val(rows.size());
+ * int total = count.map(v -> v + 1).foldInt(err -> 0, v -> v);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:05
+ */
+public final class IntBox implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final IntBox[] CACHE = new IntBox[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new IntBox(i + CACHE_LOW, null);
+        }
+    }
+
+    private final int val;
+    /**
+     * 不为null时表示错误
+     */
+    private final ErrBox<?> err;
+
+    private IntBox(int val, ErrBox<?> err) {
+        this.val = val;
+        this.err = err;
+    }
+
+    public static IntBox val(int val) {
+        if (val >= CACHE_LOW && val <= CACHE_HIGH) {
+            return CACHE[val - CACHE_LOW];
+        }
+        return new IntBox(val, null);
+    }
+
+    public static IntBox err(ErrBox<?> err) {
+        if (err == null) {
+            throw new IllegalArgumentException("err is null");
+        }
+        return new IntBox(0, err);
+    }
+
+    public static IntBox err(ICodeEnum<?> errCode, String msg) {
+        return err(ErrBox.msgBox(errCode, msg));
+    }
+
+    public static IntBox err(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+        return err(ErrBox.throwBox(errCode, msg, throwable));
+    }
+
+    /**
+     * 由{@code Box<Integer>}转换，错误时共用同一个ErrBox
+     *
+     * @throws NullPointerException 值为null时
+     */
+    public static IntBox unbox(Box<? extends Integer> box) {
+        return box.isErr() ? err(box.toErrBox()) : val(box.getVal());
+    }
+
+    public boolean isErr() {
+        return err != null;
+    }
+
+    public boolean isRight() {
+        return err == null;
+    }
+
+    /**
+     * @throws NoSuchElementException 错误时
+     */
+    public int getAsInt() {
+        if (err != null) {
+            throw new NoSuchElementException("IntBox is err: " + err.getMsg());
+        }
+        return val;
+    }
+
+    public int orElse(int other) {
+        return err == null ? val : other;
+    }
+
+    /**
+     * 值时返回{@link ErrBox#EMPTY}
+     */
+    public ErrBox<Integer> toErrBox() {
+        return err == null ? ErrBox.EMPTY.narrowErr() : err.narrowErr();
+    }
+
+    public Box<Integer> boxed() {
+        return err == null ? Box.val(val) : err.narrowErr();
+    }
+
+    /**
+     * 映射值，错误时返回当前实例
+     */
+    public IntBox map(IntUnaryOperator mapper) {
+        if (err != null) {
+            return this;
+        }
+        int mapped = mapper.applyAsInt(val);
+        return mapped == val ? this : val(mapped);
+    }
+
+    /**
+     * 映射为对象值，错误时返回同一个ErrBox实例
+     */
+    public <U> Box<U> mapToObj(IntFunction<? extends U> mapper) {
+        return err == null ? Box.val(mapper.apply(val)) : err.narrowErr();
+    }
+
+    public IntBox flatMap(IntFunction<IntBox> mapper) {
+        return err == null ? mapper.apply(val) : this;
+    }
+
+    public IntBox mapErr(Function<? super ErrBox<?>, ? extends ErrBox<?>> mapper) {
+        return err == null ? this : err(mapper.apply(err));
+    }
+
+    public IntBox recover(ToIntFunction<? super ErrBox<?>> recovery) {
+        return err == null ? this : val(recovery.applyAsInt(err));
+    }
+
+    public <U> U fold(Function<? super ErrBox<?>, ? extends U> ifErr, IntFunction<? extends U> ifVal) {
+        return err == null ? ifVal.apply(val) : ifErr.apply(err);
+    }
+
+    /**
+     * 结果为int的fold，不装箱
+     */
+    public int foldInt(ToIntFunction<? super ErrBox<?>> ifErr, IntUnaryOperator ifVal) {
+        return err == null ? ifVal.applyAsInt(val) : ifErr.applyAsInt(err);
+    }
+
+    public IntBox peek(IntConsumer action) {
+        if (err == null) {
+            action.accept(val);
+        }
+        return this;
+    }
+}
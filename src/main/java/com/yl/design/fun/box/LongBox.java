@@ -0,0 +1,157 @@
+package com.yl.design.fun.box;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link Box}的long特化版本，值不装箱，错误与Box共用{@link ErrBox}。
+ * -128~1023的值(计数、偏移量等)使用缓存实例，其余值创建一个不装箱的实例
+ *
+ * <pre>{@code
+ * LongBox size = LongBox.val(file.length());
+ * long total = size.map(v -> v + header).foldLong(err -> 0L, v -> v);
+ * }</pre>
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:00
+ */
+public final class LongBox implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final LongBox[] CACHE = new LongBox[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new LongBox(i + CACHE_LOW, null);
+        }
+    }
+
+    private final long val;
+    /**
+     * 不为null时表示错误
+     */
+    private final ErrBox<?> err;
+
+    private LongBox(long val, ErrBox<?> err) {
+        this.val = val;
+        this.err = err;
+    }
+
+    public static LongBox val(long val) {
+        if (val >= CACHE_LOW && val <= CACHE_HIGH) {
+            return CACHE[(int) val - CACHE_LOW];
+        }
+        return new LongBox(val, null);
+    }
+
+    public static LongBox err(ErrBox<?> err) {
+        if (err == null) {
+            throw new IllegalArgumentException("err is null");
+        }
+        return new LongBox(0, err);
+    }
+
+    public static LongBox err(ICodeEnum<?> errCode, String msg) {
+        return err(ErrBox.msgBox(errCode, msg));
+    }
+
+    public static LongBox err(ICodeEnum<?> errCode, String msg, Throwable throwable) {
+        return err(ErrBox.throwBox(errCode, msg, throwable));
+    }
+
+    /**
+     * 由{@code Box<Long>}转换，错误时共用同一个ErrBox
+     *
+     * @throws NullPointerException 值为null时
+     */
+    public static LongBox unbox(Box<? extends Long> box) {
+        return box.isErr() ? err(box.toErrBox()) : val(box.getVal());
+    }
+
+    public boolean isErr() {
+        return err != null;
+    }
+
+    public boolean isRight() {
+        return err == null;
+    }
+
+    /**
+     * @throws NoSuchElementException 错误时
+     */
+    public long getAsLong() {
+        if (err != null) {
+            throw new NoSuchElementException("LongBox is err: " + err.getMsg());
+        }
+        return val;
+    }
+
+    public long orElse(long other) {
+        return err == null ? val : other;
+    }
+
+    /**
+     * 值时返回{@link ErrBox#EMPTY}
+     */
+    public ErrBox<Long> toErrBox() {
+        return err == null ? ErrBox.EMPTY.narrowErr() : err.narrowErr();
+    }
+
+    public Box<Long> boxed() {
+        return err == null ? Box.val(val) : err.narrowErr();
+    }
+
+    /**
+     * 映射值，错误时返回当前实例
+     */
+    public LongBox map(LongUnaryOperator mapper) {
+        if (err != null) {
+            return this;
+        }
+        long mapped = mapper.applyAsLong(val);
+        return mapped == val ? this : val(mapped);
+    }
+
+    /**
+     * 映射为对象值，错误时返回同一个ErrBox实例
+     */
+    public <U> Box<U> mapToObj(LongFunction<? extends U> mapper) {
+        return err == null ? Box.val(mapper.apply(val)) : err.narrowErr();
+    }
+
+    public LongBox flatMap(LongFunction<LongBox> mapper) {
+        return err == null ? mapper.apply(val) : this;
+    }
+
+    public LongBox mapErr(Function<? super ErrBox<?>, ? extends ErrBox<?>> mapper) {
+        return err == null ? this : err(mapper.apply(err));
+    }
+
+    public LongBox recover(ToLongFunction<? super ErrBox<?>> recovery) {
+        return err == null ? this : val(recovery.applyAsLong(err));
+    }
+
+    public <U> U fold(Function<? super ErrBox<?>, ? extends U> ifErr, LongFunction<? extends U> ifVal) {
+        return err == null ? ifVal.apply(val) : ifErr.apply(err);
+    }
+
+    /**
+     * 结果为long的fold，不装箱
+     */
+    public long foldLong(ToLongFunction<? super ErrBox<?>> ifErr, LongUnaryOperator ifVal) {
+        return err == null ? ifVal.applyAsLong(val) : ifErr.applyAsLong(err);
+    }
+
+    public LongBox peek(LongConsumer action) {
+        if (err == null) {
+            action.accept(val);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,19 @@
+package com.yl.design.fun.box;
+
+/**
+ * 不采集堆栈、不可抑制的异常，只用于携带消息，配合{@link Box#errStackless}表示预期的业务错误，创建开销与普通对象相当
+ *
+ * @author suiwp
+ * @date 2026/10/18 02:45
+ */
+public class StacklessException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StacklessException(String message) {
+        super(message, null, false, false);
+    }
+
+    public StacklessException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
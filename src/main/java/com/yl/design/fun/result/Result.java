@@ -1,8 +1,13 @@
 package com.yl.design.fun.result;
 
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.ICodeEnum;
+
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author suiwp
@@ -146,6 +151,65 @@ public class Result<E extends Enum<E>, V> implements Serializable {
         return val;
     }
 
+    /**
+     * Converts to a {@link Box}. An errCode that does not implement {@link ICodeEnum} is adapted
+     * by its name, with one shared adapter per constant.
+     *
+     * <pre>{@code
+     * Box<Order> order = legacyService.load(id).toBox();
+     * }</pre>
+     *
+     * @return a {@code Box} of the value, or an {@code ErrBox} with the same errCode, msg and throwable
+     */
+    public Box<V> toBox() {
+        if (errCode == null || errCode == Default.OK) {
+            return Box.val(val);
+        }
+        ICodeEnum<?> code = CodeAdapters.of(errCode);
+        return th == null ? Box.err(code, msg) : Box.err(code, msg, th);
+    }
+
+    /**
+     * 未实现ICodeEnum的错误码的适配，同一枚举值共用一个实例，保证ErrBox去重时按引用比较errCode仍然有效
+     */
+    private static class CodeAdapters {
+        private static final Map<Enum<?>, ICodeEnum<?>> ADAPTERS = new ConcurrentHashMap<>();
+
+        private static ICodeEnum<?> of(Enum<?> errCode) {
+            if (errCode instanceof ICodeEnum) {
+                return (ICodeEnum<?>) errCode;
+            }
+            return ADAPTERS.computeIfAbsent(errCode, EnumCode::new);
+        }
+    }
+
+    /**
+     * 按枚举名适配的错误码，可随ErrBox序列化，反序列化后仍为该枚举值共用的实例
+     */
+    private static final class EnumCode implements ICodeEnum<Default>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Enum<?> errCode;
+
+        private EnumCode(Enum<?> errCode) {
+            this.errCode = errCode;
+        }
+
+        @Override
+        public String name() {
+            return errCode.name();
+        }
+
+        @Override
+        public String toString() {
+            return errCode.name();
+        }
+
+        private Object readResolve() {
+            return CodeAdapters.of(errCode);
+        }
+    }
+
     public static class DealErr {
         public static <E extends Enum<E>, V> String getErrMsg(Result<E, V> result) {
             return result.msg;
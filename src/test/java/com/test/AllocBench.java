@@ -0,0 +1,44 @@
+package com.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * 分配量及耗时对比用的计量工具。项目未引入JMH，按最优轮次计时，结果只作相对比较
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:30
+ */
+final class AllocBench {
+    private static final int ROUNDS = 15;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocBench() {
+    }
+
+    /**
+     * 重复执行pass，取最优一轮的耗时及最后一轮的分配字节数
+     *
+     * @param ops  每轮的操作次数
+     * @param pass 执行一轮，返回值被消费，避免计算被消除
+     * @return {ns/op, B/op}
+     */
+    static long[] measure(int ops, LongSupplier pass) {
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        long sink = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            long allocated = THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long start = System.nanoTime();
+            sink += pass.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        }
+        if (sink == 42) {
+            System.out.println(sink);
+        }
+        return new long[]{best / ops, bytes / ops};
+    }
+}
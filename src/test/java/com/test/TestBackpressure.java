@@ -0,0 +1,183 @@
+package com.test;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.yl.config.log.async.BackpressureAppender;
+import com.yl.config.log.async.BackpressurePolicy;
+import com.yl.config.log.async.BoundedQueue;
+import com.yl.config.log.async.SpillStore;
+import com.yl.config.log.metrics.LoggerMetrics;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下游阻塞、异步队列写满时校验各背压策略：block全部写出并记录阻塞时间，blockWithTimeout超时丢弃，
+ * dropBelow、sample只丢弃低级别事件，spill溢写后按顺序回放；以及未关闭的溢写段在进程崩溃后可完整读回
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:50
+ */
+public class TestBackpressure {
+    private static final int EVENTS = 200;
+    private static final int QUEUE_SIZE = 16;
+    /**
+     * 每10个事件中有1个WARN
+     */
+    private static final int WARN_EVERY = 10;
+
+    public static void main(String[] args) throws Exception {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        Pipeline block = new Pipeline(loggerContext, "block", BackpressurePolicy.block(), null);
+        block.openLater(200);
+        block.appendAll(EVENTS);
+        block.stop();
+        System.out.printf("block: written %d/%d, dropped %d, blocked >= 150ms: %s%n",
+                block.size(), EVENTS, block.appender.getDroppedCount(), block.metrics.getBlockedMillis() >= 150);
+
+        // 下游始终阻塞，除队列及工作线程手中的事件外全部超时丢弃
+        Pipeline timeout = new Pipeline(loggerContext, "timeout", BackpressurePolicy.blockWithTimeout(2, TimeUnit.MILLISECONDS), null);
+        timeout.appendAll(EVENTS / 4);
+        long dropped = timeout.appender.getDroppedCount();
+        timeout.gate.countDown();
+        timeout.stop();
+        System.out.printf("blockWithTimeout: written %d + dropped %d = %d, metrics dropped %d, blocked >= %dms: %s%n",
+                timeout.size(), dropped, timeout.size() + dropped, timeout.metrics.getDroppedCount(),
+                dropped * 2, timeout.metrics.getBlockedMillis() >= dropped * 2);
+
+        for (String name : new String[]{"dropBelow", "sample"}) {
+            BackpressurePolicy policy = name.equals("dropBelow")
+                    ? BackpressurePolicy.dropBelow(Level.WARN)
+                    : BackpressurePolicy.sample(Level.WARN, 0);
+            Pipeline pipeline = new Pipeline(loggerContext, name, policy, null);
+            // WARN在队列满时阻塞，下游稍后放开
+            pipeline.openLater(200);
+            pipeline.appendAll(EVENTS);
+            pipeline.stop();
+            long warn = pipeline.sink.stream().filter(e -> e.getLevel() == Level.WARN).count();
+            System.out.printf("%s: written %d + dropped %d = %d, warn written %d/%d, dropped > 0: %s%n",
+                    name, pipeline.size(), pipeline.appender.getDroppedCount(),
+                    pipeline.size() + pipeline.appender.getDroppedCount(), warn, EVENTS / WARN_EVERY,
+                    pipeline.appender.getDroppedCount() > 0);
+        }
+
+        File spillDir = Files.createTempDirectory("test_spill").toFile();
+        Pipeline spill = new Pipeline(loggerContext, "spill", BackpressurePolicy.spill(), spillDir);
+        spill.appendAll(EVENTS);
+        long spilled = spill.appender.getSpilledCount();
+        spill.gate.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (spill.size() < EVENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        System.out.printf("spill: spilled %d, replayed %d, written %d/%d in order: %s, dropped %d%n",
+                spilled, spill.appender.getReplayedCount(), spill.size(), EVENTS, spill.inOrder(), spill.appender.getDroppedCount());
+        spill.stop();
+
+        // 溢写后不停止(模拟进程被kill)，另一个SpillStore直接读取段文件
+        File crashDir = Files.createTempDirectory("test_spill_crash").toFile();
+        Pipeline crash = new Pipeline(loggerContext, "crash", BackpressurePolicy.spill(), crashDir);
+        crash.appendAll(EVENTS);
+        List<ILoggingEvent> recovered = new ArrayList<>();
+        new SpillStore(crashDir).replay(recovered::add);
+        System.out.printf("spill after crash: recovered %d/%d%n", recovered.size(), crash.appender.getSpilledCount());
+        crash.gate.countDown();
+    }
+
+    /**
+     * 背压 -> AsyncAppender(16) -> 在gate放开前阻塞的下游
+     */
+    private static class Pipeline {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final List<ILoggingEvent> sink = new ArrayList<>();
+        private final LoggerMetrics metrics;
+        private final BackpressureAppender appender;
+        private final Logger logger;
+
+        Pipeline(LoggerContext loggerContext, String name, BackpressurePolicy policy, File spillDir) {
+            AppenderBase<ILoggingEvent> gated = new AppenderBase<ILoggingEvent>() {
+                @Override
+                protected void append(ILoggingEvent event) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    synchronized (sink) {
+                        sink.add(event);
+                    }
+                }
+            };
+            gated.setContext(loggerContext);
+            gated.start();
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setName("test_backpressure_" + name);
+            async.setQueueSize(QUEUE_SIZE);
+            async.setDiscardingThreshold(0);
+            async.setMaxFlushTime(0);
+            async.addAppender(gated);
+            async.start();
+            metrics = new LoggerMetrics(name);
+            appender = new BackpressureAppender(async, BoundedQueue.of(async), policy);
+            appender.setContext(loggerContext);
+            appender.setName(name);
+            appender.setMetrics(metrics);
+            appender.setSpillDir(spillDir);
+            appender.start();
+            logger = loggerContext.getLogger("test_backpressure_" + name);
+        }
+
+        void openLater(long millis) {
+            Thread opener = new Thread(() -> {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                gate.countDown();
+            });
+            opener.setDaemon(true);
+            opener.start();
+        }
+
+        void appendAll(int events) {
+            for (int i = 0; i < events; i++) {
+                Level level = i % WARN_EVERY == 0 ? Level.WARN : Level.INFO;
+                appender.doAppend(new LoggingEvent(Logger.FQCN, logger, level, "第{}条", null, new Object[]{i}));
+            }
+        }
+
+        void stop() {
+            appender.stop();
+        }
+
+        int size() {
+            synchronized (sink) {
+                return sink.size();
+            }
+        }
+
+        boolean inOrder() {
+            synchronized (sink) {
+                for (int i = 0; i < sink.size(); i++) {
+                    if (!sink.get(i).getFormattedMessage().equals("第" + i + "条")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+}
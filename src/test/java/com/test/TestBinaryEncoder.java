@@ -0,0 +1,116 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.encoder.BinaryLogConverter;
+import com.yl.config.log.encoder.BinaryLogEncoder;
+import com.yl.config.log.encoder.ByteBuilder;
+import com.yl.config.log.encoder.FastPatternEncoder;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 对比PatternLayoutEncoder与BinaryLogEncoder的编码耗时及输出大小，并校验二进制转换回文本后与原格式一致
+ *
+ * @author suiwp
+ * @date 2026/10/17 22:55
+ */
+public class TestBinaryEncoder {
+    private static final int EVENTS = 100_000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws IOException {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setContext(loggerContext);
+        patternEncoder.setPattern(LogProfile.DEFAULT_PATTERN);
+        patternEncoder.setCharset(StandardCharsets.UTF_8);
+        patternEncoder.start();
+        FastPatternEncoder fastEncoder = new FastPatternEncoder();
+        fastEncoder.setContext(loggerContext);
+        fastEncoder.start();
+
+        LoggingEvent[] events = createEvents(loggerContext);
+
+        // 正确性：二进制转换回文本后与FastPatternEncoder逐字节一致
+        ByteBuilder text = new ByteBuilder(1 << 20);
+        ByteBuilder binary = new ByteBuilder(1 << 20);
+        BinaryLogEncoder binaryEncoder = newBinaryEncoder(loggerContext, binary);
+        for (LoggingEvent event : events) {
+            fastEncoder.encode(event, text);
+            binaryEncoder.encode(event, binary);
+        }
+        ByteArrayOutputStream converted = new ByteArrayOutputStream(text.length());
+        new BinaryLogConverter().convert(new ByteArrayInputStream(binary.array(), 0, binary.length()), converted);
+        System.out.println("same output after convert: "
+                + new String(text.array(), 0, text.length(), StandardCharsets.UTF_8).equals(converted.toString("UTF-8")));
+        System.out.printf("text: %d B/event   binary: %d B/event%n", text.length() / EVENTS, binary.length() / EVENTS);
+
+        ByteBuilder out = new ByteBuilder(1024);
+        for (int round = 0; round < 3; round++) {
+            long patternNanos = time(() -> {
+                for (LoggingEvent event : events) {
+                    patternEncoder.encode(event);
+                }
+            });
+            BinaryLogEncoder encoder = newBinaryEncoder(loggerContext, out);
+            long binaryNanos = time(() -> {
+                for (LoggingEvent event : events) {
+                    encoder.encode(event, out.reset());
+                }
+            });
+            System.out.printf("PatternLayoutEncoder: %d ns/event   BinaryLogEncoder: %d ns/event%n",
+                    patternNanos / EVENTS, binaryNanos / EVENTS);
+        }
+    }
+
+    private static LoggingEvent[] createEvents(LoggerContext loggerContext) {
+        LoggingEvent[] events = new LoggingEvent[EVENTS];
+        Logger[] loggers = new Logger[4];
+        for (int i = 0; i < loggers.length; i++) {
+            loggers[i] = loggerContext.getLogger("test_binary_" + i);
+        }
+        StackTraceElement[] callerData = {new StackTraceElement("com.test.OrderService", "finish", "OrderService.java", 128)};
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < EVENTS; i++) {
+            MDC.put("tid", "t-" + (i / 10));
+            Level level = i % 100 == 0 ? Level.WARN : Level.INFO;
+            LoggingEvent event = new LoggingEvent(Logger.FQCN, loggers[i % loggers.length], level,
+                    "订单 {} 处理完成, amount={}", null, new Object[]{i, i * 0.5});
+            event.setThreadName("pool-1-thread-" + (i % 8));
+            event.setTimeStamp(timestamp + i / 20);
+            event.setCallerData(callerData);
+            event.prepareForDeferredProcessing();
+            events[i] = event;
+        }
+        MDC.remove("tid");
+        return events;
+    }
+
+    private static BinaryLogEncoder newBinaryEncoder(LoggerContext loggerContext, ByteBuilder out) {
+        BinaryLogEncoder encoder = new BinaryLogEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+        out.append(encoder.headerBytes());
+        return encoder;
+    }
+
+    private static long time(Runnable encode) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            encode.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
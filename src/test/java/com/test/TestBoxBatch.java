@@ -0,0 +1,120 @@
+package com.test;
+
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.BoxBatch;
+import com.yl.design.fun.box.ErrBox;
+import com.yl.design.fun.box.ICodeEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 校验BoxBatch的结果顺序、FAIL_FAST提前停止、ACCUMULATE累计错误，并对比不同并行度处理10万项的吞吐。
+ * 项目未引入JMH，按最优轮次计时，并行度按核数选取，单核环境下只对比分块调度的开销
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:50
+ */
+public class TestBoxBatch {
+    private static final int ITEMS = 100_000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        List<Integer> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // 正确性：结果按输入顺序
+        Box<List<Long>> ok = BoxBatch.of(BoxBatch.Mode.FAIL_FAST, pool).traverse(items, TestBoxBatch::work);
+        boolean ordered = true;
+        for (int i = 0; i < ITEMS; i++) {
+            ordered &= ok.getVal().get(i).equals(work(i).getVal());
+        }
+        System.out.println("ordered: " + ordered);
+
+        // FAIL_FAST在首个错误后停止
+        AtomicInteger calls = new AtomicInteger();
+        Box<List<Long>> failed = new BoxBatch(BoxBatch.Mode.FAIL_FAST, pool, 4, 100).traverse(items, i -> {
+            calls.incrementAndGet();
+            return i == 1000 ? Box.err(ErrCode.NONE_DATA_ERR, "item " + i) : work(i);
+        });
+        System.out.println("fail-fast: " + failed.toErrBox().getMsg() + ", mapped " + calls.get() + "/" + ITEMS);
+
+        // ACCUMULATE累计全部错误
+        Box<List<Long>> all = BoxBatch.of(BoxBatch.Mode.ACCUMULATE, pool).traverse(items,
+                i -> i % 10_000 == 7 ? Box.err(ErrCode.NONE_DATA_ERR, "item " + i) : work(i));
+        ErrBox<List<Long>> errs = all.toErrBox();
+        System.out.println("accumulate: " + errs.getErrs().size() + " errs, " + errs.getMsg());
+        System.out.println(errs.prefix("批量加载"));
+
+        // mapper异常在调用线程抛出
+        try {
+            BoxBatch.of(BoxBatch.Mode.ACCUMULATE, pool).traverse(items, i -> {
+                if (i == 50_000) {
+                    throw new IllegalStateException("boom");
+                }
+                return work(i);
+            });
+            System.out.println("rethrown: false");
+        } catch (IllegalStateException e) {
+            System.out.println("rethrown: " + e.getMessage());
+        }
+
+        // 在池内线程中嵌套调用不死锁
+        ForkJoinPool single = new ForkJoinPool(1);
+        BoxBatch nested = BoxBatch.of(BoxBatch.Mode.FAIL_FAST, single);
+        int nestedSize = single.submit(() -> nested.traverse(items, TestBoxBatch::work).getVal().size()).join();
+        System.out.println("nested: " + nestedSize);
+        single.shutdown();
+
+        // 单核时并行度大于1只增加调度开销，不做对比
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[] levels = processors > 2 ? new int[]{1, processors / 2, processors} : processors == 2 ? new int[]{1, 2} : new int[]{1};
+        System.out.println("processors: " + processors);
+        for (int round = 0; round < 3; round++) {
+            long inline = time(() -> Box.traverse(items, TestBoxBatch::work));
+            StringBuilder line = new StringBuilder("inline: " + inline / ITEMS + " ns/item");
+            for (int parallelism : levels) {
+                ForkJoinPool p = new ForkJoinPool(parallelism);
+                BoxBatch batch = BoxBatch.of(BoxBatch.Mode.FAIL_FAST, p);
+                long nanos = time(() -> batch.traverse(items, TestBoxBatch::work));
+                line.append("   parallelism ").append(parallelism).append(": ").append(nanos / ITEMS).append(" ns/item");
+                p.shutdown();
+            }
+            System.out.println(line);
+        }
+        if (processors <= 1) {
+            System.out.println("availableProcessors = 1: parallel speedup not measured, parallelism 1 shows the chunking overhead only");
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * 约数百纳秒的计算
+     */
+    private static Box<Long> work(int i) {
+        long h = i;
+        for (int k = 0; k < 200; k++) {
+            h = h * 6364136223846793005L + 1442695040888963407L;
+        }
+        return Box.val(h);
+    }
+
+    private static long time(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        NONE_DATA_ERR
+    }
+}
@@ -0,0 +1,96 @@
+package com.test;
+
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.ICodeEnum;
+
+/**
+ * 对比5步Box组合子管道与手写if/else分支的耗时及每次调用的分配字节数，输入中约10%在不同步骤出错。
+ * 计量方式见{@link AllocBench}
+ *
+ * @author suiwp
+ * @date 2026/10/18 02:20
+ */
+public class TestBoxCombinator {
+    private static final int OPS = 1_000_000;
+
+    public static void main(String[] args) {
+        String[] inputs = new String[1024];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = i % 31 == 0 ? "x" + i : i % 37 == 0 ? "-" + i : String.valueOf(i);
+        }
+        // 正确性：两种写法结果一致
+        for (String input : inputs) {
+            if (combinator(input) != handWritten(input)) {
+                throw new IllegalStateException("mismatch: " + input);
+            }
+        }
+        for (int round = 0; round < 3; round++) {
+            long[] handWritten = run(inputs, false);
+            long[] combinator = run(inputs, true);
+            System.out.printf("hand-written: %d ns/op %d B/op   combinator: %d ns/op %d B/op%n",
+                    handWritten[0], handWritten[1], combinator[0], combinator[1]);
+        }
+    }
+
+    private static long[] run(String[] inputs, boolean useCombinator) {
+        return AllocBench.measure(OPS, () -> {
+            long sink = 0;
+            for (int i = 0; i < OPS; i++) {
+                String input = inputs[i & (inputs.length - 1)];
+                sink += useCombinator ? combinator(input) : handWritten(input);
+            }
+            return sink;
+        });
+    }
+
+    private static long combinator(String input) {
+        return parse(input)
+                .flatMap(TestBoxCombinator::positive)
+                .mapToLong(v -> v * 3L)
+                .peek(TestBoxCombinator::audit)
+                .mapErr(err -> err)
+                .foldLong(err -> -1L, v -> v + 1);
+    }
+
+    private static long handWritten(String input) {
+        Box<Integer> parsed = parse(input);
+        if (parsed.isErr()) {
+            return -1L;
+        }
+        Box<Integer> checked = positive(parsed.getVal());
+        if (checked.isErr()) {
+            return -1L;
+        }
+        Box<Long> tripled = Box.val(checked.getVal() * 3L);
+        audit(tripled.getVal());
+        return tripled.getVal() + 1;
+    }
+
+    private static Box<Integer> parse(String input) {
+        int value = 0;
+        boolean negative = input.charAt(0) == '-';
+        for (int i = negative ? 1 : 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return Box.err(ErrCode.FORMAT_ERR, "not a number");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return Box.val(negative ? -value : value);
+    }
+
+    private static Box<Integer> positive(Integer value) {
+        return value >= 0 ? Box.val(value) : Box.err(ErrCode.RANGE_ERR, "negative");
+    }
+
+    private static void audit(long value) {
+        if (value == Long.MIN_VALUE) {
+            throw new IllegalStateException();
+        }
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        FORMAT_ERR,
+        RANGE_ERR,
+    }
+}
@@ -0,0 +1,164 @@
+package com.test;
+
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.BoxFuture;
+import com.yl.design.fun.box.ICodeEnum;
+import com.yl.design.fun.result.Result;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 校验BoxFuture的组合、超时及适配，并对比同样线程数下阻塞式Box调用与BoxFuture处理并发请求的耗时。
+ * IO以固定延迟模拟：阻塞版本sleep，异步版本由定时线程完成future
+ *
+ * @author suiwp
+ * @date 2026/10/18 04:40
+ */
+public class TestBoxFuture {
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 16;
+    private static final long IO_MILLIS = 20;
+
+    private static final ScheduledExecutorService IO = Executors.newScheduledThreadPool(1);
+
+    public static void main(String[] args) {
+        // 正确性
+        Box<String> chained = BoxFuture.val(20)
+                .map(i -> i + 1)
+                .flatMap(i -> asyncCall(i * 2))
+                .flatMapBox(i -> i > 0 ? Box.val("v" + i) : Box.err(ErrCode.CHECK_ERR, "negative"))
+                .join();
+        System.out.println("chained: " + chained.getVal());
+
+        Box<Integer> zipFailFast = asyncCall(1, 200).zip(BoxFuture.<Integer>err(ErrCode.CHECK_ERR, "fast fail"), Integer::sum)
+                .timeout(100, TimeUnit.MILLISECONDS)
+                .join();
+        System.out.println("zip fail-fast: " + zipFailFast.toErrBox().getMsg());
+
+        Box<Integer> any = BoxFuture.any(Arrays.asList(
+                BoxFuture.<Integer>err(ErrCode.CHECK_ERR, "replica 1 down"),
+                asyncCall(7),
+                asyncCall(8).timeout(1, TimeUnit.MILLISECONDS))).join();
+        System.out.println("any: " + any.getVal());
+        Box<Integer> anyErr = BoxFuture.any(Arrays.asList(
+                BoxFuture.<Integer>err(ErrCode.CHECK_ERR, "replica 1 down"),
+                asyncCall(8).timeout(1, TimeUnit.MILLISECONDS, ErrCode.REPLICA_TIMEOUT))).join();
+        System.out.println("any all failed: " + anyErr.toErrBox().getErrs().size() + " errs, " + anyErr.toErrBox().prefix("查询"));
+
+        Box<Integer> timeout = asyncCall(1).timeout(1, TimeUnit.MILLISECONDS, ErrCode.REPLICA_TIMEOUT).join();
+        System.out.println("timeout: " + timeout.toErrBox().prefix("查询"));
+        String[] stageThread = new String[1];
+        asyncCall(1).timeout(1, TimeUnit.MILLISECONDS).onComplete(box -> stageThread[0] = Thread.currentThread().getName()).join();
+        System.out.println("timeout stage on timer thread: " + "box-future-timer".equals(stageThread[0]));
+
+        CompletableFuture<Integer> failing = new CompletableFuture<>();
+        failing.completeExceptionally(new IllegalStateException("boom"));
+        Box<Integer> adapted = BoxFuture.fromFuture(failing).map(i -> i + 1).join();
+        System.out.println("adapted: " + adapted.toErrBox().getErrCode() + " " + adapted.toErrBox().getThrowable());
+
+        Box<Integer> fromResult = BoxFuture.of(Result.<ErrCode, Integer>err(ErrCode.CHECK_ERR, "legacy")).join();
+        Box<Integer> fromResultVal = BoxFuture.of(Result.<ErrCode, Integer>val(5)).join();
+        System.out.println("result: " + fromResult.toErrBox().getErrCode() + ", " + fromResultVal.getVal());
+        // 未实现ICodeEnum的错误码按名称适配，可随ErrBox序列化
+        Box<Integer> legacy = BoxFuture.of(Result.<LegacyCode, Integer>err(LegacyCode.LEGACY_ERR, "legacy")).join();
+        Box<?> copy = copy(legacy);
+        System.out.println("legacy code: " + copy.toErrBox().getErrCode() + ", same adapter: "
+                + (copy.toErrBox().getErrCode() == legacy.toErrBox().getErrCode()));
+
+        // 吞吐：每个请求依次调用两次IO，并与另一次IO并行
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int round = 0; round < 3; round++) {
+            long blocking = time(() -> {
+                List<CompletableFuture<Box<Integer>>> results = new ArrayList<>(REQUESTS);
+                for (int i = 0; i < REQUESTS; i++) {
+                    int id = i;
+                    results.add(CompletableFuture.supplyAsync(() -> {
+                        Box<Integer> first = blockingCall(id);
+                        Box<Integer> second = first.flatMap(TestBoxFuture::blockingCall);
+                        Box<Integer> other = blockingCall(id);
+                        return second.flatMap(s -> other.map(o -> s + o));
+                    }, pool));
+                }
+                results.forEach(CompletableFuture::join);
+            });
+            long async = time(() -> {
+                List<BoxFuture<Integer>> results = new ArrayList<>(REQUESTS);
+                for (int i = 0; i < REQUESTS; i++) {
+                    int id = i;
+                    results.add(BoxFuture.supplyAsync(() -> Box.val(id), pool)
+                            .flatMap(TestBoxFuture::asyncCall)
+                            .flatMap(TestBoxFuture::asyncCall)
+                            .zip(asyncCall(id), Integer::sum));
+                }
+                results.forEach(BoxFuture::join);
+            });
+            System.out.printf("%d requests on %d threads   blocking Box: %d ms   BoxFuture: %d ms%n",
+                    REQUESTS, THREADS, blocking, async);
+        }
+        pool.shutdown();
+        IO.shutdown();
+    }
+
+    private static Box<Integer> blockingCall(int i) {
+        sleep(IO_MILLIS);
+        return Box.val(i + 1);
+    }
+
+    private static BoxFuture<Integer> asyncCall(int i) {
+        return asyncCall(i, IO_MILLIS);
+    }
+
+    private static BoxFuture<Integer> asyncCall(int i, long millis) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        IO.schedule(() -> future.complete(i + 1), millis, TimeUnit.MILLISECONDS);
+        return BoxFuture.fromFuture(future);
+    }
+
+    private static Box<?> copy(Box<?> box) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(box);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (Box<?>) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long time(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        CHECK_ERR, REPLICA_TIMEOUT
+    }
+
+    enum LegacyCode {
+        LEGACY_ERR
+    }
+}
@@ -0,0 +1,114 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.yl.config.log.ConsoleMode;
+import com.yl.config.log.LogAppenderConfig;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.console.ConsoleLimitFilter;
+import com.yl.config.log.metrics.LoggerMetrics;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 校验ConsoleLimitFilter的限流、采样及豁免级别，以及ASYNC控制台模式：
+ * 输出在控制台写线程上完成，限流丢弃计入指标，关闭时排空
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:44
+ */
+public class TestConsole {
+    private static final int PERMITS = 50;
+    private static final int EVENTS = 500;
+    private static final int WARNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = loggerContext.getLogger("test_console");
+
+        // 限流：同一秒内只放行PERMITS条INFO，WARN不受限
+        ConsoleLimitFilter limit = new ConsoleLimitFilter(PERMITS, 1, Level.WARN);
+        awaitSecondStart();
+        for (int i = 0; i < EVENTS; i++) {
+            limit.decide(event(logger, Level.INFO, i));
+        }
+        for (int i = 0; i < WARNS; i++) {
+            limit.decide(event(logger, Level.WARN, i));
+        }
+        System.out.printf("limit: passed %d (expected %d), limited %d (expected %d)%n",
+                limit.getPassedCount(), PERMITS + WARNS, limit.getLimitedCount(), EVENTS - PERMITS);
+
+        // 采样：保留约1/4
+        ConsoleLimitFilter sample = new ConsoleLimitFilter(0, 0.25, Level.WARN);
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            sample.decide(event(logger, Level.DEBUG, i));
+        }
+        double kept = (double) sample.getPassedCount() / total;
+        System.out.printf("sample: kept %.3f, within 0.25 +- 0.01: %s, limited %d%n",
+                kept, Math.abs(kept - 0.25) < 0.01, sample.getLimitedCount());
+
+        // ASYNC控制台：捕获System.out，记录实际写出的线程
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        System.setOut(new PrintStream(captured, true) {
+            @Override
+            public void write(byte[] buf, int off, int len) {
+                writerThreads.add(Thread.currentThread().getName());
+                super.write(buf, off, len);
+            }
+        });
+        LoggerMetrics metrics;
+        try {
+            File base = Files.createTempDirectory("test_console").toFile();
+            LogAppenderConfig config = new LogAppenderConfig(base.getPath());
+            config.setDefaultProfile(LogProfile.builder().console(ConsoleMode.ASYNC)
+                    .consoleLimit(PERMITS, 1, Level.WARN).pattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level console-test %m%n").build());
+            org.slf4j.Logger asyncLogger = config.getLogger("async_console");
+            metrics = config.getMetrics("async_console");
+            awaitSecondStart();
+            for (int i = 0; i < EVENTS; i++) {
+                asyncLogger.info("第{}条", i);
+            }
+            for (int i = 0; i < WARNS; i++) {
+                asyncLogger.warn("警告{}", i);
+            }
+            config.close();
+        } finally {
+            System.setOut(stdout);
+        }
+        String output = new String(captured.toByteArray(), StandardCharsets.UTF_8);
+        int info = 0;
+        int warn = 0;
+        for (String line : output.split("\n")) {
+            if (line.contains("console-test")) {
+                info += line.contains("INFO") ? 1 : 0;
+                warn += line.contains("WARN") ? 1 : 0;
+            }
+        }
+        System.out.printf("async console: info %d/%d, warn %d/%d, console dropped %d, written by %s, caller thread: %s%n",
+                info, PERMITS, warn, WARNS, metrics.getConsoleDroppedCount(), writerThreads,
+                writerThreads.contains(Thread.currentThread().getName()));
+    }
+
+    private static LoggingEvent event(Logger logger, Level level, int i) {
+        return new LoggingEvent(Logger.FQCN, logger, level, "第{}条", null, new Object[]{i});
+    }
+
+    /**
+     * 等到下一秒开始，避免限流窗口在循环中切换
+     */
+    private static void awaitSecondStart() throws InterruptedException {
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+    }
+}
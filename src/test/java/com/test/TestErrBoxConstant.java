@@ -0,0 +1,50 @@
+package com.test;
+
+import com.yl.design.fun.box.ErrBox;
+import com.yl.design.fun.box.ICodeEnum;
+
+/**
+ * 校验ErrBox.constant的常量错误注册表：同一(errCode, msg)共用实例，不同errCode互不影响，
+ * null msg可用，每个errCode超过256个msg后按普通错误创建
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:47
+ */
+public class TestErrBoxConstant {
+    private static final int MAX_PER_CODE = 256;
+
+    public static void main(String[] args) {
+        ErrBox<?> noData = ErrBox.constant(ErrCode.NONE_DATA_ERR, "无数据");
+        ErrBox<?> again = ErrBox.constant(ErrCode.NONE_DATA_ERR, new String("无数据"));
+        ErrBox<?> otherCode = ErrBox.constant(ErrCode.IO_ERR, "无数据");
+        System.out.println("same (code, msg): " + (noData == again)
+                + ", other code: " + (noData != otherCode) + ", msg: " + noData.getMsg()
+                + ", code: " + otherCode.getErrCode());
+
+        ErrBox<?> nullMsg = ErrBox.constant(ErrCode.NONE_DATA_ERR, null);
+        System.out.println("null msg: same: " + (nullMsg == ErrBox.constant(ErrCode.NONE_DATA_ERR, null))
+                + ", msg: " + nullMsg.getMsg() + ", other code: " + (nullMsg != ErrBox.constant(ErrCode.IO_ERR, null))
+                + ", not empty msg: " + (nullMsg != ErrBox.constant(ErrCode.NONE_DATA_ERR, "")));
+        try {
+            ErrBox.constant(null, "无数据");
+            System.out.println("null code: no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println("null code: " + e.getMessage());
+        }
+
+        // IO_ERR已缓存1个msg，再填满到256个，之后的msg每次创建新实例，已缓存的仍共用
+        for (int i = 1; i < MAX_PER_CODE; i++) {
+            ErrBox.constant(ErrCode.IO_ERR, "msg-" + i);
+        }
+        ErrBox<?> overflow = ErrBox.constant(ErrCode.IO_ERR, "msg-overflow");
+        System.out.println("over cap: new instance: " + (overflow != ErrBox.constant(ErrCode.IO_ERR, "msg-overflow"))
+                + ", msg: " + overflow.getMsg()
+                + ", cached still shared: " + (ErrBox.constant(ErrCode.IO_ERR, "msg-1") == ErrBox.constant(ErrCode.IO_ERR, "msg-1"))
+                + ", other code unaffected: " + (ErrBox.constant(ErrCode.NONE_DATA_ERR, "x") == ErrBox.constant(ErrCode.NONE_DATA_ERR, "x")));
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        NONE_DATA_ERR,
+        IO_ERR
+    }
+}
@@ -0,0 +1,108 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.ErrBox;
+import com.yl.design.fun.box.ErrDeduplicator;
+import com.yl.design.fun.box.ICodeEnum;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 校验ErrDeduplicator：窗口内重复的错误只完整输出一次，窗口结束后汇总行写明省略次数；
+ * 同类错误按异常指纹区分；计数表满后不再去重，空闲项清理后恢复去重
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:52
+ */
+public class TestErrDeduplicator {
+    private static final long WINDOW_MILLIS = 300;
+    private static final int REPEATS = 100;
+
+    public static void main(String[] args) throws Exception {
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        Logger logger = captureLogger(events);
+
+        // 窗口内重复的错误只完整输出一次，窗口结束后输出汇总
+        ErrDeduplicator deduplicator = new ErrDeduplicator(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 64);
+        ErrBox.setDeduplicator(deduplicator);
+        for (int i = 0; i < REPEATS; i++) {
+            Box.<Void>err(ErrCode.IO_ERR, "写文件失败", ioFailure()).toErrBox().logErr(logger, "导出任务");
+        }
+        int errors = count(events, Level.ERROR);
+        Thread.sleep(WINDOW_MILLIS * 2);
+        deduplicator.sweep();
+        String summary = lastMessage(events, Level.WARN);
+        System.out.printf("window: error lines %d/1, suppressed %d/%d, summary: %s%n",
+                errors, deduplicator.getSuppressedCount(), REPEATS - 1, summary);
+
+        // 新窗口再次完整输出；异常栈不同的同名错误单独计数
+        Box.<Void>err(ErrCode.IO_ERR, "写文件失败", ioFailure()).toErrBox().logErr(logger, "导出任务");
+        Box.<Void>err(ErrCode.IO_ERR, "写文件失败", new IOException("disk full")).toErrBox().logErr(logger, "导出任务");
+        System.out.printf("next window: error lines %d/3%n", count(events, Level.ERROR));
+        ErrBox.setDeduplicator(null);
+
+        // 容量8：8种错误占满计数表后，其余错误按原样输出且不计入省略
+        ErrDeduplicator small = new ErrDeduplicator(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 8);
+        int kinds = 20;
+        int full = 0;
+        for (int round = 0; round < 2; round++) {
+            for (int k = 0; k < kinds; k++) {
+                full += small.acquire(ErrBox.constant(ErrCode.IO_ERR, "错误" + k), logger, "任务" + k) ? 1 : 0;
+            }
+        }
+        System.out.printf("overflow: logged %d/%d, suppressed %d, untracked %d%n",
+                full, 8 + 2 * (kinds - 8), small.getSuppressedCount(), small.getUntrackedCount());
+
+        // 两个窗口没有出现的项被清理，之后的错误重新去重
+        Thread.sleep(WINDOW_MILLIS * 3);
+        small.sweep();
+        ErrBox<Void> late = ErrBox.constant(ErrCode.IO_ERR, "错误19");
+        boolean first = small.acquire(late, logger, "任务19");
+        boolean repeat = small.acquire(late, logger, "任务19");
+        System.out.printf("after sweep: first logged %s, repeat suppressed %s, untracked %d%n",
+                first, !repeat, small.getUntrackedCount());
+        small.close();
+    }
+
+    private static IOException ioFailure() {
+        return new IOException("no space left on device");
+    }
+
+    private static Logger captureLogger(ListAppender<ILoggingEvent> events) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        events.setContext(loggerContext);
+        events.start();
+        Logger logger = loggerContext.getLogger("test_err_dedup");
+        logger.setAdditive(false);
+        logger.addAppender(events);
+        return logger;
+    }
+
+    private static int count(ListAppender<ILoggingEvent> events, Level level) {
+        synchronized (events.list) {
+            return (int) events.list.stream().filter(e -> e.getLevel() == level).count();
+        }
+    }
+
+    private static String lastMessage(ListAppender<ILoggingEvent> events, Level level) {
+        synchronized (events.list) {
+            for (int i = events.list.size() - 1; i >= 0; i--) {
+                if (events.list.get(i).getLevel() == level) {
+                    return events.list.get(i).getFormattedMessage();
+                }
+            }
+            return null;
+        }
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        IO_ERR
+    }
+}
@@ -0,0 +1,94 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.yl.config.log.caller.LocationAwareEncoder;
+import com.yl.config.log.encoder.ByteBuilder;
+import com.yl.config.log.encoder.FastPatternEncoder;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 对比PatternLayoutEncoder与FastPatternEncoder的输出及每个事件的分配字节数，并列出各格式去掉调用位置后的结果
+ *
+ * @author suiwp
+ * @date 2026/10/17 17:05
+ */
+public class TestFastEncoder {
+    private static final int EVENTS = 2_000_000;
+
+    public static void main(String[] args) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        String logPattern = "%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%X{tid}] [%t] %c [%class.%method\\(\\) %line{}L]%n-> %m%n";
+        PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setContext(loggerContext);
+        patternEncoder.setPattern(logPattern);
+        // FastPatternEncoder固定UTF-8，对比时不依赖平台默认编码
+        patternEncoder.setCharset(StandardCharsets.UTF_8);
+        patternEncoder.start();
+        FastPatternEncoder fastEncoder = new FastPatternEncoder();
+        fastEncoder.setContext(loggerContext);
+        fastEncoder.start();
+
+        // 经logger打印，在调用线程上采集调用位置，校验%class.%method %line
+        Logger logger = loggerContext.getLogger("test_encoder");
+        ListAppender<ILoggingEvent> captured = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.getCallerData();
+                event.prepareForDeferredProcessing();
+                super.append(event);
+            }
+        };
+        captured.setContext(loggerContext);
+        captured.start();
+        logger.setAdditive(false);
+        logger.addAppender(captured);
+        MDC.put("tid", "t-10086");
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("订单 {} 处理完成, amount={}", 42, 3.5);
+        MDC.remove("tid");
+        ILoggingEvent event = captured.list.get(0);
+
+        String output = new String(fastEncoder.encode(event), StandardCharsets.UTF_8);
+        System.out.print(output);
+        System.out.println("same output: " + Arrays.equals(patternEncoder.encode(event), fastEncoder.encode(event))
+                + ", caller: " + output.contains("[" + TestFastEncoder.class.getName() + ".main() " + line + "L]"));
+
+        LoggingEvent errEvent = new LoggingEvent(Logger.FQCN, logger, Level.ERROR, "失败", new IllegalStateException("outer", new Exception("inner")), null);
+        errEvent.prepareForDeferredProcessing();
+        System.out.println("same error output: " + Arrays.equals(patternEncoder.encode(errEvent), fastEncoder.encode(errEvent)));
+
+        // 未采集调用位置时使用的格式
+        for (String pattern : new String[]{logPattern, "%d %-5level %C{1}.%M:%L - %m%n", "%d [%t] \\(%file:%line\\) %m%n",
+                "%d [%t %class] %m%n", "%d %caller{2}%m%n", "%d %replace(%caller{1}){'\\n', ''} %m%n"}) {
+            System.out.println("without location: " + pattern + "   ->   " + LocationAwareEncoder.stripLocation(pattern));
+        }
+
+        ByteBuilder out = new ByteBuilder(512);
+        for (int round = 0; round < 3; round++) {
+            long patternBytes = allocatedPerEvent(() -> patternEncoder.encode(event));
+            long fastBytes = allocatedPerEvent(() -> fastEncoder.encode(event, out.reset()));
+            System.out.printf("PatternLayoutEncoder: %d B/event   FastPatternEncoder: %d B/event%n", patternBytes, fastBytes);
+        }
+    }
+
+    private static long allocatedPerEvent(Runnable encode) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < EVENTS; i++) {
+            encode.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / EVENTS;
+    }
+}
@@ -10,6 +10,7 @@ import com.yl.config.log.LogAppenderConfig;
 public class TestLogAppend {
     public static void main(String[] args) {
 //        log();
+        evict();
         t(new String[]{"a", "b"});
         t((String) null);
     }
@@ -23,6 +24,36 @@ public class TestLogAppend {
 
     }
 
+    public static void evict() {
+        LogAppenderConfig logAppenderConfig = new LogAppenderConfig();
+        logAppenderConfig.setMaxLoggerSize(2);
+        for (int i = 0; i < 5; i++) {
+            logAppenderConfig.getLogger("test_log_" + i).info("evict ---------- " + i);
+        }
+        Logger testLog = logAppenderConfig.getLogger("test_log_0");
+        testLog.info("recreate ---------- test_log_0");
+        // 期望 size:2 hit:0 miss:6 eviction:4
+        System.out.printf("size:%s hit:%s miss:%s eviction:%s%n", logAppenderConfig.getLoggerSize(),
+                logAppenderConfig.getHitCount(), logAppenderConfig.getMissCount(), logAppenderConfig.getEvictionCount());
+
+        // 队首test_log_4排队后有过活动，淘汰时移到队尾，改为淘汰test_log_0
+        sleepQuietly(5);
+        logAppenderConfig.getLogger("test_log_4").info("active ---------- test_log_4");
+        sleepQuietly(5);
+        logAppenderConfig.getLogger("test_log_5").info("evict ---------- 5");
+        System.out.printf("kept active test_log_4:%s evicted test_log_0:%s%n",
+                logAppenderConfig.getMetrics("test_log_4") != null, logAppenderConfig.getMetrics("test_log_0") == null);
+        logAppenderConfig.close();
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static void t(String... a) {
         System.out.println(a);
         for (String s : a) {
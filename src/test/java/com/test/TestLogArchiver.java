@@ -0,0 +1,181 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.yl.config.log.archive.LogArchiver;
+import com.yl.config.log.encoder.FastPatternEncoder;
+import com.yl.config.log.index.IndexFiles;
+import com.yl.config.log.index.LogRangeReader;
+import com.yl.config.log.index.MultiplexLogReader;
+import com.yl.config.log.sink.BatchedFileAppender;
+import com.yl.config.log.sink.RolloverPolicy;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多个logger共用的文件滚动出若干归档，经LogArchiver压缩后通过MultiplexLogReader按logger名读回，
+ * 校验名称索引未被压缩、读回的记录与写入的一致、logback复用序号时改用新序号压缩，以及LogArchiver、RolloverPolicy按总大小清理时索引随归档一起删除
+ *
+ * @author suiwp
+ * @date 2026/10/18 05:10
+ */
+public class TestLogArchiver {
+    private static final String[] NAMES = {"tenant_a", "tenant_b", "tenant_c"};
+    private static final int EVENTS = 6000;
+    private static final int REUSED_EVENTS = 100;
+    private static final long RETENTION_CAP = 48 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        File baseDir = Files.createTempDirectory("test_archiver").toFile();
+        File fileDir = new File(baseDir, "_shared");
+        File archiveDir = new File(fileDir, "collection");
+
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        FastPatternEncoder encoder = new FastPatternEncoder();
+        encoder.setContext(loggerContext);
+        encoder.start();
+        LogArchiver archiver = new LogArchiver(baseDir, 2, Long.MAX_VALUE, 7);
+
+        BatchedFileAppender appender = new BatchedFileAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test_archiver");
+        appender.setFile(new File(fileDir, "collection.log"));
+        appender.setEncoder(encoder);
+        appender.setNameIndex(true);
+        appender.setRolloverPolicy(new RolloverPolicy(appender.getFile(), archiveDir, 64 * 1024, 7, Long.MAX_VALUE));
+        appender.setArchiveListener(archiver::submit);
+        appender.start();
+
+        Map<String, List<String>> expected = new HashMap<>();
+        for (int i = 0; i < EVENTS; i++) {
+            String name = NAMES[i % NAMES.length];
+            Logger logger = loggerContext.getLogger(name);
+            LoggingEvent event = new LoggingEvent(Logger.FQCN, logger, Level.INFO, "{} 第{}条", null, new Object[]{name, i});
+            appender.doAppend(event);
+            expected.computeIfAbsent(name, k -> new ArrayList<>()).add(new String(encoder.encode(event), StandardCharsets.UTF_8));
+        }
+        appender.stop();
+        archiver.scan();
+        waitCompressed(archiveDir);
+
+        String[] files = archiveDir.list();
+        int gz = 0;
+        int nameIndexes = 0;
+        boolean compressedIndex = false;
+        for (String file : files) {
+            gz += file.endsWith(".log.gz") ? 1 : 0;
+            nameIndexes += file.endsWith(".log.nidx") ? 1 : 0;
+            compressedIndex |= file.endsWith(".idx.gz") || file.endsWith(".nidx.gz");
+        }
+        System.out.printf("archives: %d .gz, %d .nidx, compressed index: %s%n", gz, nameIndexes, compressedIndex);
+
+        MultiplexLogReader reader = new MultiplexLogReader(fileDir);
+        for (String name : NAMES) {
+            List<String> records = reader.read(name);
+            System.out.printf("%s: read %d/%d, same: %s%n", name, records.size(), expected.get(name).size(),
+                    records.equals(expected.get(name)));
+        }
+
+        // logback复用已压缩的序号：写入同名的.log(不带索引)，压缩时改用新序号，已有归档的索引不受影响
+        String[] compressed = archiveDir.list((dir, name) -> name.endsWith(".log.gz"));
+        Arrays.sort(compressed);
+        File reused = new File(archiveDir, compressed[0].substring(0, compressed[0].length() - ".gz".length()));
+        try (OutputStream out = new FileOutputStream(reused)) {
+            Logger logger = loggerContext.getLogger("tenant_x");
+            for (int i = 0; i < REUSED_EVENTS; i++) {
+                out.write(encoder.encode(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "复用序号 第{}条", null, new Object[]{i})));
+            }
+        }
+        archiver.scan();
+        waitCompressed(archiveDir);
+        String[] afterReuse = archiveDir.list((dir, name) -> name.endsWith(".log.gz"));
+        boolean suffixed = false;
+        for (String file : archiveDir.list()) {
+            suffixed |= file.matches(".*\\.log\\.\\d+\\.gz");
+        }
+        List<String> all = new LogRangeReader(fileDir).read(0, Long.MAX_VALUE);
+        List<String> tenantA = reader.read(NAMES[0]);
+        System.out.printf("reused sequence: %d -> %d .gz, .log.N.gz: %s, range read %d/%d, %s same: %s%n",
+                compressed.length, afterReuse.length, suffixed, all.size(), EVENTS + REUSED_EVENTS, NAMES[0], tenantA.equals(expected.get(NAMES[0])));
+
+        // 按总大小清理全部归档，索引随归档删除，不留下孤立的索引
+        new LogArchiver(baseDir, 1, 1, 7).scan();
+        String[] left = archiveDir.list();
+        System.out.println("left after size cap: " + (left == null ? 0 : left.length));
+        archiver.stop();
+
+        retention(loggerContext, encoder);
+    }
+
+    /**
+     * RolloverPolicy按总大小清理时索引计入所属归档，随归档一起删除，不留下孤立的索引
+     */
+    private static void retention(LoggerContext loggerContext, FastPatternEncoder encoder) throws IOException {
+        File fileDir = Files.createTempDirectory("test_retention").toFile();
+        File archiveDir = new File(fileDir, "collection");
+        BatchedFileAppender appender = new BatchedFileAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test_retention");
+        appender.setFile(new File(fileDir, "collection.log"));
+        appender.setEncoder(encoder);
+        appender.setNameIndex(true);
+        RolloverPolicy policy = new RolloverPolicy(appender.getFile(), archiveDir, 16 * 1024, 7, RETENTION_CAP);
+        appender.setRolloverPolicy(policy);
+        appender.start();
+        for (int i = 0; i < EVENTS; i++) {
+            Logger logger = loggerContext.getLogger(NAMES[i % NAMES.length]);
+            appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "保留 第{}条", null, new Object[]{i}));
+        }
+        appender.stop();
+        // 模拟LogArchiver压缩中的临时文件，不计入保留、不被删除
+        File compressing = new File(archiveDir, ".2000-01-01.0.log.gz.tmp");
+        Files.write(compressing.toPath(), new byte[(int) RETENTION_CAP]);
+        policy.applyRetention();
+        boolean tmpKept = compressing.delete();
+
+        long total = 0;
+        int logs = 0;
+        int orphans = 0;
+        for (File file : archiveDir.listFiles()) {
+            total += file.length();
+            if (!IndexFiles.isSidecar(file.getName())) {
+                logs++;
+            } else if (!new File(archiveDir, file.getName().substring(0, file.getName().lastIndexOf('.'))).exists()) {
+                orphans++;
+            }
+        }
+        System.out.printf("retention: %d archives, %d bytes with indexes <= %d: %s, orphan indexes: %d, compressing tmp kept: %s%n",
+                logs, total, RETENTION_CAP, total <= RETENTION_CAP, orphans, tmpKept);
+    }
+
+    /**
+     * 等待归档目录下的日志文件都压缩完成
+     */
+    private static void waitCompressed(File archiveDir) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean done = true;
+            for (String file : archiveDir.list()) {
+                done &= file.endsWith(".gz") || IndexFiles.isSidecar(file);
+            }
+            if (done) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new IOException("archives not compressed in time: " + archiveDir);
+    }
+}
@@ -0,0 +1,105 @@
+package com.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.yl.config.log.ConsoleMode;
+import com.yl.config.log.LogAppenderConfig;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.async.BoundedQueue;
+import com.yl.config.log.metrics.LatencyHistogram;
+import com.yl.config.log.metrics.LoggerMetrics;
+import com.yl.config.log.metrics.MetricsSnapshot;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+/**
+ * 校验LoggerMetrics、LatencyHistogram及JMX：各级别计数、队列高水位、延迟分位，
+ * MBean随logger创建注册，淘汰及关闭时注销
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:58
+ */
+public class TestLoggerMetrics {
+    private static final int PER_LEVEL = 1000;
+
+    public static void main(String[] args) throws Exception {
+        // 延迟分位：1~1000各一次，桶的相对误差不超过1/16
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        System.out.printf("histogram: count %d, p50 %d (500 +- 1/16: %s), p99 %d (990 +- 1/16: %s), max %d%n",
+                histogram.getTotalCount(), p50, Math.abs(p50 - 500) <= 500 / 16, p99, Math.abs(p99 - 990) <= 990 / 16,
+                histogram.getMax());
+
+        // 队列高水位：采样时记录最大深度，重置为重置时的深度后重新计
+        int[] depth = new int[1];
+        LoggerMetrics queueMetrics = new LoggerMetrics("queue");
+        queueMetrics.setQueue(new BoundedQueue() {
+            @Override
+            public int getQueueSize() {
+                return 256;
+            }
+
+            @Override
+            public int getRemainingCapacity() {
+                return 256 - depth[0];
+            }
+        });
+        for (int d : new int[]{10, 200, 30}) {
+            depth[0] = d;
+            queueMetrics.sample();
+        }
+        int highWaterMark = queueMetrics.getQueueHighWaterMark();
+        queueMetrics.resetQueueHighWaterMark();
+        int afterReset = queueMetrics.getQueueHighWaterMark();
+        depth[0] = 40;
+        queueMetrics.sample();
+        System.out.printf("queue: depth %d, high water mark %d/200, after reset %d/30, after next sample %d/40, capacity %d%n",
+                queueMetrics.getQueueDepth(), highWaterMark, afterReset, queueMetrics.getQueueHighWaterMark(),
+                queueMetrics.getQueueCapacity());
+
+        File base = Files.createTempDirectory("test_metrics").toFile();
+        LogAppenderConfig config = new LogAppenderConfig(base.getPath());
+        config.setDefaultProfile(LogProfile.builder().console(ConsoleMode.OFF).build());
+        config.setJmxEnabled(true);
+        Logger logger = config.getLogger("metrics_a");
+        logger.setLevel(Level.TRACE);
+        for (int i = 0; i < PER_LEVEL; i++) {
+            logger.trace("trace {}", i);
+            logger.debug("debug {}", i);
+            logger.info("info {}", i);
+            logger.warn("warn {}", i);
+            logger.error("error {}", i);
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nameA = mBeanName("metrics_a");
+        MetricsSnapshot snapshot = config.snapshotMetrics().get("metrics_a");
+        System.out.printf("snapshot: trace %d, debug %d, info %d, warn %d, error %d (expected %d each), capacity %d%n",
+                snapshot.getTraceCount(), snapshot.getDebugCount(), snapshot.getInfoCount(), snapshot.getWarnCount(),
+                snapshot.getErrorCount(), PER_LEVEL, snapshot.getQueueCapacity());
+        System.out.printf("jmx: registered %s, InfoCount %s%n",
+                server.isRegistered(nameA), server.getAttribute(nameA, "InfoCount"));
+
+        config.getLogger("metrics_b").info("b");
+        ObjectName nameB = mBeanName("metrics_b");
+        boolean registeredB = server.isRegistered(nameB);
+        config.evict("metrics_a");
+        System.out.printf("evict: metrics_a registered %s, metrics_b registered %s%n", server.isRegistered(nameA), registeredB);
+
+        LoggerMetrics metricsB = config.getMetrics("metrics_b");
+        config.close();
+        System.out.printf("close: metrics_b registered %s, latency recorded %d/1, bytes written > 0: %s%n",
+                server.isRegistered(nameB), metricsB.getLatency().getTotalCount(), metricsB.getBytesWritten() > 0);
+    }
+
+    private static ObjectName mBeanName(String logFileName) throws Exception {
+        return new ObjectName("com.yl.config.log:type=DynamicLogger,name=" + ObjectName.quote(logFileName));
+    }
+}
@@ -0,0 +1,73 @@
+package com.test;
+
+import com.yl.config.log.ConsoleMode;
+import com.yl.config.log.LogAppenderConfig;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.index.MultiplexLogReader;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * 多个logger经LogAppenderConfig写入同一个共用文件，关闭后通过名称索引按logger名读回，
+ * 校验各logger的记录条数、顺序及互不混入；以及独占文件的logger与共用文件同名时被拒绝
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:35
+ */
+public class TestMultiplex {
+    private static final String SHARED = "_tenants";
+    private static final int TENANTS = 4;
+    private static final int EVENTS = 500;
+
+    public static void main(String[] args) throws Exception {
+        File base = Files.createTempDirectory("test_multiplex").toFile();
+        LogAppenderConfig config = new LogAppenderConfig(base.getPath());
+        config.setPrefixProfile("tenant_", LogProfile.builder().console(ConsoleMode.OFF).multiplex(SHARED).build());
+        config.setDefaultProfile(LogProfile.builder().console(ConsoleMode.OFF).build());
+
+        for (int i = 0; i < EVENTS; i++) {
+            for (int t = 0; t < TENANTS; t++) {
+                Logger logger = config.getLogger("tenant_" + t);
+                logger.info("tenant {} 第{}条", t, i);
+            }
+        }
+
+        // 共用文件已创建，同名的独占文件logger被拒绝
+        try {
+            config.getLogger(SHARED);
+            System.out.println("dedicated logger named " + SHARED + ": no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println("dedicated logger named " + SHARED + ": " + e.getMessage());
+        }
+
+        // 独占文件logger已存在，同名的共用文件被拒绝
+        config.getLogger("orders").info("dedicated");
+        config.setProfile("late", LogProfile.builder().console(ConsoleMode.OFF).multiplex("orders").build());
+        try {
+            config.getLogger("late");
+            System.out.println("multiplex file named orders: no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println("multiplex file named orders: " + e.getMessage());
+        }
+        config.close();
+
+        File sharedDir = new File(base, SHARED);
+        String[] files = sharedDir.list();
+        System.out.println("shared dir: " + (files == null ? "missing" : String.join(", ", files))
+                + ", tenant dirs created: " + new File(base, "tenant_0").exists());
+
+        MultiplexLogReader reader = new MultiplexLogReader(sharedDir);
+        for (int t = 0; t < TENANTS; t++) {
+            List<String> records = reader.read("tenant_" + t);
+            boolean ordered = records.size() == EVENTS;
+            for (int i = 0; ordered && i < EVENTS; i++) {
+                ordered = records.get(i).contains("tenant " + t + " 第" + i + "条");
+            }
+            System.out.printf("tenant_%d: read %d/%d, own records in order: %s%n", t, records.size(), EVENTS, ordered);
+        }
+        System.out.println("unknown logger: " + reader.read("tenant_x").size() + " records");
+    }
+}
@@ -0,0 +1,106 @@
+package com.test;
+
+import com.yl.design.fun.box.Box;
+import com.yl.design.fun.box.DoubleBox;
+import com.yl.design.fun.box.ICodeEnum;
+import com.yl.design.fun.box.IntBox;
+import com.yl.design.fun.box.LongBox;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 校验IntBox、LongBox、DoubleBox的缓存、错误路径、null值转换及-0.0、NaN的处理，
+ * 并对比计量场景下{@code Box<Long>}与LongBox的分配量及耗时：
+ * 偏移量(大值)每步都要创建新实例，计数(小值)LongBox命中缓存
+ *
+ * @author suiwp
+ * @date 2026/10/18 03:20
+ */
+public class TestPrimitiveBox {
+    private static final int OPS = 1_000_000;
+    private static final int BATCH = 1024;
+
+    public static void main(String[] args) {
+        // 缓存：-128~1023共用实例，映射结果不变时返回当前实例
+        LongBox offset = LongBox.val(1L << 40);
+        System.out.println("cached: " + (LongBox.val(1023) == LongBox.val(1023)) + ", " + (IntBox.val(-128) == IntBox.val(-128))
+                + ", uncached: " + (LongBox.val(1024) != LongBox.val(1024)) + ", same on map: " + (offset.map(v -> v) == offset));
+
+        // 错误路径：map不执行，转换时共用同一个ErrBox
+        Box<Long> errBox = Box.err(ErrCode.NONE_DATA_ERR, "no offset");
+        LongBox err = LongBox.unbox(errBox);
+        boolean[] mapped = new boolean[1];
+        LongBox afterMap = err.map(v -> {
+            mapped[0] = true;
+            return v + 1;
+        });
+        System.out.println("err: " + err.toErrBox().getMsg() + ", same ErrBox: " + (err.toErrBox() == errBox)
+                + ", map skipped: " + (!mapped[0] && afterMap == err) + ", fold: " + err.foldLong(e -> -1L, v -> v)
+                + ", orElse: " + err.orElse(7) + ", boxed back: " + (err.boxed() == errBox));
+        try {
+            err.getAsLong();
+            System.out.println("getAsLong on err: no exception");
+        } catch (NoSuchElementException e) {
+            System.out.println("getAsLong on err: " + e.getMessage());
+        }
+
+        // 值为null的Box不能转换
+        try {
+            LongBox.unbox(Box.<Long>val(null));
+            System.out.println("unbox null: no exception");
+        } catch (NullPointerException e) {
+            System.out.println("unbox null: NullPointerException");
+        }
+
+        // -0.0不使用0.0的缓存实例，保留符号；NaN映射为NaN时返回当前实例
+        DoubleBox zero = DoubleBox.val(0.0);
+        DoubleBox negativeZero = DoubleBox.val(-0.0);
+        DoubleBox flipped = zero.map(v -> -v);
+        DoubleBox nan = DoubleBox.val(Double.NaN);
+        System.out.println("double: 0.0 cached: " + (zero == DoubleBox.val(0.0)) + ", -0.0 cached: " + (negativeZero == zero)
+                + ", -0.0 sign: " + (1 / negativeZero.getAsDouble()) + ", map 0.0 -> -0.0: " + (1 / flipped.getAsDouble())
+                + ", NaN: " + Double.isNaN(nan.getAsDouble()) + ", NaN same on map: " + (nan.map(v -> Double.NaN) == nan));
+
+        for (long base : new long[]{1L << 32, 0}) {
+            String name = base == 0 ? "count(<1024)" : "offset";
+            for (int round = 0; round < 3; round++) {
+                long[] boxed = run(base, false);
+                long[] primitive = run(base, true);
+                System.out.printf("%-12s Box<Long>: %d ns/op %d B/op   LongBox: %d ns/op %d B/op%n",
+                        name, boxed[0], boxed[1], primitive[0], primitive[1]);
+            }
+        }
+    }
+
+    /**
+     * 结果先存入数组再消费，模拟跨层返回，避免逃逸分析消除分配
+     */
+    private static long[] run(long base, boolean primitive) {
+        @SuppressWarnings("unchecked")
+        Box<Long>[] boxes = (Box<Long>[]) new Box<?>[BATCH];
+        LongBox[] longBoxes = new LongBox[BATCH];
+        return AllocBench.measure(OPS, () -> {
+            long sink = 0;
+            for (int i = 0; i < OPS; i += BATCH) {
+                for (int j = 0; j < BATCH; j++) {
+                    long value = base + (j & 511);
+                    if (primitive) {
+                        longBoxes[j] = LongBox.val(value).map(v -> v + 7);
+                    } else {
+                        boxes[j] = Box.val(value).map(v -> v + 7);
+                    }
+                }
+                for (int j = 0; j < BATCH; j++) {
+                    sink += primitive
+                            ? longBoxes[j].foldLong(err -> -1L, v -> v)
+                            : boxes[j].fold(err -> -1L, v -> v);
+                }
+            }
+            return sink;
+        });
+    }
+
+    enum ErrCode implements ICodeEnum<ErrCode> {
+        NONE_DATA_ERR
+    }
+}
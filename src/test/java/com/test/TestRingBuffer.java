@@ -0,0 +1,209 @@
+package com.test;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import com.yl.config.log.async.RingBufferAppender;
+import com.yl.config.log.reload.SwitchableAppender;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 32线程并发打印，对比AsyncAppender(512)与RingBufferAppender的吞吐和调用方p99耗时；
+ * 并校验缓冲区满时停止appender，等待中的调用线程能够返回，以及切换appender时旧缓冲区写完后才创建新appender
+ *
+ * @author suiwp
+ * @date 2026/10/17 11:40
+ */
+public class TestRingBuffer {
+    private static final int THREADS = 32;
+    private static final int EVENTS_PER_THREAD = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        stopWhileFull(loggerContext);
+        switchWhileDraining(loggerContext);
+        for (int i = 0; i < 2; i++) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setDiscardingThreshold(0);
+            asyncAppender.setQueueSize(512);
+            run("AsyncAppender", loggerContext, asyncAppender, asyncAppender);
+
+            RingBufferAppender ringBufferAppender = new RingBufferAppender();
+            run("RingBufferAppender", loggerContext, ringBufferAppender, ringBufferAppender);
+        }
+    }
+
+    private static void run(String name,
+                            LoggerContext loggerContext,
+                            UnsynchronizedAppenderBase<ILoggingEvent> appender,
+                            AppenderAttachable<ILoggingEvent> attachable) throws InterruptedException {
+        NopAppender nop = new NopAppender();
+        nop.setContext(loggerContext);
+        nop.start();
+        appender.setContext(loggerContext);
+        appender.setName(name);
+        attachable.addAppender(nop);
+        appender.start();
+
+        Logger logger = loggerContext.getLogger("bench_" + name);
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+
+        long[][] latencies = new long[THREADS][];
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int idx = t;
+            threads[t] = new Thread(() -> {
+                long[] samples = new long[EVENTS_PER_THREAD];
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    logger.info("bench {} {}", idx, i);
+                    samples[i] = System.nanoTime() - start;
+                }
+                latencies[idx] = samples;
+            });
+            threads[t].start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.stop();
+        long elapsed = System.nanoTime() - start;
+        logger.detachAppender(appender);
+
+        long[] all = new long[THREADS * EVENTS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(latencies[t], 0, all, t * EVENTS_PER_THREAD, EVENTS_PER_THREAD);
+        }
+        Arrays.sort(all);
+        System.out.printf("%-20s events:%d  %.0f events/s  p50:%dns  p99:%dns  p99.9:%dns%n",
+                name, nop.count, nop.count * 1e9 / elapsed,
+                all[all.length / 2], all[(int) (all.length * 0.99)], all[(int) (all.length * 0.999)]);
+    }
+
+    /**
+     * 下游阻塞、缓冲区已满时停止，被阻塞在等待槽位的线程应丢弃事件后返回，而不是等下游恢复
+     */
+    private static void stopWhileFull(LoggerContext loggerContext) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slow.setContext(loggerContext);
+        slow.start();
+        RingBufferAppender appender = new RingBufferAppender();
+        appender.setContext(loggerContext);
+        appender.setName("stop_while_full");
+        appender.setBufferSize(8);
+        appender.setMaxFlushTime(100);
+        appender.addAppender(slow);
+        appender.start();
+
+        Logger logger = loggerContext.getLogger("stop_while_full");
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "full {}", null, new Object[]{i}));
+                }
+            });
+            producers[t].start();
+        }
+        Thread.sleep(200);
+        appender.stop();
+        boolean returned = true;
+        for (Thread producer : producers) {
+            producer.join(5000);
+            returned &= !producer.isAlive();
+        }
+        System.out.printf("stop while full: producers returned: %s, dropped: %d%n", returned, appender.getDroppedCount());
+        release.countDown();
+    }
+
+    /**
+     * 下游较慢、缓冲区积压超过maxFlushTime时切换，新appender应在旧缓冲区写完、旧文件appender停止后才创建
+     */
+    private static void switchWhileDraining(LoggerContext loggerContext) {
+        AtomicInteger written = new AtomicInteger();
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.incrementAndGet();
+            }
+        };
+        slow.setContext(loggerContext);
+        slow.start();
+        RingBufferAppender ring = new RingBufferAppender();
+        ring.setContext(loggerContext);
+        ring.setName("switch_while_draining");
+        ring.setMaxFlushTime(20);
+        ring.addAppender(slow);
+        ring.start();
+        SwitchableAppender appender = new SwitchableAppender(Collections.<Appender<ILoggingEvent>>singletonList(ring));
+        appender.setContext(loggerContext);
+        appender.setName("switch_while_draining");
+        appender.start();
+
+        Logger logger = loggerContext.getLogger("switch_while_draining");
+        int events = 300;
+        for (int i = 0; i < events; i++) {
+            appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "draining {}", null, new Object[]{i}));
+        }
+        boolean[] oldStopped = new boolean[1];
+        appender.switchTo(() -> {
+            oldStopped[0] = !slow.isStarted();
+            NopAppender nop = new NopAppender();
+            nop.setContext(loggerContext);
+            nop.start();
+            return Collections.singletonList(nop);
+        });
+        System.out.printf("switch while draining: old stopped before new created: %s, written %d/%d%n",
+                oldStopped[0], written.get(), events);
+        appender.stop();
+    }
+
+    private static class NopAppender extends AppenderBase<ILoggingEvent> {
+        private long count;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.test;
+
+import com.yl.config.log.ConsoleMode;
+import com.yl.config.log.LogAppenderConfig;
+import com.yl.config.log.LogEncoding;
+import com.yl.config.log.LogProfile;
+import com.yl.config.log.index.LogRangeReader;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 校验分片配置的格式限制、LogRangeReader.merge的合并顺序、分片文件读回后的完整性及时间顺序，
+ * 并对比不同分片数下多线程写入的吞吐
+ *
+ * @author suiwp
+ * @date 2026/10/18 14:40
+ */
+public class TestShardedAppender {
+    private static final int EVENTS_PER_THREAD = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        // 分片读取时按记录开头的时间合并，不以时间开头的格式及二进制编码不能分片
+        for (LogProfile.Builder builder : Arrays.asList(
+                LogProfile.builder().shards(4).pattern("%-5level %d{yyyy-MM-dd HH:mm:ss.SSS} %m%n"),
+                LogProfile.builder().shards(4).encoding(LogEncoding.BINARY))) {
+            try {
+                builder.build();
+                System.out.println("invalid shards profile: no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println("invalid shards profile: " + e.getMessage());
+            }
+        }
+
+        // 时间相同的记录保持分片的传入顺序
+        List<List<String>> parts = Arrays.asList(
+                Arrays.asList("2026-10-18 10:00:00.001 a1", "2026-10-18 10:00:00.003 a2", "2026-10-18 10:00:00.003 a3"),
+                Arrays.asList("2026-10-18 10:00:00.000 b1", "2026-10-18 10:00:00.003 b2", "2026-10-18 10:00:01.000 b3"),
+                new ArrayList<>());
+        List<String> merged = LogRangeReader.merge(parts);
+        List<String> expected = Arrays.asList("2026-10-18 10:00:00.000 b1", "2026-10-18 10:00:00.001 a1",
+                "2026-10-18 10:00:00.003 a2", "2026-10-18 10:00:00.003 a3", "2026-10-18 10:00:00.003 b2",
+                "2026-10-18 10:00:01.000 b3");
+        System.out.println("merge: " + merged.equals(expected));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = Math.max(4, cores);
+        for (int shards : new int[]{1, 2, 4}) {
+            File base = Files.createTempDirectory("test_sharded").toFile();
+            long eventsPerSecond = run(base, shards, threads);
+            List<String> records = new LogRangeReader(new File(base, "sharded")).read(Long.MIN_VALUE, Long.MAX_VALUE);
+            // 未分片的文件按入队顺序写入，多线程下时间可能交错，不合并
+            boolean ordered = true;
+            for (int i = 1; shards > 1 && ordered && i < records.size(); i++) {
+                ordered = records.get(i - 1).substring(0, 23).compareTo(records.get(i).substring(0, 23)) <= 0;
+            }
+            System.out.printf("shards %d, %d threads: %,d events/s, read %d/%d, merged in time order: %s%n",
+                    shards, threads, eventsPerSecond, records.size(), threads * EVENTS_PER_THREAD, shards > 1 ? ordered : "n/a");
+        }
+        if (cores == 1) {
+            System.out.println("availableProcessors = 1: shard scaling not measured, the numbers above only show the overhead");
+        }
+    }
+
+    /**
+     * 多个线程同时写入，返回包含关闭时排空落盘在内的吞吐
+     */
+    private static long run(File base, int shards, int threads) throws InterruptedException {
+        LogAppenderConfig config = new LogAppenderConfig(base.getPath());
+        config.setDefaultProfile(LogProfile.builder().console(ConsoleMode.OFF).shards(shards).build());
+        Logger logger = config.getLogger("sharded");
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            writers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    logger.info("writer {} 第{}条", id, i);
+                }
+            });
+            writers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        config.close();
+        long elapsed = System.nanoTime() - begin;
+        return (long) threads * EVENTS_PER_THREAD * 1_000_000_000L / elapsed;
+    }
+}